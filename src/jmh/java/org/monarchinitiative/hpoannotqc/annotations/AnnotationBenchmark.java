@@ -0,0 +1,124 @@
+package org.monarchinitiative.hpoannotqc.annotations;
+
+import org.monarchinitiative.hpoannotqc.benchmark.SyntheticCorpus;
+import org.monarchinitiative.phenol.ontology.data.Ontology;
+import org.monarchinitiative.phenol.ontology.data.TermId;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeSet;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Benchmarks of the per-line work of the {@code big-file} and {@code qc} commands on a synthetic corpus of small
+ * files. Each benchmark method processes the whole corpus once. {@code performQualityControl} is private and only
+ * runs as part of {@link HpoAnnotationEntry#fromLine}; its cost is the difference between
+ * {@link #parseWithQualityControl} and {@link #parseWithoutQualityControl}.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class AnnotationBenchmark {
+
+    @Param({"20000"})
+    private int nPhenotypes;
+
+    @Param({"1000"})
+    private int nDiseases;
+
+    @Param({"20"})
+    private int linesPerDisease;
+
+    private Ontology ontology;
+    /** The lines of all small files. */
+    private List<String> lines;
+    /** One model per small file, as created by the parser (before merging). */
+    private List<HpoAnnotationModel> models;
+    /** The entries of all (unmerged) models. */
+    private List<HpoAnnotationEntry> entries;
+    /** The distinct phenotype terms of the corpus. */
+    private List<TermId> phenotypeIds;
+    /** Shared by all lines, as in {@link PhenotypeDotHpoaFileWriter}. */
+    private AspectHelper aspectHelper;
+
+    @Setup
+    public void setup() {
+        SyntheticCorpus corpus = new SyntheticCorpus(nPhenotypes, 42L);
+        ontology = corpus.ontology();
+        lines = new ArrayList<>();
+        models = new ArrayList<>();
+        entries = new ArrayList<>();
+        TreeSet<TermId> phenotypes = new TreeSet<>();
+        for (Map.Entry<String, List<String>> smallFile : corpus.smallFiles(nDiseases, linesPerDisease).entrySet()) {
+            List<HpoAnnotationEntry> modelEntries = new ArrayList<>();
+            for (String line : smallFile.getValue()) {
+                HpoAnnotationEntry entry = HpoAnnotationEntry.fromLine(line, ontology);
+                if (entry.hasError()) {
+                    throw new IllegalStateException("Synthetic line did not pass Q/C: " + line + " " + entry.getErrorList());
+                }
+                lines.add(line);
+                modelEntries.add(entry);
+                phenotypes.add(entry.getPhenotypeId());
+            }
+            entries.addAll(modelEntries);
+            models.add(new HpoAnnotationModel(smallFile.getKey().replace(':', '-') + ".tab", modelEntries));
+        }
+        phenotypeIds = List.copyOf(phenotypes);
+        aspectHelper = new AspectHelper(ontology);
+    }
+
+    @Benchmark
+    public void parseWithQualityControl(Blackhole blackhole) {
+        for (String line : lines) {
+            blackhole.consume(HpoAnnotationEntry.fromLine(line, ontology));
+        }
+    }
+
+    @Benchmark
+    public void parseWithoutQualityControl(Blackhole blackhole) {
+        for (String line : lines) {
+            blackhole.consume(HpoAnnotationEntry.fromValidatedLine(line));
+        }
+    }
+
+    @Benchmark
+    public void mergeModels(Blackhole blackhole) {
+        for (HpoAnnotationModel model : models) {
+            blackhole.consume(model.getMergedModel());
+        }
+    }
+
+    /**
+     * A new {@link AspectHelper} per invocation, so that the aspect of each term is computed rather than memoized.
+     */
+    @Benchmark
+    public void aspect(Blackhole blackhole) {
+        AspectHelper helper = new AspectHelper(ontology);
+        for (TermId tid : phenotypeIds) {
+            blackhole.consume(helper.parse(tid));
+        }
+    }
+
+    @Benchmark
+    public void bigFileLines(Blackhole blackhole) {
+        for (HpoAnnotationEntry entry : entries) {
+            blackhole.consume(entry.toBigFileLine(aspectHelper));
+        }
+    }
+}
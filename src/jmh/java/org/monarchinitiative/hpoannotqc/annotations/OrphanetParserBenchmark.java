@@ -0,0 +1,69 @@
+package org.monarchinitiative.hpoannotqc.annotations;
+
+import org.monarchinitiative.hpoannotqc.benchmark.SyntheticCorpus;
+import org.monarchinitiative.phenol.ontology.data.Ontology;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Benchmark of {@link OrphanetXML2HpoDiseaseModelParser} on a synthetic {@code en_product4.xml} file. The diseases
+ * are passed to a consumer, as in {@link PhenotypeDotHpoaFileWriter}.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class OrphanetParserBenchmark {
+
+    @Param({"20000"})
+    private int nPhenotypes;
+
+    @Param({"4000"})
+    private int nDiseases;
+
+    @Param({"15"})
+    private int associationsPerDisease;
+
+    @Param({"1", "4"})
+    private int threads;
+
+    private Ontology ontology;
+
+    private Path orphanetXml;
+
+    @Setup
+    public void setup() throws IOException {
+        SyntheticCorpus corpus = new SyntheticCorpus(nPhenotypes, 42L);
+        ontology = corpus.ontology();
+        orphanetXml = Files.createTempFile("en_product4", ".xml");
+        corpus.writeOrphanetXml(orphanetXml, nDiseases, associationsPerDisease);
+    }
+
+    @TearDown
+    public void tearDown() throws IOException {
+        Files.deleteIfExists(orphanetXml);
+    }
+
+    @Benchmark
+    public void parse(Blackhole blackhole) {
+        new OrphanetXML2HpoDiseaseModelParser(orphanetXml.toString(), ontology, true, blackhole::consume, threads);
+    }
+}
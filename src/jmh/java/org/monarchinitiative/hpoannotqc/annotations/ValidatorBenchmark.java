@@ -0,0 +1,103 @@
+package org.monarchinitiative.hpoannotqc.annotations;
+
+import org.monarchinitiative.hpoannotqc.benchmark.SyntheticCorpus;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+import java.util.regex.Pattern;
+
+/**
+ * Benchmarks of the {@link BiocurationChecker} and {@link CitationChecker} on the biocuration and citation columns of
+ * a synthetic corpus of small files. The {@code previous} benchmarks are the previous implementations, which split the
+ * biocuration column and match each entry with a regular expression, and which take the citation apart with
+ * {@code indexOf}, {@code contains} and {@code substring}. They are kept here for comparison.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class ValidatorBenchmark {
+
+    private static final Pattern BIOCURATION_PATTERN =
+            Pattern.compile("(\\w+:\\w+|ORCID:\\d{4}-\\d{4}-\\d{4}-\\d{4})\\[\\d{4}-\\d{2}-\\d{2}]");
+
+    private static final Set<String> VALID_CITATION_PREFIXES = Set.of("PMID", "OMIM", "http", "https", "DECIPHER",
+            "ORPHA", "ISBN", "ISBN-10", "ISBN-13");
+
+    @Param({"20000"})
+    private int nPhenotypes;
+
+    @Param({"1000"})
+    private int nDiseases;
+
+    @Param({"20"})
+    private int linesPerDisease;
+
+    /** The entries of all small files; they pass Q/C, so the checkers do not add errors to them. */
+    private List<HpoAnnotationEntry> entries;
+
+    @Setup
+    public void setup() {
+        SyntheticCorpus corpus = new SyntheticCorpus(nPhenotypes, 42L);
+        entries = new ArrayList<>();
+        for (List<String> lines : corpus.smallFiles(nDiseases, linesPerDisease).values()) {
+            for (String line : lines) {
+                entries.add(HpoAnnotationEntry.fromValidatedLine(line));
+            }
+        }
+    }
+
+    @Benchmark
+    public void biocuration(Blackhole blackhole) {
+        for (HpoAnnotationEntry entry : entries) {
+            BiocurationChecker.checkEntry(entry, "n/a");
+        }
+        blackhole.consume(entries);
+    }
+
+    @Benchmark
+    public void previousBiocuration(Blackhole blackhole) {
+        for (HpoAnnotationEntry entry : entries) {
+            for (String f : entry.getBiocuration().split(";")) {
+                blackhole.consume(BIOCURATION_PATTERN.matcher(f).find());
+            }
+        }
+    }
+
+    @Benchmark
+    public void citation(Blackhole blackhole) {
+        for (HpoAnnotationEntry entry : entries) {
+            CitationChecker.checkEntry(entry, "n/a");
+        }
+        blackhole.consume(entries);
+    }
+
+    @Benchmark
+    public void previousCitation(Blackhole blackhole) {
+        for (HpoAnnotationEntry entry : entries) {
+            String pub = entry.getPublication();
+            int index = pub.indexOf(":");
+            blackhole.consume(index <= 0);
+            blackhole.consume(pub.contains("::"));
+            blackhole.consume(pub.contains(" "));
+            blackhole.consume(VALID_CITATION_PREFIXES.contains(pub.substring(0, index)));
+            blackhole.consume(pub.length() - index < 2);
+        }
+    }
+}
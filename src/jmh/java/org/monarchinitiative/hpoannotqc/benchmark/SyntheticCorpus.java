@@ -0,0 +1,265 @@
+package org.monarchinitiative.hpoannotqc.benchmark;
+
+import org.monarchinitiative.phenol.ontology.data.ImmutableOntology;
+import org.monarchinitiative.phenol.ontology.data.Ontology;
+import org.monarchinitiative.phenol.ontology.data.Relationship;
+import org.monarchinitiative.phenol.ontology.data.RelationshipType;
+import org.monarchinitiative.phenol.ontology.data.Term;
+import org.monarchinitiative.phenol.ontology.data.TermId;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.Set;
+
+import static org.monarchinitiative.hpoannotqc.annotations.hpo.HpoFrequencyTermIds.*;
+
+/**
+ * Generates a synthetic HPO and synthetic annotation data of configurable size, so that the benchmarks do not need
+ * {@code hp.json}, the small files or the Orphanet XML files. The ontology has the sub-ontologies that the Q/C code
+ * checks (onset, frequency, clinical modifier, inheritance, ...) with their real TermIds, plus a random tree of
+ * phenotypic abnormality terms. All data are generated from a seed, so that each run sees the same corpus.
+ */
+public class SyntheticCorpus {
+
+    private static final TermId ALL = TermId.of("HP:0000001");
+    private static final TermId PHENOTYPIC_ABNORMALITY = TermId.of("HP:0000118");
+    private static final TermId INHERITANCE = TermId.of("HP:0000005");
+    private static final TermId AUTOSOMAL_DOMINANT = TermId.of("HP:0000006");
+    private static final TermId AUTOSOMAL_RECESSIVE = TermId.of("HP:0000007");
+    private static final TermId CLINICAL_COURSE = TermId.of("HP:0031797");
+    private static final TermId ONSET = TermId.of("HP:0003674");
+    private static final TermId CONGENITAL_ONSET = TermId.of("HP:0003577");
+    private static final TermId CHILDHOOD_ONSET = TermId.of("HP:0011463");
+    private static final TermId CLINICAL_MODIFIER = TermId.of("HP:0012823");
+    private static final TermId SEVERITY = TermId.of("HP:0012824");
+    private static final TermId PAST_MEDICAL_HISTORY = TermId.of("HP:0032443");
+    /** The synthetic phenotypic abnormality terms are numbered from this value on. */
+    private static final int FIRST_PHENOTYPE = 3_000_000;
+
+    private static final String[] FREQUENCIES = {"", "", "1/3", "5/7", "40%", "12.5%",
+        OBLIGATE.getValue(), VERY_FREQUENT.getValue(), FREQUENT.getValue(), OCCASIONAL.getValue()};
+    /** Orphanet frequency ids (attribute of {@code HPOFrequency}), see {@code OrphanetXML2HpoDiseaseModelParser}. */
+    private static final String[] ORPHANET_FREQUENCIES = {"28405", "28412", "28419", "28426", "28433", "28440"};
+
+    private final Ontology ontology;
+
+    private final List<TermId> phenotypes;
+
+    private final Random random;
+
+    /**
+     * @param nPhenotypes number of phenotypic abnormality terms of the synthetic ontology
+     * @param seed        seed of the random generator
+     */
+    public SyntheticCorpus(int nPhenotypes, long seed) {
+        this.random = new Random(seed);
+        List<Term> terms = new ArrayList<>();
+        List<Relationship> relationships = new ArrayList<>();
+        addTerm(terms, relationships, ALL, "All", null);
+        addTerm(terms, relationships, PHENOTYPIC_ABNORMALITY, "Phenotypic abnormality", ALL);
+        addTerm(terms, relationships, INHERITANCE, "Mode of inheritance", ALL);
+        addTerm(terms, relationships, AUTOSOMAL_DOMINANT, "Autosomal dominant inheritance", INHERITANCE);
+        addTerm(terms, relationships, AUTOSOMAL_RECESSIVE, "Autosomal recessive inheritance", INHERITANCE);
+        addTerm(terms, relationships, CLINICAL_COURSE, "Clinical course", ALL);
+        addTerm(terms, relationships, ONSET, "Onset", CLINICAL_COURSE);
+        addTerm(terms, relationships, CONGENITAL_ONSET, "Congenital onset", ONSET);
+        addTerm(terms, relationships, CHILDHOOD_ONSET, "Childhood onset", ONSET);
+        addTerm(terms, relationships, CLINICAL_MODIFIER, "Clinical modifier", ALL);
+        addTerm(terms, relationships, SEVERITY, "Severity", CLINICAL_MODIFIER);
+        addTerm(terms, relationships, PAST_MEDICAL_HISTORY, "Past medical history", ALL);
+        addTerm(terms, relationships, FREQUENCY, "Frequency", ALL);
+        addTerm(terms, relationships, OBLIGATE, "Obligate", FREQUENCY);
+        addTerm(terms, relationships, VERY_FREQUENT, "Very frequent", FREQUENCY);
+        addTerm(terms, relationships, FREQUENT, "Frequent", FREQUENCY);
+        addTerm(terms, relationships, OCCASIONAL, "Occasional", FREQUENCY);
+        addTerm(terms, relationships, VERY_RARE, "Very rare", FREQUENCY);
+        addTerm(terms, relationships, EXCLUDED, "Excluded", FREQUENCY);
+        // A random tree below "Phenotypic abnormality"; some terms get a second parent, as in the HPO.
+        this.phenotypes = new ArrayList<>(nPhenotypes);
+        for (int i = 0; i < nPhenotypes; i++) {
+            TermId tid = TermId.of(String.format("HP:%07d", FIRST_PHENOTYPE + i));
+            TermId parent = i == 0 ? PHENOTYPIC_ABNORMALITY : phenotypes.get(random.nextInt(i));
+            addTerm(terms, relationships, tid, "Phenotype " + i, parent);
+            if (i > 1 && random.nextInt(10) == 0) {
+                TermId secondParent = phenotypes.get(random.nextInt(i));
+                if (!secondParent.equals(parent)) {
+                    relationships.add(new Relationship(tid, secondParent, relationships.size() + 1, RelationshipType.IS_A));
+                }
+            }
+            phenotypes.add(tid);
+        }
+        this.ontology = ImmutableOntology.builder()
+            .metaInfo(Map.of("data-version", "synthetic"))
+            .terms(terms)
+            .relationships(relationships)
+            .build();
+    }
+
+    private static void addTerm(List<Term> terms, List<Relationship> relationships, TermId tid, String label, TermId parent) {
+        terms.add(Term.of(tid, label));
+        if (parent != null) {
+            relationships.add(new Relationship(tid, parent, relationships.size() + 1, RelationshipType.IS_A));
+        }
+    }
+
+    public Ontology ontology() {
+        return ontology;
+    }
+
+    private TermId randomPhenotype() {
+        return phenotypes.get(random.nextInt(phenotypes.size()));
+    }
+
+    private String label(TermId tid) {
+        return ontology.getTermLabel(tid).orElseThrow();
+    }
+
+    /**
+     * Lines of small files (without the header), each disease with its lines in a row. About one phenotype in five is
+     * annotated twice for the same disease (with different frequencies and citations), so that
+     * {@code HpoAnnotationModel#getMergedModel} has something to merge.
+     *
+     * @param nDiseases           number of diseases
+     * @param linesPerDisease     average number of lines per disease
+     * @return map with the disease id (e.g., OMIM:600001) as key and the lines of its small file as value
+     */
+    public Map<String, List<String>> smallFiles(int nDiseases, int linesPerDisease) {
+        Map<String, List<String>> smallFiles = new LinkedHashMap<>();
+        for (int d = 0; d < nDiseases; d++) {
+            String diseaseId = String.format("OMIM:%06d", 600_000 + d);
+            String diseaseName = "SYNTHETIC DISEASE " + d;
+            List<String> lines = new ArrayList<>();
+            int n = 1 + random.nextInt(2 * linesPerDisease);
+            TermId previous = null;
+            for (int i = 0; i < n; i++) {
+                TermId phenotype = previous != null && random.nextInt(5) == 0 ? previous : randomPhenotype();
+                previous = phenotype;
+                boolean withOnset = random.nextInt(4) == 0;
+                TermId onset = random.nextBoolean() ? CONGENITAL_ONSET : CHILDHOOD_ONSET;
+                String citation = random.nextInt(3) == 0 ? diseaseId : "PMID:" + (10_000_000 + random.nextInt(20_000_000));
+                lines.add(String.join("\t",
+                    diseaseId,
+                    diseaseName,
+                    phenotype.getValue(),
+                    label(phenotype),
+                    withOnset ? onset.getValue() : "",
+                    withOnset ? label(onset) : "",
+                    FREQUENCIES[random.nextInt(FREQUENCIES.length)],
+                    random.nextInt(20) == 0 ? "FEMALE" : "",
+                    random.nextInt(20) == 0 ? "NOT" : "",
+                    random.nextInt(10) == 0 ? SEVERITY.getValue() : "",
+                    "",
+                    citation,
+                    random.nextBoolean() ? "PCS" : "TAS",
+                    String.format("HPO:curator%d[20%02d-%02d-%02d]", random.nextInt(20), 10 + random.nextInt(15),
+                        1 + random.nextInt(12), 1 + random.nextInt(28))));
+            }
+            smallFiles.put(diseaseId, lines);
+        }
+        return smallFiles;
+    }
+
+    /**
+     * Write a file in the format of the Orphanet {@code en_product4.xml} file.
+     *
+     * @param path                   path of the XML file
+     * @param nDiseases              number of diseases
+     * @param associationsPerDisease average number of HPO annotations per disease
+     * @throws IOException if the file cannot be written
+     */
+    public void writeOrphanetXml(Path path, int nDiseases, int associationsPerDisease) throws IOException {
+        try (BufferedWriter writer = Files.newBufferedWriter(path, StandardCharsets.ISO_8859_1)) {
+            writer.write("<?xml version=\"1.0\" encoding=\"ISO-8859-1\"?>\n");
+            writer.write("<JDBOR date=\"2024-01-01 00:00:00\" version=\"1.3.1 / 4.1.7\">\n");
+            writer.write("<Availability><Licence><FullName lang=\"en\">Creative Commons Attribution 4.0 International</FullName>"
+                + "<ShortIdentifier>CC-BY-4.0</ShortIdentifier><LegalCode>https://creativecommons.org/licenses/by/4.0/legalcode</LegalCode>"
+                + "</Licence></Availability>\n");
+            writer.write(String.format("<HPODisorderSetStatusList count=\"%d\">\n", nDiseases));
+            int associationId = 0;
+            for (int d = 0; d < nDiseases; d++) {
+                int n = 1 + random.nextInt(2 * associationsPerDisease);
+                writer.write(String.format("<HPODisorderSetStatus id=\"%d\"><Disorder id=\"%d\"><OrphaCode>%d</OrphaCode>"
+                        + "<ExpertLink lang=\"en\">http://www.orpha.net/consor/cgi-bin/OC_Exp.php?lng=en&amp;Expert=%d</ExpertLink>"
+                        + "<Name lang=\"en\">Synthetic disorder %d</Name>"
+                        + "<DisorderType id=\"21394\"><Name lang=\"en\">Disease</Name></DisorderType>"
+                        + "<DisorderGroup id=\"36547\"><Name lang=\"en\">Disorder</Name></DisorderGroup>"
+                        + "<HPODisorderAssociationList count=\"%d\">\n",
+                    d, d, 100_000 + d, 100_000 + d, d, n));
+                for (int i = 0; i < n; i++) {
+                    TermId phenotype = randomPhenotype();
+                    writer.write(String.format("<HPODisorderAssociation id=\"%d\"><HPO id=\"%d\"><HPOId>%s</HPOId><HPOTerm>%s</HPOTerm></HPO>"
+                            + "<HPOFrequency id=\"%s\"><Name lang=\"en\">Frequency</Name></HPOFrequency>"
+                            + "<DiagnosticCriteria/></HPODisorderAssociation>\n",
+                        associationId, associationId, phenotype.getValue(), label(phenotype),
+                        ORPHANET_FREQUENCIES[random.nextInt(ORPHANET_FREQUENCIES.length)]));
+                    associationId++;
+                }
+                writer.write("</HPODisorderAssociationList></Disorder>"
+                    + "<ValidationStatus>y</ValidationStatus><Online>y</Online>"
+                    + "<ValidationDate>2016-06-01 00:00:00.0</ValidationDate></HPODisorderSetStatus>\n");
+            }
+            writer.write("</HPODisorderSetStatusList>\n</JDBOR>\n");
+        }
+    }
+
+    /**
+     * Synthetic disease annotations for the supplemental files: each disease has random phenotypes and one to three
+     * genes.
+     */
+    public static class GeneDiseaseData {
+        /** Key: a phenotype; value: the diseases annotated to it. */
+        public final Map<TermId, Set<TermId>> phenotypeToDiseases = new HashMap<>();
+        /** Key: a gene; value: the diseases associated with it. */
+        public final Map<TermId, Set<TermId>> geneToDiseases = new HashMap<>();
+        /**
+         * The phenotype/gene pairs that {@code phenotype_to_genes.txt} asks for: each phenotype of a disease with each
+         * gene of the disease, once for the phenotype itself and once for each of its ancestors (which inherit the
+         * gene).
+         */
+        public final List<TermId[]> phenotypeGenePairs = new ArrayList<>();
+    }
+
+    /**
+     * @param nDiseases          number of diseases
+     * @param nGenes             number of genes
+     * @param phenotypesPerDisease average number of phenotypes per disease
+     * @return the synthetic disease annotations
+     */
+    public GeneDiseaseData geneDiseaseData(int nDiseases, int nGenes, int phenotypesPerDisease) {
+        GeneDiseaseData data = new GeneDiseaseData();
+        for (int d = 0; d < nDiseases; d++) {
+            TermId disease = TermId.of(String.format("OMIM:%06d", 600_000 + d));
+            Set<TermId> genes = new LinkedHashSet<>();
+            int nDiseaseGenes = 1 + random.nextInt(3);
+            for (int g = 0; g < nDiseaseGenes; g++) {
+                genes.add(TermId.of("NCBIGene:" + (1 + random.nextInt(nGenes))));
+            }
+            for (TermId gene : genes) {
+                data.geneToDiseases.computeIfAbsent(gene, k -> new HashSet<>()).add(disease);
+            }
+            int n = 1 + random.nextInt(2 * phenotypesPerDisease);
+            for (int i = 0; i < n; i++) {
+                TermId phenotype = randomPhenotype();
+                data.phenotypeToDiseases.computeIfAbsent(phenotype, k -> new HashSet<>()).add(disease);
+                // the phenotype and each of its ancestors inherit the genes with the annotation of the phenotype
+                for (TermId inheritingTerm : ontology.graph().extendWithAncestors(phenotype, true)) {
+                    for (TermId gene : genes) {
+                        data.phenotypeGenePairs.add(new TermId[]{phenotype, gene});
+                    }
+                }
+            }
+        }
+        return data;
+    }
+}
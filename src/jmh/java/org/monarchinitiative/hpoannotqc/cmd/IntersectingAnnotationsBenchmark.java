@@ -0,0 +1,62 @@
+package org.monarchinitiative.hpoannotqc.cmd;
+
+import org.monarchinitiative.hpoannotqc.benchmark.SyntheticCorpus;
+import org.monarchinitiative.phenol.ontology.data.TermId;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Benchmark of {@link SupplementalFilesCommand#intersecting_annotations} with the phenotype/gene pairs that
+ * {@code phenotype_to_genes.txt} asks for.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class IntersectingAnnotationsBenchmark {
+
+    @Param({"20000"})
+    private int nPhenotypes;
+
+    @Param({"8000"})
+    private int nDiseases;
+
+    @Param({"4000"})
+    private int nGenes;
+
+    private SyntheticCorpus.GeneDiseaseData data;
+
+    private SupplementalFilesCommand command;
+
+    @Setup(Level.Trial)
+    public void setup() {
+        SyntheticCorpus corpus = new SyntheticCorpus(nPhenotypes, 42L);
+        data = corpus.geneDiseaseData(nDiseases, nGenes, 20);
+        command = new SupplementalFilesCommand();
+        command.diseaseIntersectionIndex = new DiseaseIntersectionIndex(data.phenotypeToDiseases, data.geneToDiseases);
+    }
+
+    @Benchmark
+    public void intersectingAnnotations(Blackhole blackhole) {
+        List<TermId[]> pairs = data.phenotypeGenePairs;
+        for (TermId[] pair : pairs) {
+            blackhole.consume(command.intersecting_annotations(pair[0], pair[1]));
+        }
+    }
+}
@@ -0,0 +1,177 @@
+package org.monarchinitiative.hpoannotqc.annotations;
+
+import java.util.*;
+
+import static org.monarchinitiative.hpoannotqc.annotations.AnnotationTable.*;
+
+/**
+ * Merges the annotation lines of a small file that refer to the same HPO term (see
+ * {@link HpoAnnotationModel#getMergedModel()}). The rows of the {@link AnnotationTable} are grouped by the code of
+ * their HPO term in a single pass. The groups are emitted in the order of their first row in the small file, so that
+ * the merged model does not depend on hash order. The negation, sex and onset of a group are compared by their codes
+ * in one pass over the group; a group in which they all agree is merged into one entry, otherwise its rows are kept
+ * as they are. The rows of a group with a frequency that cannot be added up (e.g., a malformed frequency such as
+ * {@code .5%}) are also kept as they are, so that the Q/C errors of the small file are reported rather than aborting
+ * the run. Merging happens before the errors of the small files are collected, so it may see lines that failed Q/C.
+ */
+final class AnnotationMerger {
+
+  private static final String EMPTY_STRING = "";
+  /** Marks the last row of a group in {@link #next}. */
+  private static final int END = -1;
+
+  private final AnnotationTable table;
+
+  private final int emptyCode;
+
+  private final int pcsCode;
+
+  private final int tasCode;
+  /** The next row with the same HPO term, or {@link #END}. */
+  private final int[] next;
+  /** True for the first row of each HPO term. */
+  private final boolean[] first;
+
+  private AnnotationMerger(AnnotationTable table) {
+    this.table = table;
+    this.emptyCode = table.symbols().code(EMPTY_STRING);
+    this.pcsCode = table.symbols().code("PCS");
+    this.tasCode = table.symbols().code("TAS");
+    int rows = table.rows();
+    this.next = new int[rows];
+    this.first = new boolean[rows];
+    Map<Integer, Integer> lastRowOfTerm = new HashMap<>();
+    for (int row = 0; row < rows; row++) {
+      next[row] = END;
+      Integer previous = lastRowOfTerm.put(table.phenotypeCode(row), row);
+      if (previous == null) {
+        first[row] = true;
+      } else {
+        next[previous] = row;
+      }
+    }
+  }
+
+  /**
+   * @param table the rows of a small file
+   * @return the merged entries, in the order of the first row of each HPO term
+   */
+  static List<HpoAnnotationEntry> merge(AnnotationTable table) {
+    return new AnnotationMerger(table).merge();
+  }
+
+  private List<HpoAnnotationEntry> merge() {
+    List<HpoAnnotationEntry> merged = new ArrayList<>();
+    for (int row = 0; row < table.rows(); row++) {
+      if (!first[row]) {
+        continue;
+      }
+      if (next[row] == END) { // No duplicate entries for this TermId
+        merged.add(table.entry(row));
+      } else if (divergent(row) || !hasObservations(row)) {
+        for (int r = row; r != END; r = next[r]) {
+          merged.add(table.entry(r)); // cannot merge, add each separately
+        }
+      } else {
+        merged.add(mergeGroup(row));
+      }
+    }
+    return merged;
+  }
+
+  /**
+   * Equal values have equal codes, so the values are compared by their codes. As in
+   * {@link HpoAnnotationEntry#getNegation()} and {@link HpoAnnotationEntry#getSex()}, a missing negation or sex is
+   * the empty string. A missing onset of the first row is the empty string, whereas a missing onset of a later row
+   * differs from any value.
+   *
+   * @param head the first row of a group
+   * @return true if the negation, sex or onset of the rows of the group differ
+   */
+  private boolean divergent(int head) {
+    int negation = orEmpty(table.code(NEGATION, head));
+    int sex = orEmpty(table.code(SEX, head));
+    int onset = orEmpty(table.code(ONSET_ID, head));
+    for (int row = next[head]; row != END; row = next[row]) {
+      if (orEmpty(table.code(NEGATION, row)) != negation
+        || orEmpty(table.code(SEX, row)) != sex
+        || table.code(ONSET_ID, row) != onset) {
+        return true;
+      }
+    }
+    return false; // if we get here we can still merge. Items are not divergent
+  }
+
+  /**
+   * @param head the first row of a group
+   * @return true if the frequencies of all rows of the group can be added up (see {@link Frequency#hasObservations()})
+   */
+  private boolean hasObservations(int head) {
+    for (int row = head; row != END; row = next[row]) {
+      if (!table.frequency(row).hasObservations()) {
+        return false;
+      }
+    }
+    return true;
+  }
+
+  /**
+   * If this method is called, then we have checked that Sex, Negation, AgeOfOnset are the same and that all
+   * frequencies can be added up.
+   * Merge everything else, concatenating biocuration and PMID and modifier and description (the non-empty modifiers
+   * and descriptions are joined with semicolons). The frequencies are
+   * added up (e.g., 2/3 and 5/7 are merged to 7/10, see {@link Frequency#observations()}). Publications and
+   * biocuration entries are deduplicated and kept in the order of their first occurrence.
+   *
+   * @param head the first row of a group of rows with the same HPO term
+   * @return a merged entry
+   */
+  private HpoAnnotationEntry mergeGroup(int head) {
+    int numerator = 0;
+    int denominator = 0;
+    StringJoiner modifiers = new StringJoiner(";");
+    StringJoiner descriptions = new StringJoiner(";");
+    Set<String> publications = new LinkedHashSet<>();
+    Set<String> biocuration = new LinkedHashSet<>();
+    String evidence = "IEA"; //default
+    for (int row = head; row != END; row = next[row]) {
+      int[] observations = table.frequency(row).observations();
+      numerator += observations[0];
+      denominator += observations[1];
+      String modifier = table.string(MODIFIER, row);
+      if (modifier != null && !modifier.isEmpty()) {
+        modifiers.add(modifier);
+      }
+      String description = table.string(DESCRIPTION, row);
+      if (description != null && !description.isEmpty()) {
+        descriptions.add(description);
+      }
+      publications.add(table.string(PUBLICATION, row));
+      biocuration.add(table.string(BIOCURATION, row));
+      int evidenceCode = table.code(EVIDENCE, row);
+      if (evidenceCode == pcsCode) {
+        evidence = "PCS";
+      } else if (evidenceCode == tasCode && !evidence.equals("PCS")) {
+        evidence = "TAS"; // better than IEA
+      }
+    }
+    return new HpoAnnotationEntry(table.string(DISEASE_ID, head),
+      table.string(DISEASE_NAME, head),
+      table.symbols().termId(table.phenotypeCode(head)),
+      table.string(PHENOTYPE_NAME, head),
+      table.string(ONSET_ID, head),
+      table.string(ONSET_NAME, head),
+      numerator + "/" + denominator,
+      table.string(SEX, head),
+      table.string(NEGATION, head),
+      modifiers.toString(),
+      descriptions.toString(),
+      String.join(";", publications),
+      evidence,
+      String.join(";", biocuration));
+  }
+
+  private int orEmpty(int code) {
+    return code == SymbolTable.NULL_CODE ? emptyCode : code;
+  }
+}
@@ -0,0 +1,263 @@
+package org.monarchinitiative.hpoannotqc.annotations;
+
+import org.monarchinitiative.hpoannotqc.annotations.hpoaerror.HpoaError;
+import org.monarchinitiative.phenol.ontology.data.TermId;
+
+import java.util.AbstractList;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.RandomAccess;
+import java.util.TreeMap;
+
+/**
+ * The annotation lines of one {@link HpoAnnotationModel}, stored by column. The fields whose values repeat across
+ * lines (the disease, HPO, onset and frequency ids and labels, sex, negation, modifier and evidence) are
+ * dictionary-encoded with the {@link SymbolTable} of the run and stored as int codes in a single array, column after
+ * column. The free-text columns (description, publication and biocuration) have nearly as many values as lines, so
+ * they are stored as plain references instead of taking up a slot in the symbol table. A row takes 11 ints and 3
+ * references, instead of an {@link HpoAnnotationEntry} object with 15 references and its own error list. The errors
+ * are kept only for the rows that have errors.
+ * <p>
+ * {@link #asList()} is a read-only view of the rows as {@link HpoAnnotationEntry} objects, which are created when
+ * they are requested; their coded field values are the canonical instances of the {@link SymbolTable}.
+ * </p>
+ */
+final class AnnotationTable {
+
+  static final int DISEASE_ID = 0;
+  static final int DISEASE_NAME = 1;
+  static final int PHENOTYPE_ID = 2;
+  static final int PHENOTYPE_NAME = 3;
+  static final int ONSET_ID = 4;
+  static final int ONSET_NAME = 5;
+  static final int FREQUENCY = 6;
+  static final int SEX = 7;
+  static final int NEGATION = 8;
+  static final int MODIFIER = 9;
+  static final int EVIDENCE = 10;
+  /** The first column that is stored as text; the columns before it are coded. */
+  static final int DESCRIPTION = 11;
+  static final int PUBLICATION = 12;
+  static final int BIOCURATION = 13;
+  private static final int CODED_COLUMNS = DESCRIPTION;
+  private static final int TEXT_COLUMNS = 3;
+
+  /** The table that the codes refer to. */
+  private final SymbolTable symbols;
+
+  private final int rows;
+  /** The code of coded column {@code c} and row {@code r} is at {@code c * rows + r}. */
+  private final int[] codes;
+  /** The value of text column {@code c} and row {@code r} is at {@code (c - DESCRIPTION) * rows + r}. */
+  private final String[] text;
+  /** Key: a row with errors; value: its errors. Empty if no row has errors. */
+  private final Map<Integer, List<HpoaError>> errors;
+  /** The read-only view returned by {@link #asList()}. */
+  private final List<HpoAnnotationEntry> view;
+
+  private AnnotationTable(SymbolTable symbols, int rows, int[] codes, String[] text,
+                          Map<Integer, List<HpoaError>> errors) {
+    this.symbols = symbols;
+    this.rows = rows;
+    this.codes = codes;
+    this.text = text;
+    this.errors = errors;
+    this.view = new EntryView();
+  }
+
+  /**
+   * @param entries the annotation lines, in order
+   * @param symbols the symbol table of the run
+   * @return a table with one row per entry
+   */
+  static AnnotationTable of(Collection<HpoAnnotationEntry> entries, SymbolTable symbols) {
+    int rows = entries.size();
+    int[] codes = new int[CODED_COLUMNS * rows];
+    String[] text = new String[TEXT_COLUMNS * rows];
+    Map<Integer, List<HpoaError>> errors = encode(entries, symbols, rows, 0, codes, text, Map.of());
+    return new AnnotationTable(symbols, rows, codes, text, errors);
+  }
+
+  /**
+   * The rows of this table are copied column by column; no {@link HpoAnnotationEntry} objects are created for them.
+   *
+   * @param entries annotation lines to append
+   * @return a new table with the rows of this table followed by one row per entry
+   */
+  AnnotationTable append(Collection<HpoAnnotationEntry> entries) {
+    int total = rows + entries.size();
+    int[] newCodes = new int[CODED_COLUMNS * total];
+    for (int column = 0; column < CODED_COLUMNS; column++) {
+      System.arraycopy(codes, column * rows, newCodes, column * total, rows);
+    }
+    String[] newText = new String[TEXT_COLUMNS * total];
+    for (int column = 0; column < TEXT_COLUMNS; column++) {
+      System.arraycopy(text, column * rows, newText, column * total, rows);
+    }
+    Map<Integer, List<HpoaError>> newErrors = errors.isEmpty() ? Map.of() : new TreeMap<>(errors);
+    newErrors = encode(entries, symbols, total, rows, newCodes, newText, newErrors);
+    return new AnnotationTable(symbols, total, newCodes, newText, newErrors);
+  }
+
+  /**
+   * Store {@code entries} in the rows from {@code first} of the arrays of a table with {@code rows} rows.
+   *
+   * @return {@code errors}, or a new map if {@code errors} was the empty map and an entry has errors
+   */
+  private static Map<Integer, List<HpoaError>> encode(Collection<HpoAnnotationEntry> entries,
+                                                      SymbolTable symbols,
+                                                      int rows,
+                                                      int first,
+                                                      int[] codes,
+                                                      String[] text,
+                                                      Map<Integer, List<HpoaError>> errors) {
+    int row = first;
+    for (HpoAnnotationEntry entry : entries) {
+      codes[DISEASE_ID * rows + row] = symbols.code(entry.getDiseaseID());
+      codes[DISEASE_NAME * rows + row] = symbols.code(entry.getDiseaseName());
+      codes[PHENOTYPE_ID * rows + row] = symbols.code(entry.getPhenotypeId());
+      codes[PHENOTYPE_NAME * rows + row] = symbols.code(entry.getPhenotypeLabel());
+      codes[ONSET_ID * rows + row] = symbols.code(entry.getAgeOfOnsetId());
+      codes[ONSET_NAME * rows + row] = symbols.code(entry.getAgeOfOnsetLabel());
+      codes[FREQUENCY * rows + row] = symbols.code(entry.getFrequencyModifier());
+      codes[SEX * rows + row] = symbols.code(entry.getSex());
+      codes[NEGATION * rows + row] = symbols.code(entry.getNegation());
+      codes[MODIFIER * rows + row] = symbols.code(entry.getModifier());
+      codes[EVIDENCE * rows + row] = symbols.code(entry.getEvidenceCode());
+      text[(DESCRIPTION - CODED_COLUMNS) * rows + row] = entry.getRawDescription();
+      text[(PUBLICATION - CODED_COLUMNS) * rows + row] = entry.getPublication();
+      text[(BIOCURATION - CODED_COLUMNS) * rows + row] = entry.getBiocuration();
+      if (entry.hasError()) {
+        if (errors.isEmpty()) {
+          errors = new TreeMap<>();
+        }
+        errors.put(row, entry.getErrorList());
+      }
+      row++;
+    }
+    return errors;
+  }
+
+  /**
+   * @return the symbol table that the codes of this table refer to
+   */
+  SymbolTable symbols() {
+    return symbols;
+  }
+
+  /**
+   * @return number of rows
+   */
+  int rows() {
+    return rows;
+  }
+
+  /**
+   * @return the code of the HPO term id of {@code row} (see {@link #symbols()})
+   */
+  int phenotypeCode(int row) {
+    return codes[PHENOTYPE_ID * rows + row];
+  }
+
+  /**
+   * @return the disease id of {@code row}
+   */
+  String diseaseId(int row) {
+    return string(DISEASE_ID, row);
+  }
+
+  /**
+   * @return the disease name of {@code row}
+   */
+  String diseaseName(int row) {
+    return string(DISEASE_NAME, row);
+  }
+
+  /**
+   * @return true if at least one row has errors
+   */
+  boolean hasErrors() {
+    return !errors.isEmpty();
+  }
+
+  /**
+   * @return the errors of all rows, in the order of the rows
+   */
+  List<HpoaError> errors() {
+    List<HpoaError> all = new ArrayList<>();
+    for (List<HpoaError> rowErrors : errors.values()) {
+      all.addAll(rowErrors);
+    }
+    return all;
+  }
+
+  /**
+   * @return a read-only view of the rows as {@link HpoAnnotationEntry} objects
+   */
+  List<HpoAnnotationEntry> asList() {
+    return view;
+  }
+
+  /**
+   * @param column a coded column, i.e., not {@link #DESCRIPTION}, {@link #PUBLICATION} or {@link #BIOCURATION}
+   * @return the code of the value in {@code column} of {@code row} (see {@link #symbols()})
+   */
+  int code(int column, int row) {
+    return codes[column * rows + row];
+  }
+
+  /**
+   * @return the value in {@code column} of {@code row}
+   */
+  String string(int column, int row) {
+    if (column >= CODED_COLUMNS) {
+      return text[(column - CODED_COLUMNS) * rows + row];
+    }
+    return symbols.string(codes[column * rows + row]);
+  }
+
+  /**
+   * @return the decoded frequency of {@code row}
+   */
+  Frequency frequency(int row) {
+    return symbols.frequency(string(FREQUENCY, row));
+  }
+
+  /**
+   * @return a new {@link HpoAnnotationEntry} with the values (and errors) of {@code row}
+   */
+  HpoAnnotationEntry entry(int row) {
+    return new HpoAnnotationEntry(string(DISEASE_ID, row),
+      string(DISEASE_NAME, row),
+      symbols.termId(phenotypeCode(row)),
+      string(PHENOTYPE_NAME, row),
+      string(ONSET_ID, row),
+      string(ONSET_NAME, row),
+      frequency(row),
+      string(SEX, row),
+      string(NEGATION, row),
+      string(MODIFIER, row),
+      string(DESCRIPTION, row),
+      string(PUBLICATION, row),
+      string(EVIDENCE, row),
+      string(BIOCURATION, row),
+      errors.get(row));
+  }
+
+  private class EntryView extends AbstractList<HpoAnnotationEntry> implements RandomAccess {
+    @Override
+    public HpoAnnotationEntry get(int index) {
+      if (index < 0 || index >= rows) {
+        throw new IndexOutOfBoundsException("Index " + index + " out of bounds for " + rows + " rows");
+      }
+      return entry(index);
+    }
+
+    @Override
+    public int size() {
+      return rows;
+    }
+  }
+}
@@ -1,28 +1,53 @@
 package org.monarchinitiative.hpoannotqc.annotations;
 
+import org.monarchinitiative.hpoannotqc.annotations.hpo.HpoSubOntologyIndex;
 import org.monarchinitiative.hpoannotqc.exception.HpoAnnotQcException;
 import org.monarchinitiative.phenol.annotations.io.hpo.Aspect;
 import org.monarchinitiative.phenol.ontology.data.Ontology;
 import org.monarchinitiative.phenol.ontology.data.TermId;
-import static org.monarchinitiative.phenol.annotations.constants.hpo.HpoClinicalModifierTermIds.CLINICAL_COURSE;
-import static org.monarchinitiative.phenol.annotations.constants.hpo.HpoModeOfInheritanceTermIds.INHERITANCE_ROOT;
-import static org.monarchinitiative.phenol.annotations.constants.hpo.HpoSubOntologyRootTermIds.*;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+import static org.monarchinitiative.hpoannotqc.annotations.hpo.HpoSubOntology.*;
 
 
 /**
- *
+ * Determines the aspect (P, I, C, M, H) of HPO terms for the big file. The aspect of each term is computed
+ * at most once per {@link AspectHelper} object and then memoized, so a single object should be shared for
+ * all lines of the big file. This class is safe to use from several threads.
  */
 public class AspectHelper {
 
 
     private final Ontology hpoOntology;
 
+    private final HpoSubOntologyIndex subOntologyIndex;
+    /** Key: a primary HPO TermId; value: the corresponding aspect. */
+    private final Map<TermId, Aspect> aspectCache;
+
     public AspectHelper(Ontology ontology) {
         this.hpoOntology = ontology;
+        this.subOntologyIndex = HpoSubOntologyIndex.of(ontology);
+        this.aspectCache = new ConcurrentHashMap<>();
     }
 
-
+    /**
+     * @param tid TermId of an HPO term (must be a primary id)
+     * @return the aspect of the term
+     * @throws HpoAnnotQcException if the term is obsolete or its aspect cannot be determined
+     */
     public Aspect parse(TermId tid) throws HpoAnnotQcException {
+        Aspect aspect = aspectCache.get(tid);
+        if (aspect == null) {
+            aspect = computeAspect(tid);
+            aspectCache.put(tid, aspect);
+        }
+        return aspect;
+    }
+
+
+    private Aspect computeAspect(TermId tid) throws HpoAnnotQcException {
         TermId primaryHpoId = hpoOntology.getPrimaryTermId(tid);
         if (primaryHpoId == null) {
             throw new HpoAnnotQcException("Cannot compute Aspect of NULL term");
@@ -31,18 +56,16 @@ public class AspectHelper {
         if (! primaryHpoId.equals(tid)) {
             throw new HpoAnnotQcException(String.format("TermId %s did not match primary id %s", tid.getValue(), primaryHpoId.getValue()));
         }
-        if (hpoOntology.graph().existsPath(primaryHpoId, PHENOTYPIC_ABNORMALITY) ) {
+        if (subOntologyIndex.isMember(primaryHpoId, PHENOTYPIC_ABNORMALITY)) {
             return Aspect.P; // organ/phenotype abnormality
-        } else if (hpoOntology.graph().existsPath(primaryHpoId, INHERITANCE_ROOT)) {
+        } else if (subOntologyIndex.isMember(primaryHpoId, INHERITANCE)) {
             return Aspect.I;
-        } else if (hpoOntology.graph().existsPath(primaryHpoId,  CLINICAL_COURSE)) {
+        } else if (subOntologyIndex.isMember(primaryHpoId, CLINICAL_COURSE)) {
             return Aspect.C;
-        } else if (hpoOntology.graph().existsPath(primaryHpoId,  CLINICAL_MODIFIER)) {
+        } else if (subOntologyIndex.isMember(primaryHpoId, CLINICAL_MODIFIER)) {
             return Aspect.M;
-        } else if (hpoOntology.graph().existsPath(primaryHpoId, PAST_MEDICAL_HISTORY)) {
+        } else if (subOntologyIndex.isMember(primaryHpoId, PAST_MEDICAL_HISTORY)) {
             return Aspect.H; // the Orphanet annotations include some entries to the phenotype root
-        } else if (hpoOntology.graph().existsPath(primaryHpoId, INHERITANCE_ROOT)) {
-            return Aspect.I; // the Orphanet annotations include some entries to the root
         } else if (Aspect.fromTermId(primaryHpoId).isPresent()) {
             return Aspect.fromTermId(primaryHpoId).get();
         } else {
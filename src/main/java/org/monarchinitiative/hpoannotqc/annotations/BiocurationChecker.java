@@ -2,38 +2,128 @@ package org.monarchinitiative.hpoannotqc.annotations;
 
 import org.monarchinitiative.hpoannotqc.annotations.hpoaerror.MalformedBiocurationEntryError;
 
-import java.util.regex.Matcher;
-import java.util.regex.Pattern;
-
+/**
+ * Checks the biocuration column, which is a semicolon-separated list of entries such as
+ * {@code HPO:probinson[2023-04-01]} or {@code ORCID:0000-0002-5648-2155[2024-04-01]}. The column is scanned character
+ * by character; the accepted entries are exactly those that contain a match of the regular expression
+ * {@code (\w+:\w+|ORCID:\d{4}-\d{4}-\d{4}-\d{4})\[\d{4}-\d{2}-\d{2}]} (as in {@link java.util.regex.Matcher#find()}).
+ * A String is only created for the error message of a malformed entry.
+ */
 public class BiocurationChecker {
 
-    private static final String biocurationRegex = "(\\w+:\\w+|ORCID:\\d{4}-\\d{4}-\\d{4}-\\d{4})\\[\\d{4}-\\d{2}-\\d{2}]";
-    /**
-     * The pattern that corresponds to {@link #biocurationRegex}.
-     */
-    private static final Pattern biocurationPattern = Pattern.compile(biocurationRegex);
+    private static final String ORCID_PREFIX = "ORCID:";
+    /** Length of e.g. ORCID:0000-0002-5648-2155 */
+    private static final int ORCID_LENGTH = ORCID_PREFIX.length() + 19;
+    /** Length of e.g. [2023-04-01] */
+    private static final int DATE_LENGTH = 12;
 
 
     public static void checkEntry(HpoAnnotationEntry entry, String diseaseName) {
         String entryList = entry.getBiocuration();
         if (entryList == null || entryList.isEmpty()) {
             entry.addError(new MalformedBiocurationEntryError(diseaseName,  "empty biocuration entry"));
+            if (entryList == null) {
+                return;
+            }
+        }
+        // as with String#split, trailing empty entries are ignored, but an empty column is one empty entry
+        int end = entryList.length();
+        while (end > 0 && entryList.charAt(end - 1) == ';') {
+            end--;
         }
-        String[] fields = entryList.split(";");
-        for (String f : fields) {
-            Matcher matcher = biocurationPattern.matcher(f);
-            if (!matcher.find()) {
-                String msg = String.format("Malformed biocuration entry: \"%s\".", f);
-                entry.addError(new MalformedBiocurationEntryError(diseaseName,  msg));
+        if (end == 0 && !entryList.isEmpty()) {
+            return;
+        }
+        int start = 0;
+        while (true) {
+            int semicolon = entryList.indexOf(';', start);
+            int entryEnd = semicolon < 0 || semicolon >= end ? end : semicolon;
+            if (!check(entryList, start, entryEnd)) {
+                entry.addError(new MalformedBiocurationEntryError(diseaseName, "Malformed biocuration entry: \"%s\".",
+                        entryList.substring(start, entryEnd)));
+            }
+            if (entryEnd == end) {
+                return;
             }
+            start = entryEnd + 1;
         }
     }
 
 
     public static boolean check(String biocurationString) {
-        Matcher matcher = biocurationPattern.matcher(biocurationString);
-        return matcher.find();
+        return check(biocurationString, 0, biocurationString.length());
+    }
+
+    /**
+     * @return true if the characters from {@code start} (inclusive) to {@code end} (exclusive) contain a curator id
+     * followed by a date in brackets
+     */
+    private static boolean check(String s, int start, int end) {
+        for (int bracket = s.indexOf('[', start); bracket >= 0 && bracket + DATE_LENGTH <= end;
+             bracket = s.indexOf('[', bracket + 1)) {
+            if (isDate(s, bracket) && (endsWithCurator(s, start, bracket) || endsWithOrcid(s, start, bracket))) {
+                return true;
+            }
+        }
+        return false;
     }
 
+    /**
+     * @return true if the characters at {@code bracket} are a date such as [2023-04-01]
+     */
+    private static boolean isDate(String s, int bracket) {
+        return isDigits(s, bracket + 1, bracket + 5)
+                && s.charAt(bracket + 5) == '-'
+                && isDigits(s, bracket + 6, bracket + 8)
+                && s.charAt(bracket + 8) == '-'
+                && isDigits(s, bracket + 9, bracket + 11)
+                && s.charAt(bracket + 11) == ']';
+    }
 
+    /**
+     * @return true if the characters before {@code end} are word characters, a colon and word characters, e.g.
+     * HPO:probinson (not before {@code start})
+     */
+    private static boolean endsWithCurator(String s, int start, int end) {
+        int i = end;
+        while (i > start && isWordCharacter(s.charAt(i - 1))) {
+            i--;
+        }
+        return i < end && i - 2 >= start && s.charAt(i - 1) == ':' && isWordCharacter(s.charAt(i - 2));
+    }
+
+    /**
+     * @return true if the characters before {@code end} are an ORCID such as ORCID:0000-0002-5648-2155 (not before
+     * {@code start})
+     */
+    private static boolean endsWithOrcid(String s, int start, int end) {
+        int i = end - ORCID_LENGTH;
+        if (i < start || !s.startsWith(ORCID_PREFIX, i)) {
+            return false;
+        }
+        i += ORCID_PREFIX.length();
+        for (int group = 0; group < 4; group++, i += 5) {
+            if (!isDigits(s, i, i + 4) || (group < 3 && s.charAt(i + 4) != '-')) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static boolean isDigits(String s, int start, int end) {
+        for (int i = start; i < end; i++) {
+            char c = s.charAt(i);
+            if (c < '0' || c > '9') {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * @return true for the characters of {@code \w}, i.e., [a-zA-Z_0-9]
+     */
+    private static boolean isWordCharacter(char c) {
+        return (c >= 'a' && c <= 'z') || (c >= 'A' && c <= 'Z') || (c >= '0' && c <= '9') || c == '_';
+    }
 }
@@ -0,0 +1,70 @@
+package org.monarchinitiative.hpoannotqc.annotations;
+
+import org.monarchinitiative.hpoannotqc.annotations.hpoaerror.MalformedCitationError;
+
+/**
+ * Checks the citation column, which must be a CURIE with a known prefix, e.g., PMID:123456 or OMIM:600123. The
+ * column is scanned once, character by character; no substrings are created unless there is an error.
+ */
+public class CitationChecker {
+
+    private static final String[] VALID_CITATION_PREFIXES = {"PMID", "OMIM", "http", "https", "DECIPHER",
+            "ORPHA", "ISBN", "ISBN-10", "ISBN-13"};
+
+
+    public static void checkEntry(HpoAnnotationEntry entry, String diseaseName) {
+        String pub = entry.getPublication();
+        if (pub == null || pub.isEmpty()) {
+            entry.addError(new MalformedCitationError(diseaseName, "Empty citation string"));
+            if (pub == null) {
+                return;
+            }
+        }
+        int len = pub.length();
+        int index = -1;
+        boolean doubleColon = false;
+        boolean space = false;
+        for (int i = 0; i < len; i++) {
+            char c = pub.charAt(i);
+            if (c == ':') {
+                if (index < 0) {
+                    index = i;
+                } else if (pub.charAt(i - 1) == ':') {
+                    doubleColon = true;
+                }
+            } else if (c == ' ') {
+                space = true;
+            }
+        }
+        if (index <= 0) { // there needs to be a colon in the middle of the string
+            entry.addError(new MalformedCitationError(diseaseName, "Malformed citation id (not a CURIE): \"%s\"", pub));
+        }
+        if (doubleColon) { // should only be one colon separating prefix and id
+            entry.addError(new MalformedCitationError(diseaseName, "Malformed citation id (double colon): \"%s\"", pub));
+        }
+        if (space) {
+            entry.addError(new MalformedCitationError(diseaseName, "Malformed citation id (contains space): \"%s\"", pub));
+        }
+        if (index < 0) {
+            return; // without a colon, there is no prefix to check
+        }
+        if (!isValidPrefix(pub, index)) {
+            entry.addError(new MalformedCitationError(diseaseName, "Did not recognize publication prefix: \"%s\" ", pub));
+        }
+        if (len - index < 2) {
+            entry.addError(new MalformedCitationError(diseaseName, "Malformed publication string: \"%s\" ", pub));
+        }
+    }
+
+    /**
+     * @return true if the first {@code length} characters of {@code pub} are one of the valid prefixes
+     */
+    private static boolean isValidPrefix(String pub, int length) {
+        for (String prefix : VALID_CITATION_PREFIXES) {
+            if (prefix.length() == length && pub.startsWith(prefix)) {
+                return true;
+            }
+        }
+        return false;
+    }
+}
@@ -0,0 +1,210 @@
+package org.monarchinitiative.hpoannotqc.annotations;
+
+import org.monarchinitiative.phenol.annotations.formats.hpo.HpoFrequency;
+import org.monarchinitiative.phenol.base.PhenolRuntimeException;
+import org.monarchinitiative.phenol.ontology.data.TermId;
+
+/**
+ * The decoded value of the frequency column of an annotation line. There are 3 correct formats for frequency: a ratio
+ * such as 4/7, a percentage such as 32% (or 32.6%), or an HPO term from the frequency subontology. The column may
+ * also be empty. Any other text is {@link Kind#MALFORMED}.
+ * <p>
+ * The column is parsed without regular expressions when an {@link HpoAnnotationEntry} is created, and the Q/C,
+ * merging and output code use the decoded value. There are only a few hundred distinct frequencies, so the
+ * {@link SymbolTable} of a run decodes each of them once and shares it by all lines of the run with this frequency
+ * (see {@link SymbolTable#frequency(String)}). The original text is kept for the output.
+ * </p>
+ */
+final class Frequency {
+
+  enum Kind {
+    /** No frequency data. */
+    EMPTY,
+    /** n/m, where n and m are ints. */
+    RATIO,
+    /** Digits, optionally with a decimal point (e.g., 50% or 12.5%). */
+    PERCENTAGE,
+    /** An HPO term id, e.g., HP:0040281. It has not been checked that the term is a frequency term. */
+    TERM,
+    MALFORMED
+  }
+
+  private static final String EMPTY_STRING = "";
+  /** If a frequency is not n-of-m, we count it as if it represented this number of observations. */
+  private static final int DEFAULT_NUMBER_OF_OBSERVATIONS = 10;
+
+  private static final Frequency EMPTY = new Frequency(Kind.EMPTY, EMPTY_STRING, 0, 0, 0.0, null);
+
+  private final Kind kind;
+  private final String text;
+  private final int numerator;
+  private final int denominator;
+  private final double percentage;
+  private final TermId termId;
+
+  private Frequency(Kind kind, String text, int numerator, int denominator, double percentage, TermId termId) {
+    this.kind = kind;
+    this.text = text;
+    this.numerator = numerator;
+    this.denominator = denominator;
+    this.percentage = percentage;
+    this.termId = termId;
+  }
+
+  /**
+   * @param text the frequency column (may be null)
+   * @return the decoded frequency; the frequency of a null or empty column is {@link Kind#EMPTY}
+   */
+  static Frequency of(String text) {
+    if (text == null || text.isEmpty()) {
+      return EMPTY;
+    }
+    int length = text.length();
+    int slash = text.indexOf('/');
+    if (slash > 0 && isDigits(text, 0, slash) && isDigits(text, slash + 1, length)) {
+      try {
+        int numerator = Integer.parseInt(text, 0, slash, 10);
+        int denominator = Integer.parseInt(text, slash + 1, length, 10);
+        return new Frequency(Kind.RATIO, text, numerator, denominator, 0.0, null);
+      } catch (NumberFormatException e) {
+        return new Frequency(Kind.MALFORMED, text, 0, 0, 0.0, null);
+      }
+    }
+    if (text.charAt(length - 1) == '%' && isDecimal(text, 0, length - 1)) {
+      double percentage = Double.parseDouble(text.substring(0, length - 1));
+      return new Frequency(Kind.PERCENTAGE, text, 0, 0, percentage, null);
+    }
+    if (length == 10 && text.startsWith("HP:") && isDigits(text, 3, length)) {
+      return new Frequency(Kind.TERM, text, 0, 0, 0.0, TermId.of(text));
+    }
+    return new Frequency(Kind.MALFORMED, text, 0, 0, 0.0, null);
+  }
+
+  Kind kind() {
+    return kind;
+  }
+
+  /**
+   * @return numerator of a {@link Kind#RATIO}
+   */
+  int numerator() {
+    return numerator;
+  }
+
+  /**
+   * @return denominator of a {@link Kind#RATIO}
+   */
+  int denominator() {
+    return denominator;
+  }
+
+  /**
+   * @return value of a {@link Kind#PERCENTAGE}, e.g., 12.5 for 12.5%
+   */
+  double percentage() {
+    return percentage;
+  }
+
+  /**
+   * @return term id of a {@link Kind#TERM}, otherwise null
+   */
+  TermId termId() {
+    return termId;
+  }
+
+  /**
+   * @return true if {@link #observations()} can count this frequency, i.e., if it is empty, a ratio, a percentage or
+   * an HPO frequency term
+   */
+  boolean hasObservations() {
+    switch (kind) {
+      case EMPTY:
+      case RATIO:
+      case PERCENTAGE:
+        return true;
+      case TERM:
+        for (HpoFrequency hpofreq : HpoFrequency.values()) {
+          if (hpofreq.id().equals(termId)) {
+            return true;
+          }
+        }
+        return false;
+      default:
+        return false;
+    }
+  }
+
+  /**
+   * Used to merge frequencies. An empty frequency is taken to be 100%, i.e., 10/10; a percentage or an HPO frequency
+   * term is taken to represent 10 observations.
+   *
+   * @return the number of observations with the feature and the total number of observations
+   * @throws PhenolRuntimeException if the frequency is malformed or not an HPO frequency term (see
+   *                                {@link #hasObservations()})
+   */
+  int[] observations() {
+    switch (kind) {
+      case EMPTY:
+        return new int[]{DEFAULT_NUMBER_OF_OBSERVATIONS, DEFAULT_NUMBER_OF_OBSERVATIONS};
+      case RATIO:
+        return new int[]{numerator, denominator};
+      case PERCENTAGE:
+        return new int[]{(int) Math.round(percentage / 10.0), DEFAULT_NUMBER_OF_OBSERVATIONS};
+      case TERM:
+        HpoFrequency hpofreq = HpoFrequency.fromTermId(termId);
+        return new int[]{(int) Math.round(hpofreq.mean() * 10.0), DEFAULT_NUMBER_OF_OBSERVATIONS};
+      default:
+        // should never happen but if it does we want to know right away
+        throw new PhenolRuntimeException("Could not parse frequency entry: \"" + text + "\"");
+    }
+  }
+
+  /**
+   * @return the frequency column as it was parsed (the empty string for {@link Kind#EMPTY})
+   */
+  @Override
+  public String toString() {
+    return text;
+  }
+
+  /**
+   * @return true if the characters from {@code start} (inclusive) to {@code end} (exclusive) are one or more ASCII
+   * digits
+   */
+  private static boolean isDigits(String s, int start, int end) {
+    if (start >= end) {
+      return false;
+    }
+    for (int i = start; i < end; i++) {
+      if (!isDigit(s.charAt(i))) {
+        return false;
+      }
+    }
+    return true;
+  }
+
+  /**
+   * @return true if the characters from {@code start} to {@code end} are one or more digits, optionally followed by
+   * a decimal point and more digits (e.g., 50, 50. or 12.5)
+   */
+  private static boolean isDecimal(String s, int start, int end) {
+    int i = start;
+    while (i < end && isDigit(s.charAt(i))) {
+      i++;
+    }
+    if (i == start) {
+      return false;
+    }
+    if (i < end && s.charAt(i) == '.') {
+      i++;
+    }
+    while (i < end && isDigit(s.charAt(i))) {
+      i++;
+    }
+    return i == end;
+  }
+
+  private static boolean isDigit(char c) {
+    return c >= '0' && c <= '9';
+  }
+}
@@ -1,6 +1,8 @@
 package org.monarchinitiative.hpoannotqc.annotations;
 
 
+import org.monarchinitiative.hpoannotqc.annotations.hpo.HpoSubOntology;
+import org.monarchinitiative.hpoannotqc.annotations.hpo.HpoSubOntologyIndex;
 import org.monarchinitiative.hpoannotqc.annotations.hpoaerror.*;
 import org.monarchinitiative.hpoannotqc.exception.*;
 import org.monarchinitiative.phenol.base.PhenolRuntimeException;
@@ -10,8 +12,6 @@ import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import java.util.*;
-import java.util.regex.Matcher;
-import java.util.regex.Pattern;
 import java.util.stream.Collectors;
 
 
@@ -26,10 +26,6 @@ import static org.monarchinitiative.phenol.annotations.formats.hpo.HpoFrequency.
  */
 public class HpoAnnotationEntry {
   private final static Logger LOGGER = LoggerFactory.getLogger(HpoAnnotationEntry.class);
-  // To match e.g. 10/20
-  private static final Pattern RATIO_PATTERN = Pattern.compile("(?<numerator>\\d+)/(?<denominator>\\d+)");
-  // To match an int of optionally a float percentage (e.g. 1% or 1.23456789%).
-  private static final Pattern PERCENTAGE_PATTERN = Pattern.compile("(?<value>\\d+\\.?(\\d+)?)%");
   private static final String EMPTY_STRING = "";
   /**
    * The CURIE of the disease, e.g., OMIM:600201 (Field #0).
@@ -62,7 +58,7 @@ public class HpoAnnotationEntry {
   /**
    * Field #8 can be one of N/M, X% or a valid frequency term identifier.
    */
-  private final String frequencyModifier;
+  private final Frequency frequency;
   /**
    * Field #9
    */
@@ -88,8 +84,8 @@ public class HpoAnnotationEntry {
    */
   private final String biocuration;
 
-  /** List of any errors encountered while parsing this entry. */
-  private final List<HpoaError> errorList;
+  /** List of any errors encountered while parsing this entry; null until the first error is added. */
+  private List<HpoaError> errorList;
 
   private final static String[] expectedFields = {"#diseaseID",
     "diseaseName",
@@ -119,8 +115,6 @@ public class HpoAnnotationEntry {
    */
   private static final Set<String> EVIDENCE_CODES = Set.of("IEA", "TAS", "PCS");
 
-  private static final Set<String> VALID_CITATION_PREFIXES = Set.of("PMID", "OMIM", "http", "https", "DECIPHER",
-    "ORPHA", "ISBN", "ISBN-10", "ISBN-13");
 
   /** Errors encountered in parsing the ORPHANET data --  this requires different handling than than inhouse annots */
   //private final Set<String> orphaErrors;
@@ -194,7 +188,14 @@ public class HpoAnnotationEntry {
    * @return String representing the frequency modifier.
    */
   public String getFrequencyModifier() {
-    return frequencyModifier != null ? frequencyModifier : EMPTY_STRING;
+    return frequency.toString();
+  }
+
+  /**
+   * @return the decoded frequency modifier
+   */
+  Frequency getFrequency() {
+    return frequency;
   }
 
   /**
@@ -222,7 +223,15 @@ public class HpoAnnotationEntry {
    * @return (optional) free text description.
    */
   public String getDescription() {
-    return description != null ? modifier : EMPTY_STRING;
+    return description != null ? description : EMPTY_STRING;
+  }
+
+  /**
+   * @return the description field as it was parsed (null or free text), e.g., to store the entry in an
+   * {@link AnnotationTable}
+   */
+  String getRawDescription() {
+    return description;
   }
 
   /**
@@ -245,7 +254,7 @@ public class HpoAnnotationEntry {
                      String phenotypeName,
                      String ageOfOnsetId,
                      String ageOfOnsetName,
-                     String frequencyString,
+                     Frequency frequency,
                      String sex,
                      String negation,
                      String modifier,
@@ -260,7 +269,7 @@ public class HpoAnnotationEntry {
     this.phenotypeName = phenotypeName;
     this.ageOfOnsetId = ageOfOnsetId;
     this.ageOfOnsetName = ageOfOnsetName;
-    this.frequencyModifier = frequencyString;
+    this.frequency = frequency;
     this.sex = sex;
     this.negation = negation;
     this.modifier = modifier;
@@ -268,7 +277,7 @@ public class HpoAnnotationEntry {
     this.publication = publication;
     this.evidenceCode = evidenceCode;
     this.biocuration = biocuration;
-    this.errorList = errors;
+    this.errorList = errors == null || errors.isEmpty() ? null : errors;
   }
   /**
    * This constructor is package-private so that we can use it for merging in
@@ -294,7 +303,7 @@ public class HpoAnnotationEntry {
             phenotypeName,
             ageOfOnsetId,
             ageOfOnsetName,
-            frequencyString,
+            Frequency.of(frequencyString),
             sex,
             negation,
             modifier,
@@ -302,7 +311,7 @@ public class HpoAnnotationEntry {
             publication,
             evidenceCode,
             biocuration,
-            new ArrayList<>());
+            null);
   }
 
 
@@ -320,15 +329,21 @@ public class HpoAnnotationEntry {
 
 
   public void addError(HpoaError hpoae) {
+    if (errorList == null) {
+      errorList = new ArrayList<>(2);
+    }
     errorList.add(hpoae);
   }
 
   public boolean hasError() {
-    return ! errorList.isEmpty();
+    return errorList != null;
   }
 
+  /**
+   * @return the errors of this entry (an empty list if there are none)
+   */
   public List<HpoaError> getErrorList() {
-    return errorList;
+    return errorList != null ? errorList : List.of();
   }
 
 
@@ -347,7 +362,7 @@ public class HpoAnnotationEntry {
       phenotypeName,
       ageOfOnsetId != null ? ageOfOnsetId : EMPTY_STRING,
       ageOfOnsetName != null ? ageOfOnsetName : EMPTY_STRING,
-      frequencyModifier != null ? frequencyModifier : EMPTY_STRING,
+      frequency.toString(),
       sex != null ? sex : EMPTY_STRING,
       negation != null ? negation : EMPTY_STRING,
       modifier != null ? modifier : EMPTY_STRING,
@@ -368,24 +383,24 @@ public class HpoAnnotationEntry {
    * @throws HpoAnnotQcException if there were Q/C problems with the line.
    */
   public static HpoAnnotationEntry fromLine(String line, Ontology ontology) throws HpoAnnotQcException {
-    String[] A = line.split("\t");
-    if (A.length != NUMBER_OF_FIELDS) {
-      throw new HpoAnnotQcException(String.format("We were expecting %d expectedFields but got %d for line %s", NUMBER_OF_FIELDS, A.length, line));
-    }
-    String diseaseID = A[0];
-    String diseaseName = A[1];
-    TermId phenotypeId = TermId.of(A[2]);
-    String phenotypeName = A[3];
-    String ageOfOnsetId = A[4];
-    String ageOfOnsetName = A[5];
-    String frequencyString = A[6];
-    String sex = A[7];
-    String negation = A[8];
-    String modifier = A[9];
-    String description = A[10];
-    String publication = A[11];
-    String evidenceCode = A[12];
-    String biocuration = A[13];
+    TabSeparatedLine fields = new TabSeparatedLine(line, NUMBER_OF_FIELDS);
+    if (fields.fieldCount() != NUMBER_OF_FIELDS) {
+      throw new HpoAnnotQcException(String.format("We were expecting %d expectedFields but got %d for line %s", NUMBER_OF_FIELDS, fields.fieldCount(), line));
+    }
+    String diseaseID = fields.field(0);
+    String diseaseName = fields.field(1);
+    TermId phenotypeId = TermId.of(fields.field(2));
+    String phenotypeName = fields.field(3);
+    String ageOfOnsetId = fields.field(4);
+    String ageOfOnsetName = fields.field(5);
+    String frequencyString = fields.field(6);
+    String sex = fields.field(7);
+    String negation = fields.field(8);
+    String modifier = fields.field(9);
+    String description = fields.field(10);
+    String publication = fields.field(11);
+    String evidenceCode = fields.field(12);
+    String biocuration = fields.field(13);
 
     HpoAnnotationEntry entry = new HpoAnnotationEntry(diseaseID,
       diseaseName,
@@ -409,6 +424,89 @@ public class HpoAnnotationEntry {
 
 
 
+  /**
+   * Create an {@link HpoAnnotationEntry} object for a line of an HPO Annotation file that passed Q/C in a
+   * previous run with the same version of the HPO (see {@link HpoAnnotationFileCache}). Q/C is not repeated.
+   *
+   * @param line A line from an HPO Annotation file (small file) that is known to be valid
+   * @return corresponding {@link HpoAnnotationEntry} object
+   * @throws HpoAnnotQcException if the line does not have the expected number of fields.
+   */
+  static HpoAnnotationEntry fromValidatedLine(String line) throws HpoAnnotQcException {
+    TabSeparatedLine fields = new TabSeparatedLine(line, NUMBER_OF_FIELDS);
+    if (fields.fieldCount() != NUMBER_OF_FIELDS) {
+      throw new HpoAnnotQcException(String.format("We were expecting %d expectedFields but got %d for line %s", NUMBER_OF_FIELDS, fields.fieldCount(), line));
+    }
+    return new HpoAnnotationEntry(fields.field(0),
+      fields.field(1),
+      TermId.of(fields.field(2)),
+      fields.field(3),
+      fields.field(4),
+      fields.field(5),
+      fields.field(6),
+      fields.field(7),
+      fields.field(8),
+      fields.field(9),
+      fields.field(10),
+      fields.field(11),
+      fields.field(12),
+      fields.field(13));
+  }
+
+  /**
+   * Create an {@link HpoAnnotationEntry} object for a row of the big file ({@code phenotype.hpoa}) and Q/C it in
+   * the same way as a line of a small file. The big file does not contain the labels of the phenotype and onset
+   * terms or the description, so the labels are taken from the ontology and the description is left empty.
+   *
+   * @param diseaseID   the database_id column, e.g., OMIM:600201
+   * @param diseaseName the disease_name column
+   * @param negation    the qualifier column ("NOT" or empty)
+   * @param hpoId       the hpo_id column
+   * @param publication the reference column
+   * @param evidence    the evidence column
+   * @param onsetId     the onset column
+   * @param frequency   the frequency column
+   * @param sex         the sex column
+   * @param modifier    the modifier column
+   * @param biocuration the biocuration column
+   * @param ontology    reference to HPO ontology
+   * @return corresponding {@link HpoAnnotationEntry} object; Q/C problems are in its error list
+   * @throws PhenolRuntimeException if {@code hpoId} is not a valid term id
+   */
+  static HpoAnnotationEntry fromBigFileRow(String diseaseID,
+                                           String diseaseName,
+                                           String negation,
+                                           String hpoId,
+                                           String publication,
+                                           String evidence,
+                                           String onsetId,
+                                           String frequency,
+                                           String sex,
+                                           String modifier,
+                                           String biocuration,
+                                           Ontology ontology) {
+    TermId phenotypeId = TermId.of(hpoId);
+    String phenotypeName = ontology.getTermLabel(phenotypeId).orElse(EMPTY_STRING);
+    String onsetName = onsetId.isEmpty() ? EMPTY_STRING : ontology.getTermLabel(TermId.of(onsetId)).orElse(EMPTY_STRING);
+    HpoAnnotationEntry entry = new HpoAnnotationEntry(diseaseID,
+      diseaseName,
+      phenotypeId,
+      phenotypeName,
+      onsetId,
+      onsetName,
+      frequency,
+      sex,
+      negation,
+      modifier,
+      EMPTY_STRING,
+      publication,
+      evidence,
+      biocuration);
+    performQualityControl(entry, ontology, diseaseName);
+    return entry;
+  }
+
+
   /**
    * If the frequency of an HPO term is listed in Orphanet as Excluded (0%), then we encode it as
    * a NOT (negated) term.
@@ -435,7 +533,7 @@ public class HpoAnnotationEntry {
     if (hpoId == null) {
       throw new PhenolRuntimeException("Null String passed as hpoId for disease " + (diseaseID != null ? diseaseID : "n/a"));
     }
-    List<HpoaError> errorList = new ArrayList<>();
+    List<HpoaError> errorList = null; // only allocated if there is an error
     TermId phenotypeId = TermId.of(hpoId);
     // replace the frequency TermId with its string equivalent
     // except if it is Excluded, which we treat as a negative annotation
@@ -450,6 +548,7 @@ public class HpoAnnotationEntry {
         String message = String.format("Replacing obsolete TermId \"%s\" with current ID \"%s\" (and obsolete label %s with current label %s)",
           hpoId, currentPhenotypeId.getValue(), hpoLabel, newLabel);
         HpoaError hpoae = new HpoaTermError(diseaseName, currentPhenotypeId, message);
+        errorList = new ArrayList<>(2);
         errorList.add(hpoae);
         phenotypeId = currentPhenotypeId;
         hpoLabel = newLabel;
@@ -460,6 +559,9 @@ public class HpoAnnotationEntry {
         if (!hpoLabel.equals(currentPhenotypeLabel)) {
           String message = String.format("Replacing obsolete Term label \"%s\" with current label \"%s\"",
                   hpoLabel, currentPhenotypeLabel);
+          if (errorList == null) {
+            errorList = new ArrayList<>(2);
+          }
           errorList.add(new HpoaTermError(diseaseName, currentPhenotypeId, message));
           LOGGER.warn("{}: {}", diseaseID, message);
           hpoLabel = currentPhenotypeLabel;
@@ -475,7 +577,7 @@ public class HpoAnnotationEntry {
       hpoLabel,
       EMPTY_STRING,
       EMPTY_STRING,
-      frequencyString,
+      Frequency.of(frequencyString),
       EMPTY_STRING,
       negationString,
       EMPTY_STRING,
@@ -552,7 +654,7 @@ public class HpoAnnotationEntry {
     checkNegation(entry, diseaseName);
     checkModifier(entry, ontology, diseaseName);
     // description is free text, nothing to check
-    checkPublication(entry, diseaseName);
+    CitationChecker.checkEntry(entry, diseaseName);
     checkEvidence(entry, diseaseName);
     BiocurationChecker.checkEntry(entry, diseaseName);
   }
@@ -566,7 +668,7 @@ public class HpoAnnotationEntry {
     try {
       String db = entry.getDatabasePrefix();
       if (!validDatabases.contains(db)) {
-        entry.addError( new HpoAnnotationModelError(diseaseName, String.format("Invalid database symbol: \"%s\"", db)) );
+        entry.addError( new HpoAnnotationModelError(diseaseName, "Invalid database symbol: \"%s\"", db) );
       }
     } catch (PhenolRuntimeException r) {
       String message = "Could not construct database: " + r.getMessage();
@@ -592,8 +694,7 @@ public class HpoAnnotationEntry {
     if (id == null) {
       entry.addError(new HpoAnnotationModelError(diseaseName,  "Phenotype id was null"));
     } else if (!ontology.containsTerm(id)) {
-      String message = String.format("Could not find HPO term id (\"%s\") for \"%s\"", id, termLabel);
-      entry.addError(new HpoAnnotationModelError(diseaseName,  message));
+      entry.addError(new HpoAnnotationModelError(diseaseName, "Could not find HPO term id (\"%s\") for \"%s\"", id, termLabel));
     }
     TermId primaryId = ontology.getPrimaryTermId(id);
     if (primaryId == null) {
@@ -612,8 +713,7 @@ public class HpoAnnotationEntry {
     // if we get here, the TermId of the HPO Term was OK
     // now check that the label corresponds to the TermId
     if (termLabel == null || termLabel.isEmpty()) {
-      String message = String.format("Missing HPO term label for id=%s", id.getValue());
-      entry.addError(new HpoAnnotationModelError(diseaseName,  message));
+      entry.addError(new HpoAnnotationModelError(diseaseName, "Missing HPO term label for id=%s", id.getValue()));
     }
     if (!primaryLabel.equals(termLabel)) {
       String errmsg = String.format("Wrong term label %s instead of %s for %s",
@@ -637,8 +737,7 @@ public class HpoAnnotationEntry {
     }
     TermId tid = TermId.of(onsetId);
     if (!ontology.containsTerm(tid)) {
-      String msg = String.format("Onset ID not found: \"%s\"", tid.getValue());
-      entry.addError(new HpoAnnotationModelError(diseaseName,  msg));
+      entry.addError(new HpoAnnotationModelError(diseaseName, "Onset ID not found: \"%s\"", tid.getValue()));
 
     }
     TermId primaryId = ontology.getPrimaryTermId(tid);
@@ -671,7 +770,7 @@ public class HpoAnnotationEntry {
   private static void checkEvidence(HpoAnnotationEntry entry, String diseaseName)  {
     String evi = entry.getEvidenceCode();
     if (!EVIDENCE_CODES.contains(evi)) {
-      entry.addError(new HpoAnnotationModelError(diseaseName, String.format("Invalid evidence code: \"%s\"", evi)));
+      entry.addError(new HpoAnnotationModelError(diseaseName, "Invalid evidence code: \"%s\"", evi));
     }
   }
 
@@ -681,47 +780,44 @@ public class HpoAnnotationEntry {
    * an HPO term from the frequency subontology.
    */
   private static void checkFrequency(HpoAnnotationEntry entry, Ontology ontology, String diseaseName)  {
-    String freq = entry.getFrequencyModifier();
+    Frequency frequency = entry.getFrequency();
     // it is ok not to have frequency data
-    if (freq == null || freq.isEmpty()) {
+    if (frequency.kind() == Frequency.Kind.EMPTY) {
       return;
     }
-    Matcher matcher = RATIO_PATTERN.matcher(freq);
-    if(matcher.matches()) {
-      int numerator = Integer.parseInt(matcher.group("numerator"));
-      int denominator = Integer.parseInt(matcher.group("denominator"));
-      if (numerator > denominator || denominator == 0) {
-        entry.addError(new HpoAnnotationModelError(diseaseName, String.format("Malformed frequency term: \"%s\"", freq)));
+    String freq = frequency.toString();
+    if (frequency.kind() == Frequency.Kind.RATIO) {
+      if (frequency.numerator() > frequency.denominator() || frequency.denominator() == 0) {
+        entry.addError(new HpoAnnotationModelError(diseaseName, "Malformed frequency term: \"%s\"", freq));
       } else {
         return;
       }
     }
-    matcher = PERCENTAGE_PATTERN.matcher(freq);
-    if(matcher.matches()){
-      float percent = Float.parseFloat(matcher.group("value"));
+    if (frequency.kind() == Frequency.Kind.PERCENTAGE) {
+      float percent = (float) frequency.percentage();
       if (percent > 100f || percent <= 0f) {
-        entry.addError(new HpoAnnotationModelError(diseaseName,String.format("Malformed frequency term: \"%s\"", freq)));
+        entry.addError(new HpoAnnotationModelError(diseaseName, "Malformed frequency term: \"%s\"", freq));
       } else {
         return;
       }
     }
-    if(!freq.matches("HP:\\d{7}")) {
+    if (frequency.kind() != Frequency.Kind.TERM) {
       // cannot be a valid frequency term
-      entry.addError(new HpoAnnotationModelError(diseaseName,String.format("Malformed frequency term: \"%s\"", freq)));
+      entry.addError(new HpoAnnotationModelError(diseaseName, "Malformed frequency term: \"%s\"", freq));
     }
     // if we get here and we can validate that the frequency term comes from the right subontology,
     // then the item is valid
     TermId id;
     try {
-      id = TermId.of(freq);
+      id = frequency.kind() == Frequency.Kind.TERM ? frequency.termId() : TermId.of(freq);
     if (!isValidFrequencyTerm(id, ontology)) {
       LOGGER.error(String.format("Could not get label for %s", id.getValue()));
-      entry.addError(new HpoAnnotationModelError(diseaseName,String.format("Usage of incorrect term for frequency: %s [%s]",
+      entry.addError(new HpoAnnotationModelError(diseaseName, "Usage of incorrect term for frequency: %s [%s]",
         ontology.getTermLabel(id).orElseThrow(),
-        id.getValue())));
+        id.getValue()));
     }
     } catch (PhenolRuntimeException pre) {
-      entry.addError(new HpoAnnotationModelError(diseaseName,String.format("Could not parse frequency term id: \"%s\"", freq)));
+      entry.addError(new HpoAnnotationModelError(diseaseName, "Could not parse frequency term id: \"%s\"", freq));
     }
   }
 
@@ -734,7 +830,7 @@ public class HpoAnnotationEntry {
     String sex = entry.getSex();
     if (sex == null || sex.isEmpty()) return; // OK,  not required
     if (!sex.equalsIgnoreCase("MALE") && !sex.equalsIgnoreCase("FEMALE"))
-      entry.addError(new HpoaSkippableError(diseaseName,String.format("Malformed sex entry: \"%s\"", sex)));
+      entry.addError(new HpoaSkippableError(diseaseName, "Malformed sex entry: \"%s\"", sex));
   }
 
   /**
@@ -745,7 +841,7 @@ public class HpoAnnotationEntry {
   private static void checkNegation(HpoAnnotationEntry entry, String diseaseName)  {
     String negation = entry.getNegation();
     if (negation != null && !negation.isEmpty() && !negation.equals("NOT")) {
-      entry.addError(new HpoaSkippableError(diseaseName,String.format("Malformed negation entry: \"%s\"", negation)));
+      entry.addError(new HpoaSkippableError(diseaseName, "Malformed negation entry: \"%s\"", negation));
     }
   }
 
@@ -767,58 +863,30 @@ public class HpoAnnotationEntry {
           entry.addError(new HpoaSkippableError(diseaseName,errmsg));
         }
       } catch (PhenolRuntimeException e) {
-        entry.addError(new HpoAnnotationModelError(diseaseName,String.format("Malformed modifier term id: \"%s\"", a)));
+        entry.addError(new HpoAnnotationModelError(diseaseName, "Malformed modifier term id: \"%s\"", a));
       }
     }
   }
 
 
-  private static void checkPublication(HpoAnnotationEntry entry, String diseaseName)  {
-    String pub = entry.getPublication();
-    if (pub == null || pub.isEmpty()) {
-      entry.addError(new  MalformedCitationError(diseaseName,"Empty citation string"));
-    }
-    int index = pub.indexOf(":");
-    if (index <= 0) { // there needs to be a colon in the middle of the string
-      entry.addError(new  MalformedCitationError(diseaseName, String.format("Malformed citation id (not a CURIE): \"%s\"", pub)));
-    }
-    if (pub.contains("::")) { // should only be one colon separating prefix and id
-      entry.addError(new  MalformedCitationError(diseaseName, String.format("Malformed citation id (double colon): \"%s\"", pub)));
-    }
-    if (pub.contains(" ")) {
-      entry.addError(new  MalformedCitationError(diseaseName, String.format("Malformed citation id (contains space): \"%s\"", pub)));
-    }
-    String prefix = pub.substring(0, index);
-    if (!VALID_CITATION_PREFIXES.contains(prefix)) {
-      entry.addError(new  MalformedCitationError(diseaseName, String.format("Did not recognize publication prefix: \"%s\" ", pub)));
-    }
-    int len = pub.length();
-    if (len - index < 2) {
-      entry.addError(new  MalformedCitationError(diseaseName, String.format("Malformed publication string: \"%s\" ", pub)));
-    }
-  }
-
-
-
   /**
-   * Todo -- consider refactor to not create new instance for each entry
-   * @param tid TermId of an HPO term
-   * @param ontology  HPO
-   * @return String such as "P" representing the aspect
+   * Following quality control of an entry that has been ingested from a small file, and potentially merged,
+   * we export the corresponding line for the big file. Note that this creates a new {@link AspectHelper} for
+   * the line; use {@link #toBigFileLine(AspectHelper)} with a shared object when writing many lines.
+   * @param ontology A reference to the HPO ontology
+   * @return A line for the phenotype.hpoa file
    */
-  private String getAspect(TermId tid, Ontology ontology)  {
-    final AspectHelper aspectHelper = new AspectHelper(ontology);
-    return aspectHelper.parse(tid).toString();
+  public String toBigFileLine(Ontology ontology) {
+    return toBigFileLine(new AspectHelper(ontology));
   }
 
-
   /**
    * Following quality control of an entry that has been ingested from a small file, and potentially merged,
    * we export the corresponding line for the big file.
-   * @param ontology A reference to the HPO ontology
+   * @param aspectHelper used to determine the aspect (P, I, C, M, H) of the HPO term of this entry
    * @return A line for the phenotype.hpoa file
    */
-  public String toBigFileLine(Ontology ontology) {
+  public String toBigFileLine(AspectHelper aspectHelper) {
     String[] elems = {
       getDiseaseID(), //DB_Object_ID
       getDiseaseName(), // DB_Name
@@ -827,10 +895,10 @@ public class HpoAnnotationEntry {
       getPublication(), // DB_Reference
       getEvidenceCode(), // Evidence_Code
       getAgeOfOnsetId() != null ? getAgeOfOnsetId() : EMPTY_STRING, // Onset
-      getFrequencyModifier() != null ? getFrequencyModifier() : EMPTY_STRING, // Frequency
+      getFrequencyModifier(), // Frequency
       getSex(), // Sex
       getModifier(), // Modifier
-      getAspect(getPhenotypeId(), ontology), // Aspect
+      aspectHelper.parse(getPhenotypeId()).toString(), // Aspect
       getBiocuration() // Biocuration
     };
     return String.join("\t", elems);
@@ -838,28 +906,23 @@ public class HpoAnnotationEntry {
 
 
   private static boolean isValidInheritanceTerm(TermId tid, Ontology hpo) {
-    final TermId ONSET_ROOT = TermId.of("HP:0003674");
-    return hpo.graph().existsPath(tid, ONSET_ROOT);
+    return HpoSubOntologyIndex.of(hpo).isMember(tid, HpoSubOntology.ONSET);
   }
 
 
   private static boolean isValidClinicalModifierTerm(TermId tid, Ontology hpo) {
-    final TermId CLINICAL_MODIFIER_ROOT = TermId.of("HP:0012823");
-    return hpo.graph().existsPath(tid, CLINICAL_MODIFIER_ROOT);
+    return HpoSubOntologyIndex.of(hpo).isMember(tid, HpoSubOntology.CLINICAL_MODIFIER);
   }
 
   private static boolean isValidTemporalPatternTerm(TermId tid, Ontology hpo) {
-    final TermId TEMPORAL_PATTERN_ROOT = TermId.of("HP:0011008");
-    return hpo.graph().existsPath(tid, TEMPORAL_PATTERN_ROOT);
+    return HpoSubOntologyIndex.of(hpo).isMember(tid, HpoSubOntology.TEMPORAL_PATTERN);
   }
 
   private static boolean isValidPaceOfProgressionTerm(TermId tid, Ontology hpo) {
-    final TermId PACE_OF_PROGRESSION_ROOT = TermId.of("HP:0003679");
-    return hpo.graph().existsPath(tid, PACE_OF_PROGRESSION_ROOT);
+    return HpoSubOntologyIndex.of(hpo).isMember(tid, HpoSubOntology.PACE_OF_PROGRESSION);
   }
   private static boolean isValidInheritanceModifierTerm(TermId tid, Ontology hpo) {
-    final TermId INHERITANCE_MODIFIER_ROOT = TermId.of("HP:0034335");
-    return hpo.graph().existsPath(tid, INHERITANCE_MODIFIER_ROOT);
+    return HpoSubOntologyIndex.of(hpo).isMember(tid, HpoSubOntology.INHERITANCE_MODIFIER);
   }
 
 
@@ -867,8 +930,7 @@ public class HpoAnnotationEntry {
     return isValidTemporalPatternTerm(tid, ontology) ||
             isValidPaceOfProgressionTerm(tid, ontology) ||
             isValidClinicalModifierTerm(tid, ontology) ||
-            isValidInheritanceModifierTerm(tid, ontology) ||
-            isValidClinicalModifierTerm(tid, ontology);
+            isValidInheritanceModifierTerm(tid, ontology);
   }
 
   /**
@@ -878,12 +940,11 @@ public class HpoAnnotationEntry {
    * @return true iif tid is a valid HPO frequency term
    */
   private static boolean isValidFrequencyTerm(TermId tid, Ontology hpo) {
-    final TermId FREQUENCY_ROOT =  TermId.of("HP:0040279");
-    return hpo.graph().existsPath(tid, FREQUENCY_ROOT);
+    return HpoSubOntologyIndex.of(hpo).isMember(tid, HpoSubOntology.FREQUENCY);
   }
 
 
   public boolean hasSkipabbleError() {
-    return errorList.stream().anyMatch(HpoaError::skippable);
+    return errorList != null && errorList.stream().anyMatch(HpoaError::skippable);
   }
 }
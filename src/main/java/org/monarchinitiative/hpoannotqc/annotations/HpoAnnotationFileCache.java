@@ -0,0 +1,163 @@
+package org.monarchinitiative.hpoannotqc.annotations;
+
+import org.monarchinitiative.hpoannotqc.annotations.hpo.HpoOntologySnapshot;
+import org.monarchinitiative.phenol.base.PhenolRuntimeException;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * A local cache of the HPO Annotation files ("small files") that passed Q/C without any error in a previous run.
+ * Each small file is identified by its name and the SHA-256 digest of its contents. The Q/C of a small file
+ * depends only on its contents, on the version of the HPO, and on the version of this application. Therefore,
+ * the cache is only used if it was written for the same {@code hp.json} (identified by its SHA-256 digest, like the
+ * {@link HpoOntologySnapshot}, since the {@code data-version} of an edited {@code hp.json} stays the same) and the
+ * same version of HpoAnnotQc; otherwise all small files are validated again. A build without a version (e.g., run
+ * from the IDE) cannot tell whether its Q/C code has changed, so it never uses the cache.
+ * <p>
+ * The entries of a small file that passed Q/C are exactly its lines, so for a cache hit we can create the
+ * {@link HpoAnnotationModel} directly from the lines of the file without repeating Q/C.
+ * </p>
+ * The cache file has the following format.
+ * <pre>
+ * #hpoannotqc-cache	1.20.3	(SHA-256 digest of hp.json as hex string)
+ * OMIM-600123.tab	(SHA-256 digest as hex string)
+ * </pre>
+ */
+public class HpoAnnotationFileCache {
+  private static final Logger LOGGER = LoggerFactory.getLogger(HpoAnnotationFileCache.class);
+
+  private static final String HEADER_PREFIX = "#hpoannotqc-cache";
+  /** Application version in the header of a cache that was written by a build without a version. */
+  private static final String UNKNOWN_VERSION = "dev";
+
+  /** Path to the cache file. */
+  private final Path cachePath;
+  /** Version of this application and digest of hp.json, the cache is only valid if both match. */
+  private final String header;
+  /** Key: name of a small file; value: digest of the small file as it was when it last passed Q/C. */
+  private final Map<String, String> previousDigests;
+  /** Small files that passed Q/C in the current run (these will be written to the cache file). */
+  private final Map<String, String> currentDigests = new ConcurrentHashMap<>();
+
+  private final AtomicInteger hits = new AtomicInteger();
+
+  private final AtomicInteger misses = new AtomicInteger();
+
+  private HpoAnnotationFileCache(Path cachePath, String header, Map<String, String> previousDigests) {
+    this.cachePath = cachePath;
+    this.header = header;
+    this.previousDigests = previousDigests;
+  }
+
+  /**
+   * Load the cache from {@code cachePath}. If the file does not exist or was written for a different {@code hp.json}
+   * or version of this application, the cache starts out empty.
+   *
+   * @param cachePath path to the cache file (need not exist)
+   * @param hpJson    path to the {@code hp.json} that the small files are checked against
+   * @return the cache
+   */
+  public static HpoAnnotationFileCache load(Path cachePath, Path hpJson) {
+    return load(cachePath, hpJson, HpoAnnotationFileCache.class.getPackage().getImplementationVersion());
+  }
+
+  /**
+   * @param appVersion version of this application, or null if it is not known
+   */
+  static HpoAnnotationFileCache load(Path cachePath, Path hpJson, String appVersion) {
+    String hpJsonDigest;
+    try {
+      hpJsonDigest = HpoOntologySnapshot.digest(hpJson);
+    } catch (IOException e) {
+      throw new PhenolRuntimeException("Could not read " + hpJson + ": " + e.getMessage());
+    }
+    String header = String.join("\t", HEADER_PREFIX, appVersion != null ? appVersion : UNKNOWN_VERSION, hpJsonDigest);
+    Map<String, String> digests = new ConcurrentHashMap<>();
+    if (appVersion == null) {
+      LOGGER.info("Not using cache at {} because the version of HpoAnnotQc is not known", cachePath);
+    } else if (Files.isRegularFile(cachePath)) {
+      try (BufferedReader br = Files.newBufferedReader(cachePath)) {
+        String line = br.readLine();
+        if (header.equals(line)) {
+          while ((line = br.readLine()) != null) {
+            String[] fields = line.split("\t");
+            if (fields.length == 2) {
+              digests.put(fields[0], fields[1]);
+            }
+          }
+        } else {
+          LOGGER.info("Ignoring cache at {} because it was written for a different version ({})", cachePath, line);
+        }
+      } catch (IOException e) {
+        LOGGER.warn("Could not read cache at {}: {}", cachePath, e.getMessage());
+        digests.clear();
+      }
+    }
+    return new HpoAnnotationFileCache(cachePath, header, digests);
+  }
+
+  /**
+   * Check whether a small file with this digest passed Q/C in the previous run. If so, it is also kept in the cache
+   * for the next run.
+   *
+   * @param fileName name of the small file, e.g., OMIM-600123.tab
+   * @param digest   digest of the current contents of the small file
+   * @return true if the small file is unchanged since it passed Q/C
+   */
+  boolean isValidated(String fileName, String digest) {
+    if (digest.equals(previousDigests.get(fileName))) {
+      currentDigests.put(fileName, digest);
+      hits.incrementAndGet();
+      return true;
+    }
+    misses.incrementAndGet();
+    return false;
+  }
+
+  /**
+   * Record that a small file passed Q/C in the current run.
+   *
+   * @param fileName name of the small file, e.g., OMIM-600123.tab
+   * @param digest   digest of the contents of the small file
+   */
+  void markValidated(String fileName, String digest) {
+    currentDigests.put(fileName, digest);
+  }
+
+  int getHitCount() {
+    return hits.get();
+  }
+
+  int getMissCount() {
+    return misses.get();
+  }
+
+  /**
+   * Write the small files that passed Q/C in the current run to the cache file. Files that were removed or that
+   * now have errors are dropped from the cache.
+   *
+   * @throws IOException if the cache file cannot be written
+   */
+  public void write() throws IOException {
+    Path parent = cachePath.toAbsolutePath().getParent();
+    if (parent != null) {
+      Files.createDirectories(parent);
+    }
+    try (BufferedWriter bw = Files.newBufferedWriter(cachePath)) {
+      bw.write(header + "\n");
+      for (Map.Entry<String, String> e : new TreeMap<>(currentDigests).entrySet()) {
+        bw.write(e.getKey() + "\t" + e.getValue() + "\n");
+      }
+    }
+  }
+}
@@ -1,19 +1,29 @@
 package org.monarchinitiative.hpoannotqc.annotations;
 
+import org.monarchinitiative.hpoannotqc.annotations.hpo.HpoOntologySnapshot;
+import org.monarchinitiative.hpoannotqc.exception.HpoAnnotQcException;
 import org.monarchinitiative.phenol.base.PhenolRuntimeException;
 import org.monarchinitiative.phenol.ontology.data.Ontology;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import java.io.*;
+import java.nio.charset.Charset;
 import java.nio.file.DirectoryStream;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.nio.file.Paths;
+import java.util.ArrayDeque;
 import java.util.ArrayList;
+import java.util.Deque;
 import java.util.HashSet;
 import java.util.List;
 import java.util.Set;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.function.Consumer;
 
 /**
  * This class coordinates the input of all the HPO Annotation files ("small files"). If an
@@ -33,9 +43,14 @@ public class HpoAnnotationFileIngestor {
    */
   private final List<File> smallFilePaths;
   /**
-   * List of all of the {@link HpoAnnotationModel} objects, which represent annotated diseases.
+   * List of all of the {@link HpoAnnotationModel} objects, which represent annotated diseases (empty if the
+   * models were passed to a consumer instead).
    */
   private final List<HpoAnnotationModel> hpoaFileList = new ArrayList<>();
+  /**
+   * Number of small files that were parsed successfully.
+   */
+  private int n_parsed_small_files = 0;
   /**
    * Names of entries (small files) that we will omit because they do not represent diseases.
    */
@@ -50,8 +65,20 @@ public class HpoAnnotationFileIngestor {
    * Merge entries with the same phenotype-disease association but different metadata for the big file.
    */
   private boolean mergeEntries = false;
+  /**
+   * Number of worker threads used to parse the small files. If this is 1, the files are parsed sequentially.
+   */
+  private final int threads;
+  /**
+   * Cache of small files that passed Q/C in a previous run (null if no cache is used).
+   */
+  private final HpoAnnotationFileCache cache;
 
   private final List<String> errors = new ArrayList<>();
+  /**
+   * The field values of the models of this run (see {@link SymbolTable}).
+   */
+  private final SymbolTable symbols = new SymbolTable();
 
   List<HpoAnnotationModel> getHpoaFileEntries() {
     return hpoaFileList;
@@ -60,10 +87,24 @@ public class HpoAnnotationFileIngestor {
 
 
   public HpoAnnotationFileIngestor(String directoryPath, Ontology ontology, boolean merge_fr) {
+    this(directoryPath, ontology, merge_fr, 1);
+  }
+
+  public HpoAnnotationFileIngestor(String directoryPath, Ontology ontology, boolean merge_fr, int threads) {
+    this(directoryPath, ontology, merge_fr, threads, null);
+  }
+
+  public HpoAnnotationFileIngestor(String directoryPath,
+                                   Ontology ontology,
+                                   boolean merge_fr,
+                                   int threads,
+                                   HpoAnnotationFileCache cache) {
     this(directoryPath,
       String.format("%s%s%s", directoryPath, File.separator, "omit-list.txt"),
       ontology,
-      merge_fr);
+      merge_fr,
+      threads,
+      cache);
   }
 
   /**
@@ -73,27 +114,180 @@ public class HpoAnnotationFileIngestor {
    * @param merge         Should we merge small file lines with the same HPO but different metadata?
    */
   public HpoAnnotationFileIngestor(String directoryPath, String omitFile, Ontology ontology, boolean merge) {
+    this(directoryPath, omitFile, ontology, merge, 1);
+  }
+
+  /**
+   * @param directoryPath path to the directory with HPO annotation "small files"
+   * @param omitFile      path to the {@code omit-list.txt} file with non-disease entries to be omitted
+   * @param ontology      reference to HPO ontologt object
+   * @param merge         Should we merge small file lines with the same HPO but different metadata?
+   * @param threads       number of worker threads used to parse the small files (1 for sequential parsing)
+   */
+  public HpoAnnotationFileIngestor(String directoryPath, String omitFile, Ontology ontology, boolean merge, int threads) {
+    this(directoryPath, omitFile, ontology, merge, threads, null);
+  }
+
+  /**
+   * @param directoryPath path to the directory with HPO annotation "small files"
+   * @param omitFile      path to the {@code omit-list.txt} file with non-disease entries to be omitted
+   * @param ontology      reference to HPO ontologt object
+   * @param merge         Should we merge small file lines with the same HPO but different metadata?
+   * @param threads       number of worker threads used to parse the small files (1 for sequential parsing)
+   * @param cache         cache of small files that passed Q/C in a previous run, or null to check all files
+   */
+  public HpoAnnotationFileIngestor(String directoryPath,
+                                   String omitFile,
+                                   Ontology ontology,
+                                   boolean merge,
+                                   int threads,
+                                   HpoAnnotationFileCache cache) {
+    this(directoryPath, omitFile, ontology, merge, threads, cache, null);
+  }
+
+  /**
+   * Parse the small files and pass each {@link HpoAnnotationModel} to {@code consumer} as soon as it is available,
+   * instead of keeping all models in memory. The models are passed in the same order as with the other constructors
+   * (and on the thread that calls this constructor). If {@code consumer} is null, the models are collected and can be
+   * retrieved with {@link #getHpoaFileEntries()}.
+   * @param directoryPath path to the directory with HPO annotation "small files"
+   * @param omitFile      path to the {@code omit-list.txt} file with non-disease entries to be omitted
+   * @param ontology      reference to HPO ontologt object
+   * @param merge         Should we merge small file lines with the same HPO but different metadata?
+   * @param threads       number of worker threads used to parse the small files (1 for sequential parsing)
+   * @param cache         cache of small files that passed Q/C in a previous run, or null to check all files
+   * @param consumer      receives the models one at a time (or null to collect the models)
+   */
+  public HpoAnnotationFileIngestor(String directoryPath,
+                                   String omitFile,
+                                   Ontology ontology,
+                                   boolean merge,
+                                   int threads,
+                                   HpoAnnotationFileCache cache,
+                                   Consumer<HpoAnnotationModel> consumer) {
+    if (threads < 1) {
+      throw new PhenolRuntimeException("Number of threads must be at least 1 but was " + threads);
+    }
     omitEntries = getOmitEntries(omitFile);
     this.mergeEntries = merge;
+    this.threads = threads;
+    this.cache = cache;
     smallFilePaths = getListOfSmallFiles(directoryPath);
     this.ontology = ontology;
-    inputHpoAnnotationFiles();
+    inputHpoAnnotationFiles(consumer != null ? consumer : hpoaFileList::add);
+  }
+
+  /**
+   * The result of parsing a single small file, together with the errors reported by its parser.
+   */
+  private static class IngestedFile {
+    private final HpoAnnotationModel model;
+    private final List<String> errors;
+
+    IngestedFile(HpoAnnotationModel model, List<String> errors) {
+      this.model = model;
+      this.errors = errors;
+    }
+  }
+
+  /**
+   * Parse (and if requested, merge) a single small file. This method does not touch any state of the
+   * ingestor and can therefore be called concurrently from several worker threads.
+   * @param file path to a small file such as OMIM-600123.tab
+   * @return the parsed model and any errors encountered
+   */
+  private IngestedFile ingestSmallFile(File file) {
+    HpoAnnotationFileParser parser = new HpoAnnotationFileParser(file, ontology, symbols);
+    HpoAnnotationModel smallFile = cache != null ? parseWithCache(file, parser) : parser.parse(true);
+    if (mergeEntries) {
+      smallFile = smallFile.getMergedModel();
+    }
+    List<String> parseErrors = parser.hasError() ? parser.errorList() : List.of();
+    return new IngestedFile(smallFile, parseErrors);
+  }
+
+  /**
+   * Parse a small file using the {@link #cache}. If the file is unchanged since it last passed Q/C, we create the
+   * model without Q/C. Otherwise, we parse and check the file, and add it to the cache if there were no errors.
+   * @param file path to a small file such as OMIM-600123.tab
+   * @param parser parser for {@code file}
+   * @return the parsed model
+   */
+  private HpoAnnotationModel parseWithCache(File file, HpoAnnotationFileParser parser) {
+    byte[] bytes;
+    try {
+      bytes = Files.readAllBytes(file.toPath());
+    } catch (IOException e) {
+      throw new HpoAnnotQcException(String.format("Error parsing %s: %s", file, e.getMessage()));
+    }
+    String digest = HpoOntologySnapshot.digest(bytes);
+    // FileReader, which we use for parsing small files without cache, decodes with the default charset
+    String content = new String(bytes, Charset.defaultCharset());
+    if (cache.isValidated(file.getName(), digest)) {
+      return parser.parse(content, true);
+    }
+    HpoAnnotationModel model = parser.parse(content, false);
+    if (!parser.hasError() && !model.hasError()) {
+      cache.markValidated(file.getName(), digest);
+    }
+    return model;
   }
 
-  private void inputHpoAnnotationFiles() {
-    int i = 0;
-    for (File file : smallFilePaths) {
-      HpoAnnotationFileParser parser = new HpoAnnotationFileParser(file.getAbsolutePath(), ontology);
+  /**
+   * Parse the small files on {@link #threads} worker threads. The results are passed to {@code consumer} in the order
+   * of {@link #smallFilePaths}, so that the output is identical to that of sequential parsing. To keep the memory
+   * footprint flat, at most a few files per thread are parsed ahead of the file that is currently being consumed.
+   * @param consumer receives one {@link IngestedFile} per small file, in the order of {@link #smallFilePaths}
+   */
+  private void ingestSmallFilesInParallel(Consumer<IngestedFile> consumer) {
+    final int maxPending = 4 * threads;
+    ExecutorService executor = Executors.newFixedThreadPool(threads);
+    try {
+      Deque<Future<IngestedFile>> pending = new ArrayDeque<>(maxPending);
+      int next = 0;
+      while (next < smallFilePaths.size() || !pending.isEmpty()) {
+        while (next < smallFilePaths.size() && pending.size() < maxPending) {
+          File file = smallFilePaths.get(next++);
+          pending.add(executor.submit(() -> ingestSmallFile(file)));
+        }
+        consumer.accept(pending.poll().get());
+      }
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      throw new PhenolRuntimeException("Interrupted while parsing HPO Annotation files");
+    } catch (ExecutionException e) {
+      Throwable cause = e.getCause();
+      if (cause instanceof RuntimeException) {
+        throw (RuntimeException) cause;
+      }
+      throw new PhenolRuntimeException(cause);
+    } finally {
+      executor.shutdownNow();
+    }
+  }
 
-      HpoAnnotationModel smallFile = parser.parse(true);
-      if (mergeEntries) {
-        smallFile = smallFile.getMergedModel();
+  private void inputHpoAnnotationFiles(Consumer<HpoAnnotationModel> consumer) {
+    Consumer<IngestedFile> collector = ingested -> {
+      this.errors.addAll(ingested.errors);
+      n_total_annotation_lines += ingested.model.getNumberOfAnnotations();
+      n_parsed_small_files++;
+      consumer.accept(ingested.model);
+    };
+    if (threads > 1) {
+      ingestSmallFilesInParallel(collector);
+    } else {
+      for (File file : smallFilePaths) {
+        collector.accept(ingestSmallFile(file));
       }
-      if (parser.hasError()) {
-        this.errors.addAll(parser.errorList());
+    }
+    if (cache != null) {
+      LOGGER.info("Small file cache: {} unchanged files, {} new or changed files", cache.getHitCount(), cache.getMissCount());
+      // files with errors are not in the cache, so we can write it even if there were errors
+      try {
+        cache.write();
+      } catch (IOException e) {
+        LOGGER.warn("Could not write small file cache: {}", e.getMessage());
       }
-      n_total_annotation_lines += smallFile.getNumberOfAnnotations();
-      hpoaFileList.add(smallFile);
     }
     if (! this.errors.isEmpty()) {
       for (var e:errors){
@@ -150,10 +344,18 @@ public class HpoAnnotationFileIngestor {
     return this.n_total_omitted_entries;
   }
 
+  int get_distinct_value_count() {
+    return symbols.size();
+  }
+
   int get_valid_smallfile_count() {
     return this.smallFilePaths.size();
   }
 
+  int get_parsed_smallfile_count() {
+    return this.n_parsed_small_files;
+  }
+
   /**
    * Get the entry Curie for a certain path
    *
@@ -10,6 +10,7 @@ import java.io.BufferedReader;
 import java.io.File;
 import java.io.FileReader;
 import java.io.IOException;
+import java.io.StringReader;
 import java.util.*;
 
 /**
@@ -67,12 +68,26 @@ public class HpoAnnotationFileParser {
   private final Map<String, Integer> malformedCitationMap;
 
   private final Set<String> problematicHpoTerms;
+  /**
+   * The symbol table of the models created by this parser.
+   */
+  private final SymbolTable symbols;
 
 
 
   public HpoAnnotationFileParser(File file, Ontology ontology) {
+    this(file, ontology, new SymbolTable());
+  }
+
+  /**
+   * @param file     the HPO annotation file
+   * @param ontology reference to HPO Ontology object
+   * @param symbols  symbol table of the run (e.g., of the {@link HpoAnnotationFileIngestor})
+   */
+  HpoAnnotationFileParser(File file, Ontology ontology, SymbolTable symbols) {
     this.hpoAnnotationFile = file;
     this.ontology = ontology;
+    this.symbols = symbols;
     this.malformedBiocurationIdMap = new HashMap<>();
     this.obsoleteTermIdSet = new HashSet<>();
     this.malformedCitationMap = new HashMap<>();
@@ -102,33 +117,54 @@ public class HpoAnnotationFileParser {
    * @return A {@link HpoAnnotationModel} object corresponding to the data in the HPO Annotation file
    */
   public HpoAnnotationModel parse(boolean faultTolerant) {
+    try (BufferedReader br = new BufferedReader(new FileReader(hpoAnnotationFile))) {
+      return parse(br, false);
+    } catch (IOException e) {
+      throw new HpoAnnotQcException(String.format("Error parsing %s: %s", hpoAnnotationFile, e.getMessage()));
+    }
+  }
+
+  /**
+   * Parse the contents of the HPO Annotation file that have already been read by the caller, e.g., in order to
+   * compute a digest for the {@link HpoAnnotationFileCache}.
+   *
+   * @param content             The contents of the HPO Annotation file
+   * @param previouslyValidated If true, the file passed Q/C in a previous run with the same ontology, and the
+   *                            entries are created without repeating Q/C
+   * @return A {@link HpoAnnotationModel} object corresponding to the data in the HPO Annotation file
+   */
+  HpoAnnotationModel parse(String content, boolean previouslyValidated) {
+    try (BufferedReader br = new BufferedReader(new StringReader(content))) {
+      return parse(br, previouslyValidated);
+    } catch (IOException e) {
+      throw new HpoAnnotQcException(String.format("Error parsing %s: %s", hpoAnnotationFile, e.getMessage()));
+    }
+  }
+
+  private HpoAnnotationModel parse(BufferedReader br, boolean previouslyValidated) throws IOException {
     String basename = hpoAnnotationFile.getName();
     List<HpoAnnotationEntry> entryList = new ArrayList<>();
     this.parseErrors = new ArrayList<>();
-    try {
-      BufferedReader br = new BufferedReader(new FileReader(hpoAnnotationFile));
-      String line = br.readLine();
-      qcHeaderLine(line);
-      while ((line = br.readLine()) != null) {
-        try {
-          HpoAnnotationEntry entry = HpoAnnotationEntry.fromLine(line, ontology);
-          entryList.add(entry);
-        } catch (HpoAnnotQcException e) {
-          parseErrors.add(String.format(e.getMessage()));
-        }
-      }
-      br.close();
-      if (!parseErrors.isEmpty()) {
-        String errstr = String.join("\n", parseErrors);
-        LOGGER.error(String.format("Errors encountered while parsing HPO Annotation file at %s.\n%s",
-            hpoAnnotationFile, errstr));
-          throw new HpoAnnotQcException(String.format("Errors encountered while parsing HPO Annotation file at %s.\n%s",
-            hpoAnnotationFile, errstr));
+    String line = br.readLine();
+    qcHeaderLine(line);
+    while ((line = br.readLine()) != null) {
+      try {
+        HpoAnnotationEntry entry = previouslyValidated ?
+          HpoAnnotationEntry.fromValidatedLine(line) :
+          HpoAnnotationEntry.fromLine(line, ontology);
+        entryList.add(entry);
+      } catch (HpoAnnotQcException e) {
+        parseErrors.add(String.format(e.getMessage()));
       }
-      return new HpoAnnotationModel(basename, entryList);
-    } catch (IOException e) {
-      throw new HpoAnnotQcException(String.format("Error parsing %s: %s", hpoAnnotationFile, e.getMessage()));
     }
+    if (!parseErrors.isEmpty()) {
+      String errstr = String.join("\n", parseErrors);
+      LOGGER.error(String.format("Errors encountered while parsing HPO Annotation file at %s.\n%s",
+          hpoAnnotationFile, errstr));
+        throw new HpoAnnotQcException(String.format("Errors encountered while parsing HPO Annotation file at %s.\n%s",
+          hpoAnnotationFile, errstr));
+    }
+    return new HpoAnnotationModel(basename, entryList, symbols);
   }
 
   /**
@@ -164,7 +200,7 @@ public class HpoAnnotationFileParser {
    *
    * @param line a header line of a V2 small file
    */
-  private void qcHeaderLine(String line)  {
+  static void qcHeaderLine(String line)  {
     String[] fields = line.split("\t");
     if (fields.length != NUMBER_OF_FIELDS) {
       String msg = String.format("Malformed header line\n" + line +
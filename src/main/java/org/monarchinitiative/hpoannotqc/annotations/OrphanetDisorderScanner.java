@@ -0,0 +1,123 @@
+package org.monarchinitiative.hpoannotqc.annotations;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedReader;
+import java.io.Closeable;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Splits the Orphanet {@code en_product4.xml} file into the text of its {@code Disorder} elements, so that the
+ * disorders can be parsed independently of each other (see {@link OrphanetXML2HpoDiseaseModelParser}). The scanner
+ * does not parse XML; it only looks for the {@code <Disorder} start tag and the {@code </Disorder>} end tag, which
+ * is enough for the Orphanet files (there are no nested {@code Disorder} elements, and the tags do not occur in
+ * comments or CDATA sections). Each chunk is a well-formed XML element. The content outside the
+ * {@code Disorder} elements is skipped.
+ */
+class OrphanetDisorderScanner implements Closeable {
+
+  private static final String START_TAG = "<Disorder";
+  private static final String END_TAG = "</Disorder>";
+  /** The encoding in the XML declaration, e.g., {@code <?xml version="1.0" encoding="ISO-8859-1"?>}. */
+  private static final Pattern ENCODING_PATTERN = Pattern.compile("encoding=[\"']([A-Za-z0-9._-]+)[\"']");
+  /** Number of bytes at the start of the file that we search for the XML declaration. */
+  private static final int DECLARATION_LENGTH = 256;
+
+  private final BufferedReader reader;
+  /** The rest of the current line that has not been scanned yet (null if we need to read the next line). */
+  private String line = null;
+
+  /**
+   * @param xmlpath path to {@code en_product4.xml}
+   * @throws IOException if the file cannot be opened
+   */
+  OrphanetDisorderScanner(String xmlpath) throws IOException {
+    InputStream in = new BufferedInputStream(new FileInputStream(xmlpath));
+    try {
+      this.reader = new BufferedReader(new InputStreamReader(in, declaredCharset(in)));
+    } catch (IOException e) {
+      in.close();
+      throw e;
+    }
+  }
+
+  /**
+   * @return the charset of the XML declaration of the stream (UTF-8 if there is none); the stream is not consumed
+   */
+  private static Charset declaredCharset(InputStream in) throws IOException {
+    in.mark(DECLARATION_LENGTH);
+    byte[] bytes = in.readNBytes(DECLARATION_LENGTH);
+    in.reset();
+    String start = new String(bytes, StandardCharsets.ISO_8859_1);
+    int end = start.indexOf("?>");
+    if (start.startsWith("<?xml") && end > 0) {
+      Matcher matcher = ENCODING_PATTERN.matcher(start.substring(0, end));
+      if (matcher.find()) {
+        return Charset.forName(matcher.group(1));
+      }
+    }
+    return StandardCharsets.UTF_8;
+  }
+
+  /**
+   * @param s a line of the XML file
+   * @return index of the next {@code <Disorder} start tag (but not of, e.g., {@code <DisorderType}) or -1
+   */
+  private static int indexOfStartTag(String s) {
+    int i = s.indexOf(START_TAG);
+    while (i >= 0) {
+      int next = i + START_TAG.length();
+      if (next == s.length() || s.charAt(next) == '>' || Character.isWhitespace(s.charAt(next))) {
+        return i;
+      }
+      i = s.indexOf(START_TAG, next);
+    }
+    return -1;
+  }
+
+  /**
+   * @return the text of the next {@code Disorder} element, or null if there are no more disorders
+   * @throws IOException if the file cannot be read
+   */
+  String nextDisorder() throws IOException {
+    // find the start tag
+    int start = -1;
+    while (start < 0) {
+      if (line == null && (line = reader.readLine()) == null) {
+        return null;
+      }
+      start = indexOfStartTag(line);
+      if (start < 0) {
+        line = null;
+      }
+    }
+    // collect the lines up to and including the end tag
+    StringBuilder disorder = new StringBuilder();
+    String current = line.substring(start);
+    while (true) {
+      int end = current.indexOf(END_TAG);
+      if (end >= 0) {
+        disorder.append(current, 0, end + END_TAG.length());
+        String rest = current.substring(end + END_TAG.length());
+        line = rest.isEmpty() ? null : rest;
+        return disorder.toString();
+      }
+      disorder.append(current).append('\n');
+      current = reader.readLine();
+      if (current == null) {
+        throw new IOException("Unterminated Disorder element at end of Orphanet XML file");
+      }
+    }
+  }
+
+  @Override
+  public void close() throws IOException {
+    reader.close();
+  }
+}
@@ -5,11 +5,10 @@ import org.monarchinitiative.phenol.ontology.data.TermId;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
-import javax.xml.stream.XMLEventReader;
 import javax.xml.stream.XMLInputFactory;
+import javax.xml.stream.XMLStreamConstants;
 import javax.xml.stream.XMLStreamException;
-import javax.xml.stream.events.EndElement;
-import javax.xml.stream.events.XMLEvent;
+import javax.xml.stream.XMLStreamReader;
 import java.io.File;
 import java.io.FileInputStream;
 import java.io.IOException;
@@ -35,15 +34,42 @@ public class OrphanetInheritanceXMLParser {
    * that is associated with the disease.
    */
   private final Map<TermId, Collection<HpoAnnotationEntry>> disease2inheritanceMultimap;
-  // XML Parsing
-  private static final String DISORDER = "Disorder";
-  private static final String ORPHA_NUMBER = "OrphaNumber";
-  private static final String TYPE_OF_INHERITANCE_LIST = "TypeOfInheritanceList";
-  private static final String TYPE_OF_INHERITANCE = "TypeOfInheritance";
-  private static final String NAME = "Name";
-  private static final String AVERAGE_AGE_OF_ONSET_LIST = "AverageAgeOfOnsetList";
-  private static final String AVERAGE_AGE_OF_DEATH_LIST = "AverageAgeOfDeathList";
-  private static final String DISORDER_TYPE = "DisorderType";
+  /**
+   * The elements of the Orphanet product9_ages.xml file that we need. The cursor API of StAX gives us the local name
+   * of each element as a String (which the JDK parser takes from its symbol table), and we resolve it with a single
+   * hash lookup. All other elements are ignored.
+   */
+  private enum Element {
+    DISORDER("Disorder"),
+    ORPHA_NUMBER("OrphaNumber"),
+    TYPE_OF_INHERITANCE_LIST("TypeOfInheritanceList"),
+    TYPE_OF_INHERITANCE("TypeOfInheritance"),
+    NAME("Name"),
+    AVERAGE_AGE_OF_ONSET_LIST("AverageAgeOfOnsetList"),
+    AVERAGE_AGE_OF_DEATH_LIST("AverageAgeOfDeathList"),
+    DISORDER_TYPE("DisorderType");
+
+    private static final Map<String, Element> BY_LOCAL_NAME = new HashMap<>();
+
+    static {
+      for (Element element : values()) {
+        BY_LOCAL_NAME.put(element.localName, element);
+      }
+    }
+
+    private final String localName;
+
+    Element(String localName) {
+      this.localName = localName;
+    }
+
+    /**
+     * @return the element with the given local name, or null if the parser does not need the element
+     */
+    static Element of(String localName) {
+      return BY_LOCAL_NAME.get(localName);
+    }
+  }
   /**
    * Orphanet marks some of its intheritance entries as Not apploicable. We will just skip them.
    * This is the corresponding ID.
@@ -82,50 +108,54 @@ public class OrphanetInheritanceXMLParser {
     return disease2inheritanceMultimap;
   }
 
+  /**
+   * Parse the inheritance entries of the Orphanet file. The text of the elements is read with
+   * {@link XMLStreamReader#getElementText()}, which concatenates the text even if the parser reports it in several
+   * pieces (e.g., before and after an entity such as {@code &amp;}).
+   */
   private void parse(File file) {
 
     try (InputStream in = new FileInputStream(file)) {
       XMLInputFactory inputFactory = XMLInputFactory.newInstance();
-      XMLEventReader eventReader = inputFactory.createXMLEventReader(in);
+      XMLStreamReader reader = inputFactory.createXMLStreamReader(in);
       String currentOrphanum = null;
       String currentDiseaseName = null;
       String currentInheritanceId = null;
       String currentModeOfInheritanceLabel = null;
-      while (eventReader.hasNext()) {
-        XMLEvent event = eventReader.nextEvent();
-        if (event.isStartElement()) {
-          final String localPart = event.asStartElement().getName().getLocalPart();
-          if (localPart.equals(DISORDER)) {
+      while (reader.hasNext()) {
+        int eventType = reader.next();
+        if (eventType == XMLStreamConstants.START_ELEMENT) {
+          final Element element = Element.of(reader.getLocalName());
+          if (element == null) {
+            continue;
+          }
+          if (element == Element.DISORDER) {
             inDisorder = true;
           } else if (inDisorder &&
             !inAverageAgeOfOnsetList &&
             !isInAverageAgeOfDeathList &&
             !inDisorderType &&
             !inTypeOfInheritance &&
-            localPart.equals(ORPHA_NUMBER)) {
-            event = eventReader.nextEvent(); // go to the contents of the node
-            currentOrphanum = event.asCharacters().getData();
-          } else if (inDisorder && localPart.equals(TYPE_OF_INHERITANCE_LIST)) {
+            element == Element.ORPHA_NUMBER) {
+            currentOrphanum = reader.getElementText();
+          } else if (inDisorder && element == Element.TYPE_OF_INHERITANCE_LIST) {
             inTypeOfInheritanceList = true;
-          } else if (inTypeOfInheritanceList && localPart.equals(TYPE_OF_INHERITANCE)) {
+          } else if (inTypeOfInheritanceList && element == Element.TYPE_OF_INHERITANCE) {
             inTypeOfInheritance = true;
           } else if (inDisorder &&
             !inAverageAgeOfOnsetList &&
             !isInAverageAgeOfDeathList &&
             !inDisorderType &&
             !inTypeOfInheritance &&
-            localPart.equals(NAME)) {
-
-            event = eventReader.nextEvent(); // go to the contents of the node
-            currentDiseaseName = event.asCharacters().getData();
+            element == Element.NAME) {
+            currentDiseaseName = reader.getElementText();
           } else if (inDisorder &&
             !inAverageAgeOfOnsetList &&
             !isInAverageAgeOfDeathList &&
             !inDisorderType &&
             inTypeOfInheritance &&
-            localPart.equals(NAME)) {
-            event = eventReader.nextEvent(); // go to the contents of the node
-            currentModeOfInheritanceLabel = event.asCharacters().getData();
+            element == Element.NAME) {
+            currentModeOfInheritanceLabel = reader.getElementText();
             if (currentInheritanceId==null || currentInheritanceId.equals(NOT_APPLICABLE_ID) ||
               currentInheritanceId.equals(UNKNOWN_ID) ||
               currentInheritanceId.equals(NO_DATA_AVAILABLE)) {
@@ -146,25 +176,26 @@ public class OrphanetInheritanceXMLParser {
               hpoInheritanceId,
               hpoLabel,
               orphanetBiocurationString);
-            disease2inheritanceMultimap.computeIfAbsent(disId, key -> new HashSet<>())
+            disease2inheritanceMultimap.computeIfAbsent(disId, key -> new LinkedHashSet<>())
               .add(entry);
-          } else if (localPart.equals(AVERAGE_AGE_OF_ONSET_LIST)) {
+          } else if (element == Element.AVERAGE_AGE_OF_ONSET_LIST) {
             inAverageAgeOfOnsetList = true;
-          } else if (localPart.equals(AVERAGE_AGE_OF_DEATH_LIST)) {
+          } else if (element == Element.AVERAGE_AGE_OF_DEATH_LIST) {
             isInAverageAgeOfDeathList = true;
-          } else if (localPart.equals(TYPE_OF_INHERITANCE)) {
+          } else if (element == Element.TYPE_OF_INHERITANCE) {
             inTypeOfInheritance = true;
-          } else if (localPart.equals(DISORDER_TYPE)) {
+          } else if (element == Element.DISORDER_TYPE) {
             inDisorderType = true;
           }
-          if (inTypeOfInheritance && localPart.equals(ORPHA_NUMBER)) {
-            event = eventReader.nextEvent(); // go to the contents of the node
-            currentInheritanceId = event.asCharacters().getData();
+          if (inTypeOfInheritance && element == Element.ORPHA_NUMBER) {
+            currentInheritanceId = reader.getElementText();
           }
-        } else if (event.isEndElement()) {
-          EndElement endElement = event.asEndElement();
-          String localPart = endElement.getName().getLocalPart();
-          switch (localPart) {
+        } else if (eventType == XMLStreamConstants.END_ELEMENT) {
+          Element element = Element.of(reader.getLocalName());
+          if (element == null) {
+            continue;
+          }
+          switch (element) {
             case DISORDER:
               inDisorder = false;
               break;
@@ -183,9 +214,12 @@ public class OrphanetInheritanceXMLParser {
             case DISORDER_TYPE:
               inDisorderType = false;
               break;
+            default:
+              break;
           }
         }
       }
+      reader.close();
     } catch (IOException | XMLStreamException e) {
       LOGGER.error(e.toString());
     }
@@ -8,19 +8,19 @@ import org.monarchinitiative.phenol.ontology.data.TermId;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
-import javax.xml.namespace.QName;
-import javax.xml.stream.XMLEventReader;
 import javax.xml.stream.XMLInputFactory;
+import javax.xml.stream.XMLStreamConstants;
 import javax.xml.stream.XMLStreamException;
-import javax.xml.stream.events.Attribute;
-import javax.xml.stream.events.EndElement;
-import javax.xml.stream.events.StartElement;
-import javax.xml.stream.events.XMLEvent;
+import javax.xml.stream.XMLStreamReader;
 import java.io.*;
 import java.text.SimpleDateFormat;
 import java.util.*;
-import java.util.stream.Collectors;
-import java.util.stream.Stream;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.function.Consumer;
+import java.util.function.Function;
 
 import static org.monarchinitiative.hpoannotqc.annotations.hpo.HpoFrequencyTermIds.*;
 
@@ -70,80 +70,155 @@ public class OrphanetXML2HpoDiseaseModelParser {
      */
     private final String orphanetBiocurationString;
     /**
-     * A map of diseases parsed from Orphanet.
+     * A map of diseases parsed from Orphanet (empty if the diseases were passed to {@link #diseaseConsumer}).
      */
     private final Map<TermId, HpoAnnotationModel> orphanetDiseaseMap = new HashMap<>();
+    /**
+     * Receives each disease as soon as its {@code Disorder} element has been parsed.
+     */
+    private final Consumer<HpoAnnotationModel> diseaseConsumer;
+    /**
+     * The field values of the Orphanet diseases of this parser (see {@link SymbolTable}).
+     */
+    private final SymbolTable symbols = new SymbolTable();
     /**
      * If true, replace obsolete term ids without throwing Exception.
      */
     private final boolean replaceObsoleteTermId;
-
-    private static final String DISORDER = "Disorder";
-    private static final String ORPHA_NUMBER = "OrphaNumber";
-    private static final String ORPHA_CODE = "OrphaCode";
-
-    private static final String NAME = "Name";
-    private static final String HPO_DISORDER_ASSOCIATION = "HPODisorderAssociation";
-    private static final String DIAGNOSTIC_CRITERIA = "DiagnosticCriteria";
-    private static final String DISORDER_TYPE = "DisorderType";
-    private static final String DISORDER_GROUP = "DisorderGroup";
-    private static final String EXPERT_LINK = "ExpertLink";
-
-    private static final String HPO_DISORDER_ASSOCIATION_LIST = "HPODisorderAssociationList";
-    private static final String HPO_DISORDER_SET_STATUS = "HPODisorderSetStatus";
-    private static final String HPO_DISORDER_SET_STATUS_LIST = "HPODisorderSetStatusList";
-    private static final String HPO_FREQUENCY = "HPOFrequency";
-    private static final String HPO = "HPO";
-    private static final String HPO_ID = "HPOId";
-    private static final String HPO_TERM = "HPOTerm";
-    private static final String JDBOR = "JDBOR";
-    private static final String AVAILABILITY = "Availability";
-    private static final String FULL_NAME = "FullName";
-    private static final String SHORT_IDENTIFIER = "ShortIdentifier";
-    private static final String LEGAL_CODE = "LegalCode";
-    private static final String LICENSE = "Licence";
-    private static final String SOURCE = "Source";
-    private static final String VALIDATION_DATE = "ValidationDate";
-    private static final String VALIDATION_STATUS = "ValidationStatus";
-    private static final String ONLINE = "Online";
+    /**
+     * Number of worker threads used to parse the disorders (1 for sequential parsing).
+     */
+    private final int threads;
+    /**
+     * Returns the inheritance annotations of an Orphanet disease (or null if there are none); may be null.
+     */
+    private final Function<TermId, ? extends Collection<HpoAnnotationEntry>> inheritanceLookup;
 
     /**
-     * These are the local names of the Orphanet product4.xml file.
+     * The elements of the Orphanet product4.xml file. The cursor API of StAX gives us the local name of each element
+     * as a String (which the JDK parser takes from its symbol table), and we resolve it with a single hash lookup.
      */
-    private final Set<String> allowableXmlNodeNames = Stream.of(AVAILABILITY,
-                    DIAGNOSTIC_CRITERIA,
-                    DISORDER,
-                    DISORDER_GROUP,
-                    DISORDER_TYPE,
-                    EXPERT_LINK,
-                    FULL_NAME,
-                    HPO_DISORDER_ASSOCIATION,
-                    HPO_DISORDER_ASSOCIATION_LIST,
-                    HPO_DISORDER_SET_STATUS,
-                    HPO_DISORDER_SET_STATUS_LIST,
-                    HPO_FREQUENCY,
-                    HPO_ID,
-                    HPO,
-                    HPO_TERM,
-                    JDBOR,
-                    LEGAL_CODE,
-                    LICENSE,
-                    NAME,
-                    ONLINE,
-                    ORPHA_CODE,
-                    ORPHA_NUMBER,
-                    SOURCE,
-                    SHORT_IDENTIFIER,
-                    VALIDATION_DATE,
-                    VALIDATION_STATUS)
-            .collect(Collectors.toCollection(HashSet::new));
+    private enum Element {
+        AVAILABILITY("Availability"),
+        DIAGNOSTIC_CRITERIA("DiagnosticCriteria"),
+        DISORDER("Disorder"),
+        DISORDER_GROUP("DisorderGroup"),
+        DISORDER_TYPE("DisorderType"),
+        EXPERT_LINK("ExpertLink"),
+        FULL_NAME("FullName"),
+        HPO_DISORDER_ASSOCIATION("HPODisorderAssociation"),
+        HPO_DISORDER_ASSOCIATION_LIST("HPODisorderAssociationList"),
+        HPO_DISORDER_SET_STATUS("HPODisorderSetStatus"),
+        HPO_DISORDER_SET_STATUS_LIST("HPODisorderSetStatusList"),
+        HPO_FREQUENCY("HPOFrequency"),
+        HPO_ID("HPOId"),
+        HPO("HPO"),
+        HPO_TERM("HPOTerm"),
+        JDBOR("JDBOR"),
+        LEGAL_CODE("LegalCode"),
+        LICENSE("Licence"),
+        NAME("Name"),
+        ONLINE("Online"),
+        ORPHA_CODE("OrphaCode"),
+        ORPHA_NUMBER("OrphaNumber"),
+        SOURCE("Source"),
+        SHORT_IDENTIFIER("ShortIdentifier"),
+        VALIDATION_DATE("ValidationDate"),
+        VALIDATION_STATUS("ValidationStatus");
 
+        private static final Map<String, Element> BY_LOCAL_NAME = new HashMap<>();
+
+        static {
+            for (Element element : values()) {
+                BY_LOCAL_NAME.put(element.localName, element);
+            }
+        }
+
+        private final String localName;
+
+        Element(String localName) {
+            this.localName = localName;
+        }
+
+        /**
+         * @return the element with the given local name, or null if it is not an element of the product4.xml file
+         */
+        static Element of(String localName) {
+            return BY_LOCAL_NAME.get(localName);
+        }
+    }
+
+    /** Name of the attribute of {@code HPOFrequency} that has the Orphanet frequency id. */
+    private static final String ID_ATTRIBUTE = "id";
 
     private final List<HpoaError> errorList;
 
 
     public OrphanetXML2HpoDiseaseModelParser(String xmlpath, Ontology onto, boolean tolerant) {
+        this(xmlpath, onto, tolerant, null);
+    }
+
+    /**
+     * Parse the Orphanet file and pass each disease to {@code consumer} in the order of the XML file instead of
+     * keeping all diseases in memory. If {@code consumer} is null, the diseases are collected and can be retrieved
+     * with {@link #getOrphanetDiseaseMap()}.
+     * @param xmlpath  path to {@code en_product4_HPO.xml}
+     * @param onto     reference to the HPO Ontology
+     * @param tolerant if true, replace obsolete term ids without throwing Exception
+     * @param consumer receives the diseases one at a time (or null to collect the diseases)
+     */
+    public OrphanetXML2HpoDiseaseModelParser(String xmlpath,
+                                             Ontology onto,
+                                             boolean tolerant,
+                                             Consumer<HpoAnnotationModel> consumer) {
+        this(xmlpath, onto, tolerant, consumer, 1);
+    }
+
+    /**
+     * Parse the Orphanet file and pass each disease to {@code consumer} in the order of the XML file. If
+     * {@code threads} is greater than 1, the {@code Disorder} elements are split off the file by an
+     * {@link OrphanetDisorderScanner} and parsed (including Q/C) on a pool of worker threads; the result is the same
+     * as with sequential parsing.
+     * @param xmlpath  path to {@code en_product4_HPO.xml}
+     * @param onto     reference to the HPO Ontology
+     * @param tolerant if true, replace obsolete term ids without throwing Exception
+     * @param consumer receives the diseases one at a time (or null to collect the diseases)
+     * @param threads  number of worker threads used to parse the disorders (1 for sequential parsing)
+     */
+    public OrphanetXML2HpoDiseaseModelParser(String xmlpath,
+                                             Ontology onto,
+                                             boolean tolerant,
+                                             Consumer<HpoAnnotationModel> consumer,
+                                             int threads) {
+        this(xmlpath, onto, tolerant, consumer, threads, null);
+    }
+
+    /**
+     * Parse the Orphanet file and pass each disease, together with its inheritance annotations (from
+     * {@code en_product9_ages.xml}), to {@code consumer}. The inheritance annotations are added to the entries of the
+     * disease before its {@link HpoAnnotationModel} is created, so the model does not need to be merged and copied
+     * afterwards. {@code inheritanceLookup} is called from the worker threads if {@code threads} is greater than 1.
+     * @param xmlpath           path to {@code en_product4_HPO.xml}
+     * @param onto              reference to the HPO Ontology
+     * @param tolerant          if true, replace obsolete term ids without throwing Exception
+     * @param consumer          receives the diseases one at a time (or null to collect the diseases)
+     * @param threads           number of worker threads used to parse the disorders (1 for sequential parsing)
+     * @param inheritanceLookup returns the inheritance annotations of a disease such as ORPHA:100 (or null if there
+     *                          are none); if null, no inheritance annotations are added
+     */
+    public OrphanetXML2HpoDiseaseModelParser(String xmlpath,
+                                             Ontology onto,
+                                             boolean tolerant,
+                                             Consumer<HpoAnnotationModel> consumer,
+                                             int threads,
+                                             Function<TermId, ? extends Collection<HpoAnnotationEntry>> inheritanceLookup) {
         super();
+        if (threads < 1) {
+            throw new PhenolRuntimeException("Number of threads must be at least 1 but was " + threads);
+        }
+        this.threads = threads;
+        this.inheritanceLookup = inheritanceLookup;
+        this.diseaseConsumer = consumer != null ? consumer : model -> orphanetDiseaseMap.put(TermId.of(model.getBasename()), model);
         errorList = new ArrayList<>();
         orphanetXmlPath = xmlpath;
         this.ontology = onto;
@@ -204,11 +279,105 @@ public class OrphanetXML2HpoDiseaseModelParser {
      * @throws XMLStreamException If there is an XML stream issue
      * @throws IOException        If the file cannot be opened
      */
-    @SuppressWarnings("ConstantConditions")
     private void parse() throws XMLStreamException, IOException {
-        XMLInputFactory xmlInputFactory = XMLInputFactory.newInstance();
-        XMLEventReader xmlEventReader = xmlInputFactory.createXMLEventReader(new FileInputStream(orphanetXmlPath));
+        if (threads > 1) {
+            parseInParallel();
+        } else {
+            XMLInputFactory xmlInputFactory = XMLInputFactory.newInstance();
+            try (InputStream in = new FileInputStream(orphanetXmlPath)) {
+                XMLStreamReader xmlStreamReader = xmlInputFactory.createXMLStreamReader(in);
+                try {
+                    parseDisorders(xmlStreamReader, diseaseConsumer, errorList);
+                } finally {
+                    xmlStreamReader.close();
+                }
+            }
+        }
+
+        if (hasError()) {
+            List<String> errors = errorList();
+            String error_outname = "ORPHA_ANNOTS_ERRORS.txt";
+            try (BufferedWriter bw = new BufferedWriter(new FileWriter(error_outname))) {
+                for (var line: errors) {
+                    bw.write(line + "\n");
+                }
+            }
+
+        }
+    }
+
+    /**
+     * The diseases parsed from a single {@code Disorder} element, together with their errors.
+     */
+    private static class ParsedDisorder {
+        private final List<HpoAnnotationModel> models = new ArrayList<>();
+        private final List<HpoaError> errors = new ArrayList<>();
+    }
 
+    /**
+     * Parse the {@code Disorder} elements on {@link #threads} worker threads. The scanner and the consumer run on the
+     * calling thread; the results are passed to {@link #diseaseConsumer} in the order of the XML file, and at most a
+     * few disorders per thread are parsed ahead of the disorder that is currently being consumed.
+     */
+    private void parseInParallel() throws XMLStreamException, IOException {
+        final int maxPending = 4 * threads;
+        // the StAX factories are not guaranteed to be thread-safe, so each worker gets its own
+        ThreadLocal<XMLInputFactory> xmlInputFactory = ThreadLocal.withInitial(XMLInputFactory::newInstance);
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        try (OrphanetDisorderScanner scanner = new OrphanetDisorderScanner(orphanetXmlPath)) {
+            Deque<Future<ParsedDisorder>> pending = new ArrayDeque<>(maxPending);
+            String disorder = scanner.nextDisorder();
+            while (disorder != null || !pending.isEmpty()) {
+                while (disorder != null && pending.size() < maxPending) {
+                    String xml = disorder;
+                    pending.add(executor.submit(() -> parseDisorder(xml, xmlInputFactory.get())));
+                    disorder = scanner.nextDisorder();
+                }
+                ParsedDisorder parsed = pending.poll().get();
+                parsed.models.forEach(diseaseConsumer);
+                errorList.addAll(parsed.errors);
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new PhenolRuntimeException("Interrupted while parsing " + orphanetXmlPath);
+        } catch (ExecutionException e) {
+            Throwable cause = e.getCause();
+            if (cause instanceof RuntimeException) {
+                throw (RuntimeException) cause;
+            } else if (cause instanceof XMLStreamException) {
+                throw (XMLStreamException) cause;
+            }
+            throw new PhenolRuntimeException(cause);
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    /**
+     * Parse the text of a single {@code Disorder} element. This method does not touch any mutable state of the
+     * parser and can therefore be called concurrently from several worker threads.
+     */
+    private ParsedDisorder parseDisorder(String xml, XMLInputFactory xmlInputFactory) throws XMLStreamException {
+        ParsedDisorder parsed = new ParsedDisorder();
+        XMLStreamReader xmlStreamReader = xmlInputFactory.createXMLStreamReader(new StringReader(xml));
+        parseDisorders(xmlStreamReader, parsed.models::add, parsed.errors);
+        return parsed;
+    }
+
+    /**
+     * Parse the {@code Disorder} elements of an XML stream (either the whole Orphanet file or a single
+     * {@code Disorder} element). The text of the elements is read with {@link XMLStreamReader#getElementText()},
+     * which concatenates the text even if the parser reports it in several pieces (e.g., before and after an
+     * entity such as {@code &amp;}).
+     *
+     * @param xmlStreamReader the XML to be parsed
+     * @param consumer        receives the disease of each {@code Disorder} element
+     * @param errors          the errors of the diseases are added to this list
+     * @throws XMLStreamException If there is an XML stream issue
+     */
+    private void parseDisorders(XMLStreamReader xmlStreamReader,
+                                Consumer<HpoAnnotationModel> consumer,
+                                List<HpoaError> errors) throws XMLStreamException {
         boolean inFrequency = false;
         boolean inDiagnosticCriterion = false;
         boolean inDisorderType = false;
@@ -219,15 +388,15 @@ public class OrphanetXML2HpoDiseaseModelParser {
         String currentOrphanumber = null;
         String currentDiseaseName = null;
         List<HpoAnnotationEntry> currentAnnotationEntryList = new ArrayList<>();
-        while (xmlEventReader.hasNext()) {
-            XMLEvent xmlEvent = xmlEventReader.nextEvent();
-            if (xmlEvent.isStartElement()) {
-                StartElement startElement = xmlEvent.asStartElement();
-                String localName = startElement.getName().getLocalPart();
-                if (!allowableXmlNodeNames.contains(localName)) {
+        while (xmlStreamReader.hasNext()) {
+            int eventType = xmlStreamReader.next();
+            if (eventType == XMLStreamConstants.START_ELEMENT) {
+                String localName = xmlStreamReader.getLocalName();
+                Element element = Element.of(localName);
+                if (element == null) {
                     throw new PhenolRuntimeException("Unexpected XML Node in Orphanet product_4 XML: " + localName);
                 }
-                switch (localName) {
+                switch (element) {
                     case DISORDER_TYPE:
                         inDisorderType = true;
                         break;
@@ -235,8 +404,7 @@ public class OrphanetXML2HpoDiseaseModelParser {
                         if (inFrequency || inDiagnosticCriterion) {
                             continue;
                         } // Orphanumbers are used for the Disorder but also for the Frequency nodes
-                        xmlEvent = xmlEventReader.nextEvent();
-                        currentOrphanumber = xmlEvent.asCharacters().getData();
+                        currentOrphanumber = xmlStreamReader.getElementText();
                         break;
                     case NAME:
                         if (inFrequency || inDiagnosticCriterion || inDisorderGroup || inDisorderType) {
@@ -245,26 +413,23 @@ public class OrphanetXML2HpoDiseaseModelParser {
 
                         // skip, we have no need to parse the name of the frequency element
                         // since we get the class from the attribute "id"
-                        xmlEvent = xmlEventReader.nextEvent();
-                        currentDiseaseName = xmlEvent.asCharacters().getData();
+                        currentDiseaseName = xmlStreamReader.getElementText();
 
                         break;
                     case DISORDER_GROUP:
                         inDisorderGroup = true;
                         break;
                     case HPO_ID:
-                        xmlEvent = xmlEventReader.nextEvent();
-                        currentHpoId = xmlEvent.asCharacters().getData();
+                        currentHpoId = xmlStreamReader.getElementText();
                         break;
                     case HPO_TERM:
-                        xmlEvent = xmlEventReader.nextEvent();
-                        currentHpoTermLabel = xmlEvent.asCharacters().getData();
+                        currentHpoTermLabel = xmlStreamReader.getElementText();
                         break;
                     case HPO_FREQUENCY:
                         // if we are here, then we can grab the frequency from the id attribute.
-                        Attribute idAttr = startElement.getAttributeByName(new QName("id"));
-                        if (idAttr != null) {
-                            currentFrequencyTermId = string2frequency(idAttr.getValue());
+                        String id = xmlStreamReader.getAttributeValue(null, ID_ATTRIBUTE);
+                        if (id != null) {
+                            currentFrequencyTermId = string2frequency(id);
                         }
                         inFrequency = true;
                         break;
@@ -281,10 +446,12 @@ public class OrphanetXML2HpoDiseaseModelParser {
                         // no-op, no need to do anything for many node types!
                         break;
                 }
-            } else if (xmlEvent.isEndElement()) {
-                EndElement endElement = xmlEvent.asEndElement();
-                String localPart = endElement.getName().getLocalPart();
-                switch (localPart) {
+            } else if (eventType == XMLStreamConstants.END_ELEMENT) {
+                Element element = Element.of(xmlStreamReader.getLocalName());
+                if (element == null) {
+                    continue;
+                }
+                switch (element) {
                     case HPO_FREQUENCY:
                         inFrequency = false;
                         break;
@@ -323,33 +490,30 @@ public class OrphanetXML2HpoDiseaseModelParser {
                         inDisorderType = false;
                         break;
                     case DISORDER:
-                        TermId orphaDiseaseId = TermId.of(String.format("ORPHA:%s", currentOrphanumber));
-                        HpoAnnotationModel model = new HpoAnnotationModel(String.format("ORPHA:%s", currentOrphanumber),
-                                currentAnnotationEntryList);
-                        orphanetDiseaseMap.put(orphaDiseaseId, model);
-                        inDisorderType = false;
-                        currentOrphanumber = null;
-                        currentDiseaseName = null;
                         if (currentAnnotationEntryList.stream().anyMatch(HpoAnnotationEntry::hasError)) {
                             for (var entry: currentAnnotationEntryList) {
-                                errorList.addAll(entry.getErrorList());
+                                errors.addAll(entry.getErrorList());
                             }
                         }
+                        String diseaseId = String.format("ORPHA:%s", currentOrphanumber);
+                        if (inheritanceLookup != null) {
+                            Collection<HpoAnnotationEntry> inheritanceEntries = inheritanceLookup.apply(TermId.of(diseaseId));
+                            if (inheritanceEntries != null) {
+                                currentAnnotationEntryList.addAll(inheritanceEntries);
+                            }
+                        }
+                        HpoAnnotationModel model = new HpoAnnotationModel(diseaseId, currentAnnotationEntryList, symbols);
+                        consumer.accept(model);
+                        inDisorderType = false;
+                        currentOrphanumber = null;
+                        currentDiseaseName = null;
                         currentAnnotationEntryList.clear();
+                        break;
+                    default:
+                        break;
                 }
             }
         }
-
-        if (hasError()) {
-            List<String> errors = errorList();
-            String error_outname = "ORPHA_ANNOTS_ERRORS.txt";
-            try (BufferedWriter bw = new BufferedWriter(new FileWriter(error_outname))) {
-                for (var line: errors) {
-                    bw.write(line + "\n");
-                }
-            }
-
-        }
     }
 
 
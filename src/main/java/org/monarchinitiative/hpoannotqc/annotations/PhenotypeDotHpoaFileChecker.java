@@ -0,0 +1,393 @@
+package org.monarchinitiative.hpoannotqc.annotations;
+
+import org.monarchinitiative.hpoannotqc.annotations.hpoaerror.HpoaError;
+import org.monarchinitiative.phenol.base.PhenolRuntimeException;
+import org.monarchinitiative.phenol.ontology.data.Ontology;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.Charset;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+
+/**
+ * Q/C of the big file ({@code phenotype.hpoa}). The file is memory-mapped and split into segments that end at line
+ * boundaries. The segments are the units of work of a {@link ForkJoinPool}; each worker thread counts the rows and
+ * collects the errors in its own {@link Accumulator}, and the accumulators are merged once all segments have been
+ * checked, so the workers do not share any mutable state. The tabs of each row are found directly in the mapped
+ * buffer, and a String is only created for each of the 12 columns. Each row is checked against the ontology in the
+ * same way as a line of a small file (see {@link HpoAnnotationEntry#fromBigFileRow}), and the aspect column must be
+ * the aspect that {@link AspectHelper} computes for the HPO term.
+ * <p>
+ * Lines that start with '#' and the column header line are skipped. The results are in the order of the file, so
+ * they do not depend on the number of threads.
+ * </p>
+ */
+public class PhenotypeDotHpoaFileChecker {
+
+  /** Number of tab-separated columns of the big file (see {@link PhenotypeDotHpoaFileWriter#getHeaderLine()}). */
+  private static final int NUMBER_OF_FIELDS = 12;
+  /** Index of the aspect column. */
+  private static final int ASPECT_FIELD = 10;
+  private static final byte TAB = '\t';
+  private static final byte NEWLINE = '\n';
+  private static final byte CARRIAGE_RETURN = '\r';
+  private static final byte COMMENT = '#';
+  /** Default size (in bytes) of the segments of the file that are checked by one worker thread at a time. */
+  private static final int DEFAULT_SEGMENT_SIZE = 1 << 20;
+  /** The big file is written with a {@link java.io.FileWriter}, i.e., with the default charset. */
+  private static final Charset CHARSET = Charset.defaultCharset();
+
+  private final Ontology ontology;
+  private final AspectHelper aspectHelper;
+  private final int threads;
+  private final int segmentSize;
+  private final String headerLine;
+
+  /**
+   * @param ontology reference to the HPO
+   * @param threads  number of worker threads used to check the segments of the file (1 for sequential checking)
+   */
+  public PhenotypeDotHpoaFileChecker(Ontology ontology, int threads) {
+    this(ontology, threads, DEFAULT_SEGMENT_SIZE);
+  }
+
+  /**
+   * @param ontology    reference to the HPO
+   * @param threads     number of worker threads used to check the segments of the file (1 for sequential checking)
+   * @param segmentSize approximate size of a segment in bytes (a segment is extended to the end of its last line)
+   */
+  PhenotypeDotHpoaFileChecker(Ontology ontology, int threads, int segmentSize) {
+    if (segmentSize < 1) {
+      throw new PhenolRuntimeException("Segment size must be positive but was " + segmentSize);
+    }
+    this.ontology = ontology;
+    this.aspectHelper = new AspectHelper(ontology);
+    this.threads = threads;
+    this.segmentSize = segmentSize;
+    this.headerLine = PhenotypeDotHpoaFileWriter.getHeaderLine();
+  }
+
+  /**
+   * Check all rows of a {@code phenotype.hpoa} file.
+   * @param phenotypeHpoa path to the big file
+   * @return the numbers of valid and invalid rows and the errors
+   * @throws IOException if the file cannot be read
+   */
+  public Result check(Path phenotypeHpoa) throws IOException {
+    try (FileChannel channel = FileChannel.open(phenotypeHpoa, StandardOpenOption.READ)) {
+      List<Long> boundaries = segmentBoundaries(channel);
+      int[] segmentLines = new int[boundaries.size() - 1];
+      Queue<Accumulator> accumulators = new ConcurrentLinkedQueue<>();
+      if (threads > 1) {
+        // a worker registers its accumulator when it checks its first segment; this is the only shared write
+        ThreadLocal<Accumulator> workerAccumulator = ThreadLocal.withInitial(() -> {
+          Accumulator accumulator = new Accumulator();
+          accumulators.add(accumulator);
+          return accumulator;
+        });
+        ForkJoinPool pool = new ForkJoinPool(threads);
+        try {
+          pool.invoke(new SegmentTask(this, channel, boundaries, segmentLines, workerAccumulator, 0,
+                  segmentLines.length));
+        } catch (UncheckedIOException e) {
+          throw e.getCause();
+        } finally {
+          pool.shutdownNow();
+        }
+      } else {
+        Accumulator accumulator = new Accumulator();
+        accumulators.add(accumulator);
+        for (int i = 0; i < segmentLines.length; i++) {
+          segmentLines[i] = checkSegment(channel, boundaries.get(i), boundaries.get(i + 1), i, accumulator);
+        }
+      }
+      return new Result(phenotypeHpoa.getFileName().toString(), segmentLines, accumulators);
+    }
+  }
+
+  /**
+   * @return the offsets of the starts of the segments followed by the size of the file; every segment except
+   * the last one ends directly after a newline
+   */
+  private List<Long> segmentBoundaries(FileChannel channel) throws IOException {
+    long size = channel.size();
+    List<Long> boundaries = new ArrayList<>();
+    boundaries.add(0L);
+    ByteBuffer buffer = ByteBuffer.allocate(8192);
+    long start = 0;
+    while (start < size) {
+      long end = start + segmentSize;
+      if (end >= size) {
+        end = size;
+      } else {
+        // extend the segment to the end of the line that contains the byte at end - 1
+        long position = end - 1;
+        end = size;
+        buffer.clear();
+        int n;
+        while ((n = channel.read(buffer, position)) > 0) {
+          int newline = indexOf(buffer, 0, n, NEWLINE);
+          if (newline >= 0) {
+            end = position + newline + 1;
+            break;
+          }
+          position += n;
+          buffer.clear();
+        }
+      }
+      boundaries.add(end);
+      start = end;
+    }
+    return boundaries;
+  }
+
+  /**
+   * @return index of the first {@code b} in {@code buffer} between {@code from} and {@code to}, or -1
+   */
+  private static int indexOf(ByteBuffer buffer, int from, int to, byte b) {
+    for (int i = from; i < to; i++) {
+      if (buffer.get(i) == b) {
+        return i;
+      }
+    }
+    return -1;
+  }
+
+  /**
+   * Checks the segments {@code from} (inclusive) to {@code to} (exclusive) by splitting the range in halves until a
+   * task has a single segment. The results go to the accumulator of the worker thread that checks the segment.
+   * The tasks only live for one call of {@link #check(Path)} and are never serialized.
+   */
+  @SuppressWarnings("serial")
+  private static class SegmentTask extends RecursiveAction {
+    private final PhenotypeDotHpoaFileChecker checker;
+    private final FileChannel channel;
+    private final List<Long> boundaries;
+    /** Number of lines of each segment; each element is written by exactly one task. */
+    private final int[] segmentLines;
+    private final ThreadLocal<Accumulator> workerAccumulator;
+    private final int from;
+    private final int to;
+
+    SegmentTask(PhenotypeDotHpoaFileChecker checker, FileChannel channel, List<Long> boundaries, int[] segmentLines,
+                ThreadLocal<Accumulator> workerAccumulator, int from, int to) {
+      this.checker = checker;
+      this.channel = channel;
+      this.boundaries = boundaries;
+      this.segmentLines = segmentLines;
+      this.workerAccumulator = workerAccumulator;
+      this.from = from;
+      this.to = to;
+    }
+
+    @Override
+    protected void compute() {
+      if (to - from > 1) {
+        int middle = (from + to) >>> 1;
+        invokeAll(new SegmentTask(checker, channel, boundaries, segmentLines, workerAccumulator, from, middle),
+                new SegmentTask(checker, channel, boundaries, segmentLines, workerAccumulator, middle, to));
+      } else if (to > from) {
+        try {
+          segmentLines[from] = checker.checkSegment(channel, boundaries.get(from), boundaries.get(to), from,
+                  workerAccumulator.get());
+        } catch (IOException e) {
+          throw new UncheckedIOException(e);
+        }
+      }
+    }
+  }
+
+  /**
+   * Map the bytes from {@code start} (inclusive) to {@code end} (exclusive) and check the lines they contain.
+   * @return the number of lines of the segment
+   */
+  private int checkSegment(FileChannel channel, long start, long end, int segment, Accumulator accumulator)
+          throws IOException {
+    MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, start, end - start);
+    int line = 0;
+    int[] tabs = new int[NUMBER_OF_FIELDS - 1];
+    byte[] scratch = new byte[256];
+    int limit = buffer.limit();
+    int lineStart = 0;
+    while (lineStart < limit) {
+      int newline = indexOf(buffer, lineStart, limit, NEWLINE);
+      int lineEnd = newline < 0 ? limit : newline;
+      int next = newline < 0 ? limit : newline + 1;
+      if (lineEnd > lineStart && buffer.get(lineEnd - 1) == CARRIAGE_RETURN) {
+        lineEnd--;
+      }
+      line++;
+      if (lineEnd > lineStart && buffer.get(lineStart) != COMMENT) {
+        // find the tabs; fieldCount counts all fields, including those beyond the expected number
+        int fieldCount = 1;
+        for (int i = lineStart; i < lineEnd; i++) {
+          if (buffer.get(i) == TAB) {
+            if (fieldCount < NUMBER_OF_FIELDS) {
+              tabs[fieldCount - 1] = i;
+            }
+            fieldCount++;
+          }
+        }
+        if (fieldCount != NUMBER_OF_FIELDS) {
+          accumulator.invalidRows++;
+          accumulator.addError(segment, line,
+                  String.format("We were expecting %d fields but got %d", NUMBER_OF_FIELDS, fieldCount));
+        } else {
+          String[] fields = new String[NUMBER_OF_FIELDS];
+          for (int f = 0; f < NUMBER_OF_FIELDS; f++) {
+            int from = f == 0 ? lineStart : tabs[f - 1] + 1;
+            int to = f == NUMBER_OF_FIELDS - 1 ? lineEnd : tabs[f];
+            if (to - from > scratch.length) {
+              scratch = new byte[Math.max(to - from, 2 * scratch.length)];
+            }
+            buffer.position(from);
+            buffer.get(scratch, 0, to - from);
+            fields[f] = new String(scratch, 0, to - from, CHARSET);
+          }
+          checkRow(fields, segment, line, accumulator);
+        }
+      }
+      lineStart = next;
+    }
+    return line;
+  }
+
+  /**
+   * Check the columns of one row and record the row as valid or invalid in {@code accumulator}.
+   */
+  private void checkRow(String[] fields, int segment, int line, Accumulator accumulator) {
+    if (fields[0].equals("database_id") && String.join("\t", fields).equals(headerLine)) {
+      return; // the column header
+    }
+    List<String> messages = new ArrayList<>();
+    try {
+      HpoAnnotationEntry entry = HpoAnnotationEntry.fromBigFileRow(fields[0], fields[1], fields[2], fields[3],
+              fields[4], fields[5], fields[6], fields[7], fields[8], fields[9], fields[11], ontology);
+      for (HpoaError error : entry.getErrorList()) {
+        messages.add(error.getMessageWithDisease());
+      }
+      if (messages.isEmpty()) {
+        String aspect = aspectHelper.parse(entry.getPhenotypeId()).toString();
+        if (!aspect.equals(fields[ASPECT_FIELD])) {
+          messages.add(String.format("%s - Wrong aspect \"%s\" instead of \"%s\" for %s",
+                  fields[1], fields[ASPECT_FIELD], aspect, fields[3]));
+        }
+      }
+    } catch (RuntimeException e) {
+      // e.g., a malformed term id
+      messages.add(String.format("%s - %s", fields[1], e.getMessage()));
+    }
+    if (messages.isEmpty()) {
+      accumulator.validRows++;
+    } else {
+      accumulator.invalidRows++;
+      for (String message : messages) {
+        accumulator.addError(segment, line, message);
+      }
+    }
+  }
+
+  /**
+   * The counts and errors of the segments checked by one worker thread.
+   */
+  private static class Accumulator {
+    int validRows = 0;
+    int invalidRows = 0;
+    final List<RowError> errors = new ArrayList<>();
+
+    void addError(int segment, int line, String message) {
+      errors.add(new RowError(segment, line, message));
+    }
+  }
+
+  /**
+   * An error of a row; the line number is relative to the start of the segment.
+   */
+  private static class RowError {
+    final int segment;
+    final int line;
+    final String message;
+
+    RowError(int segment, int line, String message) {
+      this.segment = segment;
+      this.line = line;
+      this.message = message;
+    }
+  }
+
+  /**
+   * The result of the Q/C of a big file.
+   */
+  public static class Result {
+    private final int lines;
+    private final int validRows;
+    private final int invalidRows;
+    private final List<String> errors;
+
+    private Result(String fileName, int[] segmentLines, Collection<Accumulator> accumulators) {
+      int[] firstLine = new int[segmentLines.length];
+      int n = 0;
+      for (int i = 0; i < segmentLines.length; i++) {
+        firstLine[i] = n;
+        n += segmentLines[i];
+      }
+      this.lines = n;
+      int valid = 0;
+      int invalid = 0;
+      List<RowError> rowErrors = new ArrayList<>();
+      for (Accumulator accumulator : accumulators) {
+        valid += accumulator.validRows;
+        invalid += accumulator.invalidRows;
+        rowErrors.addAll(accumulator.errors);
+      }
+      this.validRows = valid;
+      this.invalidRows = invalid;
+      // the errors of a segment are all in one accumulator in the order of the file; the sort is stable
+      rowErrors.sort(Comparator.comparingInt((RowError e) -> e.segment).thenComparingInt(e -> e.line));
+      this.errors = new ArrayList<>(rowErrors.size());
+      for (RowError e : rowErrors) {
+        errors.add(String.format("%s:%d: %s", fileName, firstLine[e.segment] + e.line, e.message));
+      }
+    }
+
+    /**
+     * @return number of lines of the file, including comment and header lines
+     */
+    public int getLineCount() {
+      return lines;
+    }
+
+    /**
+     * @return number of annotation rows without errors
+     */
+    public int getValidRowCount() {
+      return validRows;
+    }
+
+    /**
+     * @return number of annotation rows with at least one error
+     */
+    public int getInvalidRowCount() {
+      return invalidRows;
+    }
+
+    /**
+     * @return the errors, each of the form {@code phenotype.hpoa:LINE: DISEASE - message}, in the order of the file
+     */
+    public List<String> getErrors() {
+      return errors;
+    }
+  }
+}
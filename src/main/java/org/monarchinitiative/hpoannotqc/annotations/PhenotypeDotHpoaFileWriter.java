@@ -9,35 +9,44 @@ import org.slf4j.LoggerFactory;
 
 import java.io.BufferedWriter;
 import java.io.File;
+import java.io.FileOutputStream;
 import java.io.FileWriter;
 import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.nio.charset.Charset;
+import java.nio.file.Files;
 import java.text.SimpleDateFormat;
 import java.util.*;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
 
 /**
  * This class coordinates writing out the {@code phenotype.hpoa}, the so-called "big file", which is
- * aggregated from the ca. 7000 small files.
+ * aggregated from the ca. 7000 small files. The small files and the Orphanet diseases are streamed
+ * into the big file one disease at a time, so that we do not need to keep all annotations in memory.
+ * Because the header contains the number of diseases per database, the body is first written to a
+ * temporary file next to the big file.
  *
  * @author <a href="mailto:peter.robinson@jax.org">Peter Robinson</a>
  */
 public class PhenotypeDotHpoaFileWriter {
   private final static Logger LOGGER = LoggerFactory.getLogger(PhenotypeDotHpoaFileWriter.class);
-  /**
-   * List of all of the {@link HpoAnnotationModel} objects from our annotations (OMIM and DECIPHER).
-   */
-  private final List<HpoAnnotationModel> internalAnnotationModelList;
-  /**
-   * List of all of the {@link HpoAnnotationModel} objects derived from the Orphanet XML file.
-   */
-  private final List<HpoAnnotationModel> orphanetSmallFileList;
-
-  private final Map<TermId, Collection<HpoAnnotationEntry>> inheritanceMultiMap;
   /** tolerant mode (update obsolete term ids if possible) */
   private final boolean tolerant;
   /** Merge frequency data (e.g., 2/3 and 5/7 would be 7/10 if the same disease/HPO term hasa two annotations with
    * these frequencies.
    */
   private final boolean merge_frequency;
+  /** Number of worker threads used to ingest the small files and to parse the Orphanet diseases. */
+  private final int threads;
+  /** Cache of small files that passed Q/C in a previous run (may be null). */
+  private final HpoAnnotationFileCache smallFileCache;
 
   /**
    * Usually "phenotype.hpoa", but may also include path.
@@ -46,6 +55,8 @@ public class PhenotypeDotHpoaFileWriter {
   //private final static String EMPTY_STRING = "";
   /** Reference to human phenotype ontology object. */
   private final Ontology ontology;
+  /** Computes (and memoizes) the aspect column for all lines of the big file. */
+  private final AspectHelper aspectHelper;
   /**
    * Number of annotated Orphanet entries.
    */
@@ -56,6 +67,9 @@ public class PhenotypeDotHpoaFileWriter {
    * Number of database sources that could not be identified (should be zero!).
    */
   private int n_unknown;
+  /** Number of big file lines output from the small files and from the Orphanet XML file. */
+  private int n_internal_lines;
+  private int n_orphanet_lines;
 
   private Map<String, String> ontologyMetaInfo;
   /** The path to the directory where the small files, e.g. OMIM-600301.tab, live. */
@@ -85,13 +99,78 @@ public class PhenotypeDotHpoaFileWriter {
                                                    boolean toler,
                                                    boolean merge_fr) {
 
+    return factory(ont,
+            smallFileDirectoryPath,
+            orphaPhenotypeXMLpath,
+            orphaInheritanceXMLpath,
+            outpath,
+            toler,
+            merge_fr,
+            1);
+
+  }
+
+  /**
+   * @param ont                     reference to HPO ontology
+   * @param smallFileDirectoryPath  List of annotation models for data from the HPO small files
+   * @param orphaPhenotypeXMLpath,  path to
+   * @param orphaInheritanceXMLpath List of inheritance annotations for Orphanet data
+   * @param outpath                 path of the outfile (usually {@code phenotype.hpoa})
+   * @param toler   If true, be tolerant of errors while parsing and do not terminate
+   * @param merge_fr   Merge frequency data
+   * @param threads  Number of worker threads used to ingest the small files and to parse the Orphanet diseases
+   */
+  public static PhenotypeDotHpoaFileWriter factory(Ontology ont,
+                                                   String smallFileDirectoryPath,
+                                                   String orphaPhenotypeXMLpath,
+                                                   String orphaInheritanceXMLpath,
+                                                   String outpath,
+                                                   boolean toler,
+                                                   boolean merge_fr,
+                                                   int threads) {
+
+    return factory(ont,
+            smallFileDirectoryPath,
+            orphaPhenotypeXMLpath,
+            orphaInheritanceXMLpath,
+            outpath,
+            toler,
+            merge_fr,
+            threads,
+            null);
+
+  }
+
+  /**
+   * @param ont                     reference to HPO ontology
+   * @param smallFileDirectoryPath  List of annotation models for data from the HPO small files
+   * @param orphaPhenotypeXMLpath,  path to
+   * @param orphaInheritanceXMLpath List of inheritance annotations for Orphanet data
+   * @param outpath                 path of the outfile (usually {@code phenotype.hpoa})
+   * @param toler   If true, be tolerant of errors while parsing and do not terminate
+   * @param merge_fr   Merge frequency data
+   * @param threads  Number of worker threads used to ingest the small files and to parse the Orphanet diseases
+   * @param cache    Cache of small files that passed Q/C in a previous run, or null to check all small files
+   */
+  public static PhenotypeDotHpoaFileWriter factory(Ontology ont,
+                                                   String smallFileDirectoryPath,
+                                                   String orphaPhenotypeXMLpath,
+                                                   String orphaInheritanceXMLpath,
+                                                   String outpath,
+                                                   boolean toler,
+                                                   boolean merge_fr,
+                                                   int threads,
+                                                   HpoAnnotationFileCache cache) {
+
     return new PhenotypeDotHpoaFileWriter(ont,
             smallFileDirectoryPath,
             orphaPhenotypeXMLpath,
             orphaInheritanceXMLpath,
             outpath,
             toler,
-            merge_fr);
+            merge_fr,
+            threads,
+            cache);
 
   }
   /**
@@ -107,9 +186,12 @@ public class PhenotypeDotHpoaFileWriter {
                                      String orphaInheritanceXMLpath,
                                      String outpath,
                                      boolean toler,
-                                     boolean merge_fr) {
+                                     boolean merge_fr,
+                                     int threads,
+                                     HpoAnnotationFileCache cache) {
     Objects.requireNonNull(ont);
     this.ontology = ont;
+    this.aspectHelper = new AspectHelper(ont);
     Objects.requireNonNull(outpath);
     this.outputFileName = outpath;
     this.parseResultAndErrorSummaryLines = new ArrayList<>();
@@ -134,82 +216,11 @@ public class PhenotypeDotHpoaFileWriter {
     }
     this.tolerant = toler;
     this.merge_frequency = merge_fr;
-
-    // 1. Get list of small files
-    HpoAnnotationFileIngestor annotationFileIngestor =
-            new HpoAnnotationFileIngestor(smallFileDirectory.getAbsolutePath(), ont, this.merge_frequency);
-    this.internalAnnotationModelList = annotationFileIngestor.getHpoaFileEntries();
-    int n_omitted = annotationFileIngestor.get_omitted_entry_count();
-    int n_valid_smallfile = annotationFileIngestor.get_valid_smallfile_count();
-    String info = String.format("[INFO] ommitted small files: %d, valid small files: %d, total: %d",
-            n_omitted,n_valid_smallfile,(n_omitted+n_valid_smallfile));
-    System.out.println(info);
-    LOGGER.info(info);
-    info = String.format("[INFO] We parsed %d small files/annotation models", this.internalAnnotationModelList.size());
-    System.out.println(info);
-    LOGGER.info(info);
-    if (n_valid_smallfile > this.internalAnnotationModelList.size()) {
-      int missing = n_valid_smallfile - this.internalAnnotationModelList.size();
-      String err = String.format("[ERROR] Not all valid small files successfully parsed (%d entries missing).\n\n",missing);
-      System.err.println(err);
-      LOGGER.error(err);
-      throw new PhenolRuntimeException(err);
-    }
-    if (n_omitted>0) {
-      LOGGER.trace("{} small files were omitted.", n_omitted);
-    }
-
-    // 2. Get the Orphanet Inheritance Annotations
-    OrphanetInheritanceXMLParser inheritanceXMLParser =
-            new OrphanetInheritanceXMLParser(orphaInheritanceXMLfile.getAbsolutePath(), ontology);
-    this.inheritanceMultiMap = inheritanceXMLParser.getDisease2inheritanceMultimap();
-    if (inheritanceXMLParser.hasError()) {
-      this.parseResultAndErrorSummaryLines.addAll(inheritanceXMLParser.getErrorlist());
-    }
-    this.parseResultAndErrorSummaryLines.add(String.format("[INFO] We parsed %d Orphanet inheritance entries", inheritanceMultiMap.size()));
-
-    // 3. Get Orphanet disease models
-    OrphanetXML2HpoDiseaseModelParser orphaParser =
-            new OrphanetXML2HpoDiseaseModelParser(this.orphaPhenotypeXMLfile.getAbsolutePath(), ontology, tolerant);
-    Map<TermId,HpoAnnotationModel> prelimOrphaDiseaseMap = orphaParser.getOrphanetDiseaseMap();
-    info = String.format("[INFO] We parsed %d Orphanet disease entries", prelimOrphaDiseaseMap.size());
-    System.out.println(info);
-    LOGGER.info(info);
-    int c = 0;
-    for (TermId diseaseId : prelimOrphaDiseaseMap.keySet()) {
-      HpoAnnotationModel model = prelimOrphaDiseaseMap.get(diseaseId);
-      if (this.inheritanceMultiMap.containsKey(diseaseId)) {
-        Collection<HpoAnnotationEntry> inheritanceEntryList = this.inheritanceMultiMap.get(diseaseId);
-        HpoAnnotationModel mergedModel = model.mergeWithInheritanceAnnotations(inheritanceEntryList);
-        prelimOrphaDiseaseMap.put(diseaseId,mergedModel); // replace with model that has inheritance
-        c++;
-      }
-    }
-    info = String.format("[INFO] We added inheritance information to %d Orphanet disease entries", c);
-    LOGGER.info(info);
-    this.orphanetSmallFileList = new ArrayList<>(prelimOrphaDiseaseMap.values());
+    this.threads = threads;
+    this.smallFileCache = cache;
     setOntologyMetadata(ont.getMetaInfo());
-    setNumberOfDiseasesForHeader();
   }
 
-  /**
-   * In the header of the {@code phenotype.hpoa} file, we write the
-   * number of OMIM, Orphanet, and DECIPHER entries. This is calculated
-   * here (except for Orphanet).
-   */
-  private void setNumberOfDiseasesForHeader() {
-    this.n_decipher = 0;
-    this.n_omim = 0;
-    this.n_unknown = 0;
-    for (HpoAnnotationModel diseaseModel : internalAnnotationModelList) {
-      if (diseaseModel.isOMIM()) n_omim++;
-      else if (diseaseModel.isDECIPHER()) n_decipher++;
-      else n_unknown++;
-    }
-    this.n_orphanet = orphanetSmallFileList.size();
-  }
-
-
   private void setOntologyMetadata(Map<String, String> meta) {
     this.ontologyMetaInfo = meta;
   }
@@ -221,15 +232,45 @@ public class PhenotypeDotHpoaFileWriter {
   }
 
   /**
-   * Output the {@code phenotype.hpoa} file on the basis of the "small files" and the Orphanet XML file.
+   * Output the {@code phenotype.hpoa} file on the basis of the "small files" and the Orphanet XML file. The
+   * Orphanet inheritance file (which is small) is parsed on a separate thread while the small files and the
+   * Orphanet diseases are being parsed.
    *
    * @throws IOException if we cannot write to file.
    */
   public void outputBigFile() throws IOException {
+    File outputFile = new File(outputFileName).getAbsoluteFile();
+    File bodyFile = File.createTempFile("phenotype", ".hpoa.body", outputFile.getParentFile());
+    ExecutorService inheritanceExecutor = Executors.newSingleThreadExecutor();
+    try {
+      Future<OrphanetInheritanceXMLParser> inheritanceParser = inheritanceExecutor.submit(() ->
+              new OrphanetInheritanceXMLParser(orphaInheritanceXMLfile.getAbsolutePath(), ontology));
+      try (BufferedWriter writer = new BufferedWriter(new FileWriter(bodyFile))) {
+        outputSmallFiles(writer);
+        outputOrphanetDiseases(writer, inheritanceParser);
+      } catch (UncheckedIOException e) {
+        throw e.getCause();
+      }
+      try (OutputStream os = new FileOutputStream(outputFile)) {
+        Writer writer = new BufferedWriter(new OutputStreamWriter(os, Charset.defaultCharset()));
+        outputHeader(writer);
+        writer.flush();
+        Files.copy(bodyFile.toPath(), os);
+      }
+    } finally {
+      inheritanceExecutor.shutdownNow();
+      Files.deleteIfExists(bodyFile.toPath());
+    }
+    LOGGER.info("Total output lines was " + (n_internal_lines + n_orphanet_lines));
+    for (String line : this.parseResultAndErrorSummaryLines) {
+      LOGGER.warn(line);
+    }
+  }
+
+  private void outputHeader(Writer writer) throws IOException {
     String description = String.format("#description: \"HPO annotations for rare diseases [%d: OMIM; %d: DECIPHER; %d ORPHANET]\"", n_omim, n_decipher, n_orphanet);
     if (n_unknown > 0)
       description = String.format("%s -- warning: %d entries could not be assigned to a database", description, n_unknown);
-    BufferedWriter writer = new BufferedWriter(new FileWriter(outputFileName));
     writer.write(description + "\n");
     writer.write(String.format("#version: %s\n", getDate()));
     writer.write("#tracker: https://github.com/obophenotype/human-phenotype-ontology/issues\n");
@@ -243,14 +284,59 @@ public class PhenotypeDotHpoaFileWriter {
       }
       writer.write(String.format("#hpo-version: %s\n", ontologyMetaInfo.get("data-version")));
     }
-
-    int n = 0;
     writer.write(getHeaderLine() + "\n");
-    for (HpoAnnotationModel smallFile : this.internalAnnotationModelList) {
-      List<HpoAnnotationEntry> entryList = smallFile.getEntryList();
-      for (HpoAnnotationEntry entry : entryList) {
+  }
+
+  /**
+   * Parse the small files (OMIM and DECIPHER) and write their lines to the big file as soon as each file has been
+   * parsed. We also count the diseases per database for the header.
+   */
+  private void outputSmallFiles(BufferedWriter writer) {
+    this.n_omim = 0;
+    this.n_decipher = 0;
+    this.n_unknown = 0;
+    this.n_internal_lines = 0;
+    HpoAnnotationFileIngestor annotationFileIngestor =
+            new HpoAnnotationFileIngestor(smallFileDirectory.getAbsolutePath(),
+                    String.format("%s%s%s", smallFileDirectory.getAbsolutePath(), File.separator, "omit-list.txt"),
+                    ontology,
+                    this.merge_frequency,
+                    this.threads,
+                    this.smallFileCache,
+                    smallFile -> outputSmallFile(smallFile, writer));
+    int n_omitted = annotationFileIngestor.get_omitted_entry_count();
+    int n_valid_smallfile = annotationFileIngestor.get_valid_smallfile_count();
+    int n_parsed_smallfile = annotationFileIngestor.get_parsed_smallfile_count();
+    String info = String.format("[INFO] ommitted small files: %d, valid small files: %d, total: %d",
+            n_omitted,n_valid_smallfile,(n_omitted+n_valid_smallfile));
+    System.out.println(info);
+    LOGGER.info(info);
+    info = String.format("[INFO] We parsed %d small files/annotation models", n_parsed_smallfile);
+    System.out.println(info);
+    LOGGER.info(info);
+    if (n_valid_smallfile > n_parsed_smallfile) {
+      int missing = n_valid_smallfile - n_parsed_smallfile;
+      String err = String.format("[ERROR] Not all valid small files successfully parsed (%d entries missing).\n\n",missing);
+      System.err.println(err);
+      LOGGER.error(err);
+      throw new PhenolRuntimeException(err);
+    }
+    LOGGER.info("The small file annotations share {} distinct field values",
+            annotationFileIngestor.get_distinct_value_count());
+    if (n_omitted>0) {
+      LOGGER.trace("{} small files were omitted.", n_omitted);
+    }
+    LOGGER.info("[INFO] We output a total of " + n_internal_lines + " big file lines from internal HPO Annotation files");
+  }
+
+  private void outputSmallFile(HpoAnnotationModel smallFile, BufferedWriter writer) {
+    if (smallFile.isOMIM()) n_omim++;
+    else if (smallFile.isDECIPHER()) n_decipher++;
+    else n_unknown++;
+    try {
+      for (HpoAnnotationEntry entry : smallFile.getEntryList()) {
         if (! entry.hasError()) {
-          String bigfileLine = entry.toBigFileLine(ontology);
+          String bigfileLine = entry.toBigFileLine(aspectHelper);
           writer.write(bigfileLine + "\n");
         } else {
           String err = String.format("[ERROR] with entry (%s) skipping line: %s",
@@ -259,14 +345,70 @@ public class PhenotypeDotHpoaFileWriter {
           System.err.println(err);
           LOGGER.error(err);
         }
-        n++;
+        n_internal_lines++;
+      }
+    } catch (IOException e) {
+      throw new UncheckedIOException(e);
+    }
+  }
+
+  /**
+   * Parse the Orphanet XML file and write the lines of each disease (together with its Orphanet inheritance
+   * annotations) to the big file as soon as the disease has been parsed. The diseases are output in the order
+   * of the XML file. The inheritance annotations are joined into the diseases by the Orphanet parser; we only wait
+   * for the inheritance file to be parsed when the first disease needs its annotations.
+   */
+  private void outputOrphanetDiseases(BufferedWriter writer, Future<OrphanetInheritanceXMLParser> inheritanceParser) {
+    this.n_orphanet = 0;
+    this.n_orphanet_lines = 0;
+    AtomicInteger n_with_inheritance = new AtomicInteger();
+    new OrphanetXML2HpoDiseaseModelParser(this.orphaPhenotypeXMLfile.getAbsolutePath(), ontology, tolerant,
+            model -> outputOrphanetDisease(model, writer),
+            threads,
+            diseaseId -> {
+              Collection<HpoAnnotationEntry> inheritanceEntries =
+                      awaitInheritance(inheritanceParser).getDisease2inheritanceMultimap().get(diseaseId);
+              if (inheritanceEntries != null) {
+                n_with_inheritance.incrementAndGet();
+              }
+              return inheritanceEntries;
+            });
+    OrphanetInheritanceXMLParser inheritanceXMLParser = awaitInheritance(inheritanceParser);
+    if (inheritanceXMLParser.hasError()) {
+      this.parseResultAndErrorSummaryLines.addAll(inheritanceXMLParser.getErrorlist());
+    }
+    this.parseResultAndErrorSummaryLines.add(String.format("[INFO] We parsed %d Orphanet inheritance entries",
+            inheritanceXMLParser.getDisease2inheritanceMultimap().size()));
+    String info = String.format("[INFO] We parsed %d Orphanet disease entries", n_orphanet);
+    System.out.println(info);
+    LOGGER.info(info);
+    info = String.format("[INFO] We added inheritance information to %d Orphanet disease entries", n_with_inheritance.get());
+    LOGGER.info(info);
+    LOGGER.info("We output a total of " + n_orphanet_lines + " big file lines from the Orphanet Annotation files");
+  }
+
+  /**
+   * @return the Orphanet inheritance parser, once it has finished parsing
+   */
+  private static OrphanetInheritanceXMLParser awaitInheritance(Future<OrphanetInheritanceXMLParser> inheritanceParser) {
+    try {
+      return inheritanceParser.get();
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      throw new PhenolRuntimeException("Interrupted while parsing the Orphanet inheritance file");
+    } catch (ExecutionException e) {
+      Throwable cause = e.getCause();
+      if (cause instanceof RuntimeException) {
+        throw (RuntimeException) cause;
       }
+      throw new PhenolRuntimeException(cause);
     }
-    LOGGER.info("[INFO] We output a total of " + n + " big file lines from internal HPO Annotation files");
-    int m = 0;
-    for (HpoAnnotationModel smallFile : this.orphanetSmallFileList) {
-      List<HpoAnnotationEntry> entryList = smallFile.getEntryList();
-      for (HpoAnnotationEntry entry : entryList) {
+  }
+
+  private void outputOrphanetDisease(HpoAnnotationModel smallFile, BufferedWriter writer) {
+    n_orphanet++;
+    try {
+      for (HpoAnnotationEntry entry : smallFile.getEntryList()) {
         if (entry.hasError()) {
           String err = String.format("[ERROR] with entry (%s): %s",
                   entry.getErrorList().get(0).getMessageWithDisease(),
@@ -280,21 +422,17 @@ public class PhenotypeDotHpoaFileWriter {
           }
         }
         try {
-          String bigfileLine = entry.toBigFileLine(ontology);
+          String bigfileLine = entry.toBigFileLine(aspectHelper);
           writer.write(bigfileLine + "\n");
         } catch (HpoAnnotQcException e) {
           LOGGER.error(e.getMessage());
           System.err.println(e.getMessage());
         }
-        m++;
+        n_orphanet_lines++;
       }
+    } catch (IOException e) {
+      throw new UncheckedIOException(e);
     }
-    LOGGER.info("We output a total of " + m + " big file lines from the Orphanet Annotation files");
-    LOGGER.info("Total output lines was " + (n + m));
-    for (String line : this.parseResultAndErrorSummaryLines) {
-      LOGGER.warn(line);
-    }
-    writer.close();
   }
 
   /**
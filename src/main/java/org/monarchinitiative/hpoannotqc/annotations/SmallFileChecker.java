@@ -0,0 +1,111 @@
+package org.monarchinitiative.hpoannotqc.annotations;
+
+import org.monarchinitiative.hpoannotqc.annotations.hpoaerror.HpoaError;
+import org.monarchinitiative.hpoannotqc.exception.HpoAnnotQcException;
+import org.monarchinitiative.phenol.ontology.data.Ontology;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Checks the contents of a single HPO Annotation file ("small file") line by line, with the same Q/C as
+ * {@link HpoAnnotationFileParser} and {@link HpoAnnotationEntry#fromLine}. Unlike the parser, it does not stop at
+ * the first malformed line, and it reports each problem with its line number, so that the results can be shown in
+ * an editor. This class is safe to use from several threads.
+ */
+public class SmallFileChecker {
+
+  private final Ontology ontology;
+
+  /**
+   * @param ontology reference to HPO ontology
+   */
+  public SmallFileChecker(Ontology ontology) {
+    this.ontology = ontology;
+  }
+
+  /**
+   * @return the ontology that the small files are checked against
+   */
+  public Ontology getOntology() {
+    return ontology;
+  }
+
+  /**
+   * @param content the contents of a small file, starting with the header line
+   * @return the problems of the file (empty if the file is valid), in the order of the lines
+   */
+  public List<LineError> check(String content) {
+    List<LineError> errors = new ArrayList<>();
+    String[] lines = content.split("\r?\n");
+    if (lines.length == 0 || lines[0].isEmpty()) {
+      errors.add(new LineError(1, "", "Missing header line", false));
+      return errors;
+    }
+    try {
+      HpoAnnotationFileParser.qcHeaderLine(lines[0]);
+    } catch (HpoAnnotQcException e) {
+      errors.add(new LineError(1, "", e.getMessage(), false));
+    }
+    for (int i = 1; i < lines.length; i++) {
+      int lineNumber = i + 1;
+      try {
+        HpoAnnotationEntry entry = HpoAnnotationEntry.fromLine(lines[i], ontology);
+        for (HpoaError error : entry.getErrorList()) {
+          errors.add(new LineError(lineNumber, error.getDisease(), error.getMessage(), error.skippable()));
+        }
+      } catch (RuntimeException e) {
+        // e.g., the wrong number of fields or a malformed term id
+        errors.add(new LineError(lineNumber, "", e.getMessage(), false));
+      }
+    }
+    return errors;
+  }
+
+  /**
+   * A problem of one line of a small file.
+   */
+  public static class LineError {
+    private final int line;
+    private final String disease;
+    private final String message;
+    private final boolean skippable;
+
+    LineError(int line, String disease, String message, boolean skippable) {
+      this.line = line;
+      this.disease = disease;
+      this.message = message;
+      this.skippable = skippable;
+    }
+
+    /**
+     * @return line number (1 is the header line)
+     */
+    public int getLine() {
+      return line;
+    }
+
+    /**
+     * @return name of the disease of the line, or the empty string if the line could not be parsed
+     */
+    public String getDisease() {
+      return disease;
+    }
+
+    public String getMessage() {
+      return message;
+    }
+
+    /**
+     * @return true if the problem does not prevent the line from being used (see {@link HpoaError#skippable()})
+     */
+    public boolean isSkippable() {
+      return skippable;
+    }
+
+    @Override
+    public String toString() {
+      return disease.isEmpty() ? line + ": " + message : line + ": " + disease + " - " + message;
+    }
+  }
+}
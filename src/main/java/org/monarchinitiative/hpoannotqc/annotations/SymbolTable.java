@@ -0,0 +1,164 @@
+package org.monarchinitiative.hpoannotqc.annotations;
+
+import org.monarchinitiative.phenol.ontology.data.TermId;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Canonical instances and integer codes for the values of annotation fields that repeat across many lines, such as
+ * disease names, term ids and labels, and evidence codes. {@link AnnotationTable} stores the codes, so that the
+ * ~270,000 lines of a run share one String (or {@link TermId}) per distinct value instead of holding a copy per line,
+ * and the entries of its view are created with the canonical instances.
+ * <p>
+ * The table is seeded with the literal constants that the Q/C and merge code compares against (e.g., "NOT", "PCS").
+ * Literals are interned by the JVM, so {@link String#equals(Object)} of a canonical value and such a literal
+ * returns at its identity check without comparing the characters. Equal canonical values are also identical, and
+ * equal values have equal codes.
+ * </p>
+ * <p>
+ * Values are never removed, so a table belongs to one run (e.g., to the {@link HpoAnnotationFileIngestor} of a
+ * {@code big-file} run) and is dropped with it. It is safe to use from several threads.
+ * </p>
+ */
+final class SymbolTable {
+
+  /** Code of a null value. */
+  static final int NULL_CODE = -1;
+
+  private static final String EMPTY_STRING = "";
+  /** Values that are compared against literals in the Q/C and merge code. */
+  private static final List<String> CONSTANTS = List.of(EMPTY_STRING, "NOT", "MALE", "FEMALE", "IEA", "TAS", "PCS");
+
+  private final Dictionary<String> strings = new Dictionary<>();
+
+  private final Dictionary<TermId> termIds = new Dictionary<>();
+  /** Key: the text of a frequency column; value: the decoded frequency. */
+  private final ConcurrentHashMap<String, Frequency> frequencies = new ConcurrentHashMap<>();
+
+  SymbolTable() {
+    for (String constant : CONSTANTS) {
+      strings.code(constant);
+    }
+  }
+
+  /**
+   * @param value a field value (may be null)
+   * @return the canonical instance of {@code value}, or null if {@code value} is null
+   */
+  String canonical(String value) {
+    return value == null ? null : strings.value(strings.code(value));
+  }
+
+  /**
+   * @param termId a term id (may be null)
+   * @return the canonical instance of {@code termId}, or null if {@code termId} is null
+   */
+  TermId canonical(TermId termId) {
+    return termId == null ? null : termIds.value(termIds.code(termId));
+  }
+
+  /**
+   * @param value a field value (may be null)
+   * @return the code of {@code value} ({@link #NULL_CODE} if {@code value} is null)
+   */
+  int code(String value) {
+    return value == null ? NULL_CODE : strings.code(value);
+  }
+
+  /**
+   * @param code a code returned by {@link #code(String)}
+   * @return the canonical instance of the value with this code
+   */
+  String string(int code) {
+    return code == NULL_CODE ? null : strings.value(code);
+  }
+
+  /**
+   * @param termId a term id (may be null)
+   * @return the code of {@code termId} ({@link #NULL_CODE} if {@code termId} is null)
+   */
+  int code(TermId termId) {
+    return termId == null ? NULL_CODE : termIds.code(termId);
+  }
+
+  /**
+   * @param code a code returned by {@link #code(TermId)}
+   * @return the canonical instance of the term id with this code
+   */
+  TermId termId(int code) {
+    return code == NULL_CODE ? null : termIds.value(code);
+  }
+
+  /**
+   * @param value the text of a frequency column (may be null)
+   * @return the decoded frequency, which is shared by all lines of the run with this frequency
+   */
+  Frequency frequency(String value) {
+    if (value == null || value.isEmpty()) {
+      return Frequency.of(value);
+    }
+    Frequency frequency = frequencies.get(value);
+    return frequency != null ? frequency : frequencies.computeIfAbsent(value, Frequency::of);
+  }
+
+  /**
+   * @return number of distinct values (Strings and term ids) in the table
+   */
+  int size() {
+    return strings.size() + termIds.size();
+  }
+
+  /**
+   * Assigns consecutive codes to distinct values. Looking up the code of a known value does not lock; new values
+   * are added under the lock of the dictionary. The values are kept in chunks that are never moved, so a code that
+   * was obtained from {@link #code(Object)} (or from an object that was safely published after the code was
+   * assigned) can be resolved without locking.
+   */
+  private static final class Dictionary<T> {
+    private static final int CHUNK_BITS = 12;
+    private static final int CHUNK_SIZE = 1 << CHUNK_BITS;
+    private static final int CHUNK_MASK = CHUNK_SIZE - 1;
+
+    private final ConcurrentHashMap<T, Integer> codes = new ConcurrentHashMap<>();
+    /** The values by code; the value is stored in its chunk before its code is published in {@link #codes}. */
+    private volatile Object[][] chunks = new Object[16][];
+    private int size = 0;
+
+    int code(T value) {
+      Integer code = codes.get(value);
+      return code != null ? code : add(value);
+    }
+
+    private synchronized int add(T value) {
+      Integer existing = codes.get(value);
+      if (existing != null) {
+        return existing;
+      }
+      int code = size;
+      Object[][] current = chunks;
+      int chunk = code >>> CHUNK_BITS;
+      if (chunk == current.length) {
+        current = Arrays.copyOf(current, 2 * current.length);
+      }
+      if (current[chunk] == null) {
+        current[chunk] = new Object[CHUNK_SIZE];
+      }
+      current[chunk][code & CHUNK_MASK] = value;
+      chunks = current;
+      size++;
+      codes.put(value, code);
+      return code;
+    }
+
+    @SuppressWarnings("unchecked")
+    T value(int code) {
+      return (T) chunks[code >>> CHUNK_BITS][code & CHUNK_MASK];
+    }
+
+    synchronized int size() {
+      return size;
+    }
+  }
+}
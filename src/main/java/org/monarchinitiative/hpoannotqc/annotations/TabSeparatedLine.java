@@ -0,0 +1,73 @@
+package org.monarchinitiative.hpoannotqc.annotations;
+
+/**
+ * A light-weight view of the tab-separated fields of one line. The offsets of the tabs are found in a single
+ * pass over the line, without a regular expression and without creating an intermediate array of Strings.
+ * The String for a field is only created when it is requested with {@link #field(int)}.
+ * <p>
+ * The number of fields returned by {@link #fieldCount()} is the same as the length of the array returned by
+ * {@code line.split("\t")}, i.e., trailing empty fields are not counted. This allows us to keep the same
+ * Q/C for the number of fields of a line.
+ * </p>
+ */
+final class TabSeparatedLine {
+
+  private static final char TAB = '\t';
+
+  private final String line;
+  /** End offsets (exclusive) of the first {@code ends.length} fields. */
+  private final int[] ends;
+  /** Number of fields, counted as {@link String#split(String)} would. */
+  private final int fieldCount;
+
+  /**
+   * @param line           a line with tab-separated fields
+   * @param expectedFields the number of fields whose offsets are retained (further fields are only counted)
+   */
+  TabSeparatedLine(String line, int expectedFields) {
+    this.line = line;
+    this.ends = new int[expectedFields];
+    int len = line.length();
+    int start = 0;
+    int n = 0;
+    int nonEmptyPrefix = 0; // number of fields up to and including the last non-empty field
+    while (true) {
+      int end = line.indexOf(TAB, start);
+      if (end < 0) {
+        end = len;
+      }
+      if (n < expectedFields) {
+        ends[n] = end;
+      }
+      n++;
+      if (end > start) {
+        nonEmptyPrefix = n;
+      }
+      if (end == len) {
+        break;
+      }
+      start = end + 1;
+    }
+    // String#split returns the original line if there is no tab at all, otherwise it drops trailing empty fields
+    this.fieldCount = n == 1 ? 1 : nonEmptyPrefix;
+  }
+
+  /**
+   * @return number of tab-separated fields (without trailing empty fields)
+   */
+  int fieldCount() {
+    return fieldCount;
+  }
+
+  /**
+   * @param i index of a field (must be smaller than both {@link #fieldCount()} and the number of expected fields)
+   * @return the contents of field {@code i}
+   */
+  String field(int i) {
+    if (i >= fieldCount || i >= ends.length) {
+      throw new IndexOutOfBoundsException("Field " + i + " out of bounds for " + fieldCount + " fields");
+    }
+    int start = i == 0 ? 0 : ends[i - 1] + 1;
+    return line.substring(start, ends[i]);
+  }
+}
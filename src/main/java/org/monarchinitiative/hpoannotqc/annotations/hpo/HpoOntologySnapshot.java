@@ -0,0 +1,298 @@
+package org.monarchinitiative.hpoannotqc.annotations.hpo;
+
+import org.monarchinitiative.phenol.base.PhenolRuntimeException;
+import org.monarchinitiative.phenol.graph.OntologyGraph;
+import org.monarchinitiative.phenol.io.OntologyLoader;
+import org.monarchinitiative.phenol.ontology.data.ImmutableOntology;
+import org.monarchinitiative.phenol.ontology.data.Ontology;
+import org.monarchinitiative.phenol.ontology.data.Relationship;
+import org.monarchinitiative.phenol.ontology.data.RelationshipType;
+import org.monarchinitiative.phenol.ontology.data.Term;
+import org.monarchinitiative.phenol.ontology.data.TermId;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * A compact binary snapshot of the HPO that can be loaded much faster than {@code hp.json}. Loading
+ * {@code hp.json} means parsing a large JSON document and building the ontology graph, which dominates the run time
+ * of short runs of the {@code qc} command. The snapshot is written next to {@code hp.json} (e.g.,
+ * {@code data/hp.snapshot}) by the {@code snapshot} command and contains the meta information, the term ids, labels,
+ * obsolete flags and alt_ids of the terms, the is-a edges, and the members of each {@link HpoSubOntology}. It also
+ * records the SHA-256 digest of the {@code hp.json} file it was created from; {@link #loadOntology(File)} only uses
+ * the snapshot if the digest still matches and otherwise loads {@code hp.json}.
+ * <p>
+ * Note that the ontology loaded from the snapshot does not contain the definitions, synonyms, and cross-references
+ * of the terms, which are not used by this application.
+ * </p>
+ */
+public class HpoOntologySnapshot {
+  private static final Logger LOGGER = LoggerFactory.getLogger(HpoOntologySnapshot.class);
+  /** The bytes "HPOS" at the start of each snapshot file. */
+  private static final int MAGIC = 0x48504f53;
+  /** Increment whenever the layout of the snapshot changes. */
+  private static final int FORMAT_VERSION = 1;
+
+  private static final char[] HEX = "0123456789abcdef".toCharArray();
+
+  private HpoOntologySnapshot() {
+  }
+
+  /**
+   * @param hpJson path to {@code hp.json}
+   * @return path of the corresponding snapshot, e.g., {@code data/hp.snapshot} for {@code data/hp.json}
+   */
+  public static Path snapshotPath(Path hpJson) {
+    String name = hpJson.getFileName().toString();
+    if (name.endsWith(".json")) {
+      name = name.substring(0, name.length() - ".json".length());
+    }
+    return hpJson.resolveSibling(name + ".snapshot");
+  }
+
+  /**
+   * Load the HPO from the snapshot next to {@code hpJson} if it exists and was created from the current
+   * {@code hp.json}; otherwise load {@code hpJson} with phenol's {@link OntologyLoader}.
+   *
+   * @param hpJson path to {@code hp.json}
+   * @return reference to the HPO
+   */
+  public static Ontology loadOntology(File hpJson) {
+    Path snapshot = snapshotPath(hpJson.toPath());
+    if (Files.isRegularFile(snapshot)) {
+      try {
+        Ontology ontology = read(snapshot, digest(hpJson.toPath()));
+        if (ontology != null) {
+          LOGGER.info("Loaded HPO from snapshot {}", snapshot);
+          return ontology;
+        }
+        LOGGER.info("Ignoring snapshot {} because it was not created from the current {}", snapshot, hpJson);
+      } catch (IOException | RuntimeException e) {
+        LOGGER.warn("Could not read snapshot {}: {}", snapshot, e.getMessage());
+      }
+    }
+    return OntologyLoader.loadOntology(hpJson);
+  }
+
+  /**
+   * Load {@code hpJson} and write the snapshot next to it.
+   *
+   * @param hpJson path to {@code hp.json}
+   * @return path of the snapshot
+   * @throws IOException if the snapshot cannot be written
+   */
+  public static Path createSnapshot(File hpJson) throws IOException {
+    Ontology ontology = OntologyLoader.loadOntology(hpJson);
+    Path snapshot = snapshotPath(hpJson.toPath());
+    write(ontology, digest(hpJson.toPath()), snapshot);
+    return snapshot;
+  }
+
+  /**
+   * Write the snapshot to a temporary file first, so that a concurrent run never sees a partial snapshot.
+   */
+  static void write(Ontology ontology, String sourceDigest, Path snapshot) throws IOException {
+    // We want each term only once, even if the ontology lists it once for each of its alt_ids.
+    Map<TermId, Term> terms = new LinkedHashMap<>();
+    for (Term term : ontology.getTerms()) {
+      terms.putIfAbsent(term.id(), term);
+    }
+    // The obsolete terms are not among the terms, we only keep their ids.
+    for (TermId tid : ontology.obsoleteTermIds()) {
+      terms.putIfAbsent(tid, Term.builder(tid).name("").obsolete(true).build());
+    }
+    Map<TermId, Integer> tableIndex = new HashMap<>();
+    for (TermId tid : terms.keySet()) {
+      tableIndex.put(tid, tableIndex.size());
+    }
+    // The graph has exactly the is_a relationships; they are numbered in the order of the graph.
+    List<Relationship> isA = new ArrayList<>();
+    OntologyGraph<TermId> graph = ontology.graph();
+    for (TermId tid : graph) {
+      for (TermId parent : graph.getParents(tid)) {
+        isA.add(new Relationship(tid, parent, isA.size() + 1, RelationshipType.IS_A));
+      }
+    }
+    Path tmp = snapshot.resolveSibling(snapshot.getFileName() + ".tmp");
+    try {
+      try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(tmp)))) {
+        out.writeInt(MAGIC);
+        out.writeInt(FORMAT_VERSION);
+        out.writeUTF(sourceDigest);
+        Map<String, String> meta = ontology.getMetaInfo();
+        out.writeInt(meta.size());
+        for (Map.Entry<String, String> e : meta.entrySet()) {
+          out.writeUTF(e.getKey());
+          out.writeUTF(e.getValue());
+        }
+        out.writeInt(terms.size());
+        for (Term term : terms.values()) {
+          out.writeUTF(term.id().getValue());
+          out.writeUTF(term.getName() != null ? term.getName() : "");
+          out.writeBoolean(term.isObsolete());
+          out.writeInt(term.getAltTermIds().size());
+          for (TermId alt : term.getAltTermIds()) {
+            out.writeUTF(alt.getValue());
+          }
+        }
+        out.writeInt(isA.size());
+        for (Relationship relationship : isA) {
+          out.writeInt(indexOf(tableIndex, relationship.getSource()));
+          out.writeInt(indexOf(tableIndex, relationship.getTarget()));
+          out.writeInt(relationship.getId());
+        }
+        HpoSubOntologyIndex subOntologyIndex = HpoSubOntologyIndex.of(ontology);
+        out.writeInt(HpoSubOntology.values().length);
+        for (HpoSubOntology subOntology : HpoSubOntology.values()) {
+          List<Integer> members = new ArrayList<>();
+          for (TermId tid : graph) {
+            if (subOntologyIndex.isMember(tid, subOntology)) {
+              members.add(indexOf(tableIndex, tid));
+            }
+          }
+          out.writeUTF(subOntology.name());
+          out.writeInt(members.size());
+          for (int member : members) {
+            out.writeInt(member);
+          }
+        }
+      }
+      Files.move(tmp, snapshot, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    } finally {
+      Files.deleteIfExists(tmp);
+    }
+  }
+
+  private static int indexOf(Map<TermId, Integer> tableIndex, TermId tid) {
+    Integer i = tableIndex.get(tid);
+    if (i == null) {
+      throw new PhenolRuntimeException("Could not create snapshot, " + tid + " is not a term of the ontology");
+    }
+    return i;
+  }
+
+  /**
+   * @return the ontology, or null if the snapshot was created from a different {@code hp.json} or with a
+   * different snapshot format
+   */
+  static Ontology read(Path snapshot, String sourceDigest) throws IOException {
+    try (DataInputStream in = new DataInputStream(new BufferedInputStream(Files.newInputStream(snapshot)))) {
+      if (in.readInt() != MAGIC || in.readInt() != FORMAT_VERSION || !in.readUTF().equals(sourceDigest)) {
+        return null;
+      }
+      int n = in.readInt();
+      Map<String, String> meta = new LinkedHashMap<>();
+      for (int i = 0; i < n; i++) {
+        meta.put(in.readUTF(), in.readUTF());
+      }
+      n = in.readInt();
+      TermId[] termIds = new TermId[n];
+      List<Term> terms = new ArrayList<>(n);
+      for (int i = 0; i < n; i++) {
+        termIds[i] = TermId.of(in.readUTF());
+        String name = in.readUTF();
+        boolean obsolete = in.readBoolean();
+        int nAlt = in.readInt();
+        List<TermId> altIds = new ArrayList<>(nAlt);
+        for (int j = 0; j < nAlt; j++) {
+          altIds.add(TermId.of(in.readUTF()));
+        }
+        terms.add(Term.builder(termIds[i]).name(name).obsolete(obsolete).altTermIds(altIds).build());
+      }
+      n = in.readInt();
+      List<Relationship> relationships = new ArrayList<>(n);
+      for (int i = 0; i < n; i++) {
+        TermId source = termIds[in.readInt()];
+        TermId target = termIds[in.readInt()];
+        relationships.add(new Relationship(source, target, in.readInt(), RelationshipType.IS_A));
+      }
+      Ontology ontology = ImmutableOntology.builder()
+        .metaInfo(meta)
+        .terms(terms)
+        .relationships(relationships)
+        .build();
+
+      OntologyGraph<TermId> graph = ontology.graph();
+      Map<TermId, Integer> termIndex = new HashMap<>();
+      for (TermId tid : graph) {
+        termIndex.put(tid, termIndex.size());
+      }
+      HpoSubOntology[] subOntologies = HpoSubOntology.values();
+      if (in.readInt() != subOntologies.length) {
+        return null;
+      }
+      BitSet[] members = new BitSet[subOntologies.length];
+      for (HpoSubOntology subOntology : subOntologies) {
+        if (!in.readUTF().equals(subOntology.name())) {
+          return null;
+        }
+        BitSet bits = new BitSet(termIndex.size());
+        n = in.readInt();
+        for (int i = 0; i < n; i++) {
+          bits.set(termIndex.get(termIds[in.readInt()]));
+        }
+        members[subOntology.ordinal()] = bits;
+      }
+      HpoSubOntologyIndex.register(new HpoSubOntologyIndex(ontology, termIndex, members));
+      return ontology;
+    }
+  }
+
+  /**
+   * @return the SHA-256 digest of the file as a hex string
+   */
+  public static String digest(Path file) throws IOException {
+    MessageDigest md = sha256();
+    byte[] buffer = new byte[1 << 16];
+    try (InputStream is = Files.newInputStream(file)) {
+      int n;
+      while ((n = is.read(buffer)) > 0) {
+        md.update(buffer, 0, n);
+      }
+    }
+    return hex(md.digest());
+  }
+
+  /**
+   * @return the SHA-256 digest of the contents as a hex string, e.g., of a small file that was already read
+   */
+  public static String digest(byte[] content) {
+    return hex(sha256().digest(content));
+  }
+
+  private static MessageDigest sha256() {
+    try {
+      return MessageDigest.getInstance("SHA-256");
+    } catch (NoSuchAlgorithmException e) {
+      // every Java platform is required to support SHA-256
+      throw new PhenolRuntimeException(e);
+    }
+  }
+
+  private static String hex(byte[] hash) {
+    char[] chars = new char[2 * hash.length];
+    for (int i = 0; i < hash.length; i++) {
+      chars[2 * i] = HEX[(hash[i] >> 4) & 0xF];
+      chars[2 * i + 1] = HEX[hash[i] & 0xF];
+    }
+    return new String(chars);
+  }
+}
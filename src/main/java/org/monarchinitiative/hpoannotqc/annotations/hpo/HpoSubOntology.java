@@ -0,0 +1,43 @@
+package org.monarchinitiative.hpoannotqc.annotations.hpo;
+
+import org.monarchinitiative.phenol.ontology.data.TermId;
+
+/**
+ * The sub-ontologies of the HPO that we need to check membership of for Q/C and for the aspect column
+ * of the big file. Each sub-ontology is identified by its root term.
+ */
+public enum HpoSubOntology {
+  /** Phenotypic abnormality (HP:0000118). */
+  PHENOTYPIC_ABNORMALITY(TermId.of("HP:0000118")),
+  /** Mode of inheritance (HP:0000005). */
+  INHERITANCE(TermId.of("HP:0000005")),
+  /** Inheritance modifier (HP:0034335). */
+  INHERITANCE_MODIFIER(TermId.of("HP:0034335")),
+  /** Clinical course (HP:0031797). */
+  CLINICAL_COURSE(TermId.of("HP:0031797")),
+  /** Onset (HP:0003674). */
+  ONSET(TermId.of("HP:0003674")),
+  /** Pace of progression (HP:0003679). */
+  PACE_OF_PROGRESSION(TermId.of("HP:0003679")),
+  /** Temporal pattern (HP:0011008). */
+  TEMPORAL_PATTERN(TermId.of("HP:0011008")),
+  /** Clinical modifier (HP:0012823). */
+  CLINICAL_MODIFIER(TermId.of("HP:0012823")),
+  /** Frequency (HP:0040279). */
+  FREQUENCY(HpoFrequencyTermIds.FREQUENCY),
+  /** Past medical history (HP:0032443). */
+  PAST_MEDICAL_HISTORY(TermId.of("HP:0032443"));
+
+  private final TermId root;
+
+  HpoSubOntology(TermId root) {
+    this.root = root;
+  }
+
+  /**
+   * @return the root term of this sub-ontology.
+   */
+  public TermId root() {
+    return root;
+  }
+}
@@ -0,0 +1,112 @@
+package org.monarchinitiative.hpoannotqc.annotations.hpo;
+
+import org.monarchinitiative.phenol.graph.NodeNotPresentInGraphException;
+import org.monarchinitiative.phenol.graph.OntologyGraph;
+import org.monarchinitiative.phenol.ontology.data.Ontology;
+import org.monarchinitiative.phenol.ontology.data.TermId;
+
+import java.util.BitSet;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Precomputed membership of the terms of the HPO in each {@link HpoSubOntology}. The Q/C code needs to know
+ * for every annotation line whether a term belongs to the onset, frequency, modifier (etc.) sub-ontologies.
+ * Answering this with {@code ontology.graph().existsPath(tid, root)} walks the ancestors of the term each time.
+ * Instead, we assign each term of the graph a dense integer index and store one {@link BitSet} per sub-ontology,
+ * so that each check becomes a map lookup plus a bit test.
+ * <p>
+ * Membership has the same semantics as {@code existsPath(tid, root)}: a term is a member of a sub-ontology
+ * if the root is a proper ancestor of the term (the root itself is not a member).
+ * </p>
+ */
+public class HpoSubOntologyIndex {
+  /** The most recently built index. All commands use a single ontology at a time, so we keep only one. */
+  private static volatile HpoSubOntologyIndex cachedIndex = null;
+  /** The ontology this index was built from. */
+  private final Ontology ontology;
+  /** Key: a TermId of the ontology graph; value: the index of the term in the bit sets of {@link #members}. */
+  private final Map<TermId, Integer> termIndex;
+  /** One bit set per {@link HpoSubOntology} (indexed by ordinal) with the bits of the member terms set. */
+  private final BitSet[] members;
+
+  private HpoSubOntologyIndex(Ontology ontology) {
+    this.ontology = ontology;
+    OntologyGraph<TermId> graph = ontology.graph();
+    this.termIndex = new HashMap<>();
+    for (TermId tid : graph) {
+      termIndex.put(tid, termIndex.size());
+    }
+    HpoSubOntology[] subOntologies = HpoSubOntology.values();
+    this.members = new BitSet[subOntologies.length];
+    for (HpoSubOntology subOntology : subOntologies) {
+      BitSet bits = new BitSet(termIndex.size());
+      if (termIndex.containsKey(subOntology.root())) {
+        for (TermId descendant : graph.getDescendants(subOntology.root())) {
+          bits.set(termIndex.get(descendant));
+        }
+      }
+      members[subOntology.ordinal()] = bits;
+    }
+  }
+
+  /**
+   * Create an index from precomputed members, e.g., from an {@link HpoOntologySnapshot}.
+   *
+   * @param ontology  the ontology the members were computed for
+   * @param termIndex key: a TermId of the ontology graph; value: the index of the term in the bit sets
+   * @param members   one bit set per {@link HpoSubOntology} (indexed by ordinal)
+   */
+  HpoSubOntologyIndex(Ontology ontology, Map<TermId, Integer> termIndex, BitSet[] members) {
+    this.ontology = ontology;
+    this.termIndex = termIndex;
+    this.members = members;
+  }
+
+  /**
+   * Make {@code index} the index that is returned by {@link #of(Ontology)} for its ontology.
+   */
+  static void register(HpoSubOntologyIndex index) {
+    synchronized (HpoSubOntologyIndex.class) {
+      cachedIndex = index;
+    }
+  }
+
+  /**
+   * Get the index for an ontology. The index is built the first time this method is called for a given
+   * ontology object and is reused afterwards. This method is safe to call from several threads.
+   *
+   * @param ontology reference to the HPO
+   * @return the sub-ontology index of {@code ontology}
+   */
+  public static HpoSubOntologyIndex of(Ontology ontology) {
+    HpoSubOntologyIndex index = cachedIndex;
+    if (index != null && index.ontology == ontology) {
+      return index;
+    }
+    synchronized (HpoSubOntologyIndex.class) {
+      index = cachedIndex;
+      if (index == null || index.ontology != ontology) {
+        index = new HpoSubOntologyIndex(ontology);
+        cachedIndex = index;
+      }
+      return index;
+    }
+  }
+
+  /**
+   * @param tid         TermId of an HPO term
+   * @param subOntology one of the HPO sub-ontologies
+   * @return true if {@code tid} is a (proper) descendant of the root of {@code subOntology}
+   * @throws NodeNotPresentInGraphException if {@code tid} is not a term of the graph (e.g., an alt_id), as with
+   *                                        {@code existsPath}
+   */
+  public boolean isMember(TermId tid, HpoSubOntology subOntology) {
+    Integer i = termIndex.get(tid);
+    if (i == null) {
+      throw new NodeNotPresentInGraphException("Item not found in the graph: " + tid);
+    }
+    return members[subOntology.ordinal()].get(i);
+  }
+
+}
@@ -1,4 +1,4 @@
 /**
- * The package contains top-level terms from Human Phenotype Ontology.
+ * The package contains top-level terms and the sub-ontologies of the Human Phenotype Ontology.
  */
 package org.monarchinitiative.hpoannotqc.annotations.hpo;
@@ -5,23 +5,14 @@ package org.monarchinitiative.hpoannotqc.annotations.hpoaerror;
  * Exceptions of this class are thrown for serious errors in the model, e.g., wrong header
  * @author Peter Robinson
  */
-public class HpoAnnotationModelError implements HpoaError {
-  private final String disease;
+public class HpoAnnotationModelError extends HpoaErrorAbstract {
 
-  private final String message;
     public HpoAnnotationModelError(String disease, String msg) {
-      this.disease = disease;
-      this.message = msg;
+      super(disease, msg);
     }
 
-  @Override
-  public String getDisease() {
-    return disease;
-  }
-
-  @Override
-  public String getMessage() {
-    return message;
-  }
+    public HpoAnnotationModelError(String disease, String format, Object... args) {
+      super(disease, format, args);
+    }
 
 }
@@ -0,0 +1,46 @@
+package org.monarchinitiative.hpoannotqc.annotations.hpoaerror;
+
+/**
+ * Common base of the errors whose message is a {@link String#format(String, Object...)} template with arguments.
+ * The message is only formatted when {@link #getMessage()} is called, i.e., when the error is reported; most
+ * errors of the Orphanet data are counted or skipped and never printed.
+ */
+public abstract class HpoaErrorAbstract implements HpoaError {
+
+    private final String disease;
+    /** The message, or the format string of the message if {@link #args} is not null. */
+    private final String message;
+
+    private final Object[] args;
+
+    /**
+     * @param disease the name of the disease
+     * @param message the message (used as is, it is not a format string)
+     */
+    protected HpoaErrorAbstract(String disease, String message) {
+        this.disease = disease;
+        this.message = message;
+        this.args = null;
+    }
+
+    /**
+     * @param disease the name of the disease
+     * @param format  format string of the message, which is only formatted when the error is reported
+     * @param args    arguments referenced by the format specifiers in {@code format}
+     */
+    protected HpoaErrorAbstract(String disease, String format, Object... args) {
+        this.disease = disease;
+        this.message = format;
+        this.args = args;
+    }
+
+    @Override
+    public String getDisease() {
+        return disease;
+    }
+
+    @Override
+    public String getMessage() {
+        return args == null ? message : String.format(message, args);
+    }
+}
@@ -1,29 +1,13 @@
 package org.monarchinitiative.hpoannotqc.annotations.hpoaerror;
 
-public class HpoaSkippableError implements HpoaError {
-
-    private final String disease;
-    private final String message;
-
-
-
+public class HpoaSkippableError extends HpoaErrorAbstract {
 
     public HpoaSkippableError(String disease, String msg) {
-        this.disease = disease;
-        this.message = msg;
+        super(disease, msg);
     }
 
-
-
-
-    @Override
-    public String getDisease() {
-        return disease;
-    }
-
-    @Override
-    public String getMessage() {
-        return message;
+    public HpoaSkippableError(String disease, String format, Object... args) {
+        super(disease, format, args);
     }
 
 
@@ -1,24 +1,13 @@
 package org.monarchinitiative.hpoannotqc.annotations.hpoaerror;
 
-public class MalformedBiocurationEntryError implements HpoaError {
-
-    private final String disease;
-
-    private final String message;
+public class MalformedBiocurationEntryError extends HpoaErrorAbstract {
 
     public MalformedBiocurationEntryError(String disease, String msg) {
-        this.disease = disease;
-        this.message = msg;
-    }
-
-    @Override
-    public String getDisease() {
-        return disease;
+        super(disease, msg);
     }
 
-    @Override
-    public String getMessage() {
-        return message;
+    public MalformedBiocurationEntryError(String disease, String format, Object... args) {
+        super(disease, format, args);
     }
 
 
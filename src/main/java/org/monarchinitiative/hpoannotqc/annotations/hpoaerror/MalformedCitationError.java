@@ -1,22 +1,12 @@
 package org.monarchinitiative.hpoannotqc.annotations.hpoaerror;
 
-public class MalformedCitationError implements HpoaError {
+public class MalformedCitationError extends HpoaErrorAbstract {
 
-    private final String disease;
-
-    private final String message;
     public MalformedCitationError(String disease, String message) {
-        this.disease = disease;
-        this.message = message;
-    }
-
-    @Override
-    public String getDisease() {
-        return disease;
+        super(disease, message);
     }
 
-    @Override
-    public String getMessage() {
-        return message;
+    public MalformedCitationError(String disease, String format, Object... args) {
+        super(disease, format, args);
     }
 }
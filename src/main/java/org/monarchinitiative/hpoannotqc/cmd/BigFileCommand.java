@@ -1,14 +1,16 @@
 package org.monarchinitiative.hpoannotqc.cmd;
 
+import org.monarchinitiative.hpoannotqc.annotations.HpoAnnotationFileCache;
 import org.monarchinitiative.hpoannotqc.annotations.PhenotypeDotHpoaFileWriter;
+import org.monarchinitiative.hpoannotqc.annotations.hpo.HpoOntologySnapshot;
 import org.monarchinitiative.phenol.base.PhenolRuntimeException;
-import org.monarchinitiative.phenol.io.OntologyLoader;
 import org.monarchinitiative.phenol.ontology.data.Ontology;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import picocli.CommandLine;
 
 import java.io.*;
+import java.nio.file.Path;
 import java.util.concurrent.Callable;
 
 
@@ -43,6 +45,12 @@ public class BigFileCommand implements Callable<Integer> {
    @CommandLine.Option(names="--tolerant",
            description = "tolerant mode (update obsolete term ids if possible; default: ${DEFAULT-VALUE})")
     private boolean tolerant = true;
+    @CommandLine.Option(names={"-t","--threads"},
+            description = "number of worker threads used to parse the small files and the Orphanet diseases (default: ${DEFAULT-VALUE})")
+    private int threads = 1;
+    @CommandLine.Option(names="--cache",
+            description = "path to a cache of small files that passed Q/C; only new or changed files are checked (default: no cache)")
+    private String cachePath = null;
 
     /** Command to create the{@code phenotype.hpoa} file from the various small HPO Annotation files. */
     public BigFileCommand() {
@@ -63,9 +71,13 @@ public class BigFileCommand implements Callable<Integer> {
         String orphanetXMLpath = String.format("%s%s%s",downloadDirectory,File.separator, "en_product4.xml" );
         //  Path to the dowloaded Orphanet inheritance file, en_product9_ages.xml.
         String orphanetInheritanceXmlPath = String.format("%s%s%s",downloadDirectory,File.separator, "en_product9_ages.xml" );
-        Ontology ontology = OntologyLoader.loadOntology(new File(hpJsonPath));
+        Ontology ontology = HpoOntologySnapshot.loadOntology(new File(hpJsonPath));
         // path to the omit-list.txt file, which is located with the small files in the same directory
         LOGGER.info("annotation directory = "+hpoAnnotationFileDirectory);
+        HpoAnnotationFileCache cache = null;
+        if (cachePath != null) {
+            cache = HpoAnnotationFileCache.load(Path.of(cachePath), Path.of(hpJsonPath));
+        }
         try {
             PhenotypeDotHpoaFileWriter pwriter = PhenotypeDotHpoaFileWriter.factory(ontology,
                     hpoAnnotationFileDirectory,
@@ -73,7 +85,9 @@ public class BigFileCommand implements Callable<Integer> {
                     orphanetInheritanceXmlPath,
                     outputFilePath,
                     tolerant,
-                    merge_frequency);
+                    merge_frequency,
+                    threads,
+                    cache);
             pwriter.outputBigFile();
         } catch (IOException e) {
             LOGGER.error("[ERROR] Could not output phenotype.hpoa (big file). ",e);
@@ -1,10 +1,10 @@
 package org.monarchinitiative.hpoannotqc.cmd;
 
 
-import org.monarchinitiative.hpoannotqc.annotations.HpoAnnotationEntry;
-import org.monarchinitiative.hpoannotqc.annotations.hpoaerror.HpoaError;
+import org.monarchinitiative.hpoannotqc.annotations.PhenotypeDotHpoaFileChecker;
+import org.monarchinitiative.hpoannotqc.annotations.SmallFileChecker;
+import org.monarchinitiative.hpoannotqc.annotations.hpo.HpoOntologySnapshot;
 import org.monarchinitiative.phenol.base.PhenolRuntimeException;
-import org.monarchinitiative.phenol.io.OntologyLoader;
 import org.monarchinitiative.phenol.ontology.data.Ontology;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -12,18 +12,20 @@ import picocli.CommandLine;
 
 import java.io.BufferedReader;
 import java.io.File;
-import java.io.FileReader;
 import java.io.IOException;
-import java.nio.file.DirectoryStream;
+import java.io.InputStreamReader;
+import java.nio.charset.Charset;
 import java.nio.file.Files;
 import java.nio.file.Path;
-import java.nio.file.Paths;
-import java.util.ArrayList;
-import java.util.List;
 import java.util.concurrent.Callable;
 
 /**
- * Performs sanity-checking on the phenotype.hpoa "big file"
+ * Performs sanity-checking on the phenotype.hpoa "big file". Each row of the file is checked against the ontology
+ * (see {@link PhenotypeDotHpoaFileChecker}); the exit status is 1 if any row is invalid. With {@code --watch}, the
+ * small files in the {@code --annot} directory are checked instead, and checked again whenever they change (see
+ * {@link SmallFileWatcher}). With {@code --files},
+ * only the small files of a list are checked, e.g., the files changed by a pull request (see {@link SmallFileListQc});
+ * the exit status is 1 if any of them has errors.
  */
 
 @CommandLine.Command(name = "big-file-qc", aliases = {"Q"}, mixinStandardHelpOptions = true, description = "Q/C phenotype.hpoa file")
@@ -31,9 +33,9 @@ public class BigFileQcCommand implements Callable<Integer> {
 
     private static final Logger LOGGER = LoggerFactory.getLogger(BigFileQcCommand.class);
 
+    /** Only used with {@code --watch} and {@code --files}: the rows of phenotype.hpoa are checked directly. */
     @CommandLine.Option(names={"-a","--annot"},
-            description = "Path to directory with the ca. 7900 HPO Annotation files",
-            required = true)
+            description = "Path to directory with the ca. 7900 HPO Annotation files (only used with --watch and --files)")
     private String hpoAnnotationFileDirectory;
     @CommandLine.Option(names = {"-d", "--data"},
             description = "directory to download data (default: ${DEFAULT-VALUE})")
@@ -47,12 +49,27 @@ public class BigFileQcCommand implements Callable<Integer> {
             description = "Path to hpo.json file", required = true)
     private String hpoJson;
 
-    private int validLine = 0;
-    private int invalidLine = 0;
+    @CommandLine.Option(names={"-t","--threads"},
+            description = "number of worker threads used to check phenotype.hpoa (default: ${DEFAULT-VALUE})")
+    private int threads = 1;
 
+    @CommandLine.Option(names = {"--watch"},
+            description = "check the HPO Annotation files in --annot and check them again whenever they change")
+    private boolean watch;
+
+    @CommandLine.Option(names = {"--files"},
+            description = "check only the HPO Annotation files listed in this file, one per line (- for stdin), "
+                    + "e.g., the output of git diff --name-only")
+    private String fileList;
 
     @Override
-    public Integer call() {
+    public Integer call() throws IOException, InterruptedException {
+        if (watch) {
+            return watch();
+        }
+        if (fileList != null) {
+            return checkFileList();
+        }
         File phenotypeHpoaFile = new File(phenotypeHpoa);
         File hpoJsonFile = new File(hpoJson);
         if (! phenotypeHpoaFile.isFile()) {
@@ -61,66 +78,60 @@ public class BigFileQcCommand implements Callable<Integer> {
         if (! hpoJsonFile.isFile()) {
             throw new PhenolRuntimeException("Could not find hpo.json -- run download command");
         }
-        Ontology hpo = OntologyLoader.loadOntology(hpoJsonFile);
-        File smallFileDirectory = new File(hpoAnnotationFileDirectory);
-        if (!smallFileDirectory.exists()) {
-            throw new PhenolRuntimeException("Could not find " + smallFileDirectory + " (We were expecting the directory with the HPO disease annotation files");
-        } else if (!smallFileDirectory.isDirectory()) {
-            throw new PhenolRuntimeException(smallFileDirectory.getAbsolutePath() + " is not a directory (We were expecting the directory with the HPO disease annotation files");
-        } else {
-            for (File f: getListOfV2SmallFiles(String.valueOf(smallFileDirectory))) {
-                try {
-                    qcOneSmallFile(f, hpo);
-                } catch (PhenolRuntimeException e) {
-                    LOGGER.error(e.getMessage());
-                }
-            }
+        Ontology hpo = HpoOntologySnapshot.loadOntology(hpoJsonFile);
+        PhenotypeDotHpoaFileChecker.Result result;
+        long start = System.nanoTime();
+        try {
+            result = new PhenotypeDotHpoaFileChecker(hpo, threads).check(phenotypeHpoaFile.toPath());
+        } catch (IOException e) {
+            throw new PhenolRuntimeException("Could not read " + phenotypeHpoaFile + ": " + e.getMessage());
+        }
+        double seconds = Math.max(System.nanoTime() - start, 1L) / 1e9;
+        for (String error : result.getErrors()) {
+            LOGGER.error(error);
         }
 
-        System.out.printf("Valid lines: %d; invalid lines: %d\n", validLine, invalidLine);
+        System.out.printf("Valid lines: %d; invalid lines: %d\n", result.getValidRowCount(), result.getInvalidRowCount());
+        System.out.printf("Checked %d lines in %.2f s (%.0f lines/s) with %d thread(s)\n",
+                result.getLineCount(), seconds, result.getLineCount() / seconds, threads);
 
-        return null;
+        return result.getInvalidRowCount() == 0 ? 0 : 1;
     }
 
-    private void qcOneSmallFile(File smallFile, Ontology hpo) throws PhenolRuntimeException{
-        try (BufferedReader br = new BufferedReader(new FileReader(smallFile))) {
-            String line;
-            while ((line = br.readLine()) != null) {
-                if (line.startsWith("#")) continue; // header
-                HpoAnnotationEntry entry = HpoAnnotationEntry.fromLine(line, hpo);
-                List<HpoaError> errors = entry.getErrorList();
-                if (errors.isEmpty()) {
-                    validLine++;
-                } else {
-                    invalidLine++;
-                }
+    private Integer checkFileList() throws IOException {
+        if (! fileList.equals("-") && ! new File(fileList).isFile()) {
+            throw new PhenolRuntimeException("Could not find the list of HPO Annotation files at " + fileList);
+        }
+        Ontology hpo = loadOntology();
+        Path annotationDirectory = hpoAnnotationFileDirectory == null ? null : Path.of(hpoAnnotationFileDirectory);
+        SmallFileListQc qc = new SmallFileListQc(new SmallFileChecker(hpo), annotationDirectory, System.out);
+        int filesWithErrors;
+        if (fileList.equals("-")) {
+            filesWithErrors = qc.check(new BufferedReader(new InputStreamReader(System.in)));
+        } else {
+            try (BufferedReader br = Files.newBufferedReader(Path.of(fileList), Charset.defaultCharset())) {
+                filesWithErrors = qc.check(br);
             }
-
-        } catch (IOException e) {
-            LOGGER.error(e.getMessage());
         }
+        return filesWithErrors == 0 ? 0 : 1;
     }
 
-
-    private String baseName(Path path) {
-        String bname = path.getFileName().toString();
-        bname = bname.replace('-', ':').replace(".tab", "");
-        return bname;
+    private Integer watch() throws IOException, InterruptedException {
+        if (hpoAnnotationFileDirectory == null || ! new File(hpoAnnotationFileDirectory).isDirectory()) {
+            throw new PhenolRuntimeException("Could not find the directory with the HPO Annotation files -- use --annot");
+        }
+        Ontology hpo = loadOntology();
+        SmallFileChecker checker = new SmallFileChecker(hpo);
+        new SmallFileWatcher(Path.of(hpoAnnotationFileDirectory), checker, System.out).watch();
+        return 0;
     }
 
-    private List<File> getListOfV2SmallFiles(String smallFileDirectory) {
-        List<File> fileNames = new ArrayList<>();
-        try (DirectoryStream<Path> directoryStream = Files.newDirectoryStream(Paths.get(smallFileDirectory))) {
-            for (Path path : directoryStream) {
-                if (path.toString().endsWith(".tab")) {
-                    String basename = baseName(path);
-                    fileNames.add(new File(path.toString()));
-                }
-            }
-        } catch (IOException ex) {
-            LOGGER.error(ex.getMessage());
+    private Ontology loadOntology() {
+        File hpoJsonFile = new File(hpoJson);
+        if (! hpoJsonFile.isFile()) {
+            throw new PhenolRuntimeException("Could not find hpo.json -- run download command");
         }
-        return fileNames;
+        return HpoOntologySnapshot.loadOntology(hpoJsonFile);
     }
 
 }
@@ -0,0 +1,79 @@
+package org.monarchinitiative.hpoannotqc.cmd;
+
+import org.monarchinitiative.phenol.ontology.data.TermId;
+
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeSet;
+
+/**
+ * Finds the diseases that are annotated to a phenotype and associated with a gene. Every disease gets a dense
+ * integer id (in the order of the disease TermIds), and the diseases of each phenotype and of each gene are stored as
+ * {@link BitSet}s, so that an intersection is a word-parallel AND. The results are not cached: each phenotype/gene
+ * pair is asked for only twice (for {@code phenotype_to_genes.txt} and for {@code genes_to_phenotype.txt}), and the
+ * intersection is cheaper than a lookup in a cache of all pairs. The index is not modified after construction, so it
+ * is safe to use from several threads.
+ */
+final class DiseaseIntersectionIndex {
+    /** The diseases, indexed by their dense id. */
+    private final TermId[] diseases;
+
+    private final Map<TermId, BitSet> phenotypeToDiseases;
+
+    private final Map<TermId, BitSet> geneToDiseases;
+
+    /**
+     * @param phenotypeToDiseases key: an HPO term; value: the diseases annotated to the term
+     * @param geneToDiseases      key: a gene; value: the diseases associated with the gene
+     */
+    DiseaseIntersectionIndex(Map<TermId, ? extends Collection<TermId>> phenotypeToDiseases,
+                             Map<TermId, ? extends Collection<TermId>> geneToDiseases) {
+        TreeSet<TermId> allDiseases = new TreeSet<>();
+        phenotypeToDiseases.values().forEach(allDiseases::addAll);
+        geneToDiseases.values().forEach(allDiseases::addAll);
+        this.diseases = allDiseases.toArray(new TermId[0]);
+        Map<TermId, Integer> diseaseIndex = new HashMap<>();
+        for (TermId disease : diseases) {
+            diseaseIndex.put(disease, diseaseIndex.size());
+        }
+        this.phenotypeToDiseases = toBitSets(phenotypeToDiseases, diseaseIndex);
+        this.geneToDiseases = toBitSets(geneToDiseases, diseaseIndex);
+    }
+
+    private static Map<TermId, BitSet> toBitSets(Map<TermId, ? extends Collection<TermId>> map,
+                                                 Map<TermId, Integer> diseaseIndex) {
+        Map<TermId, BitSet> bitSets = new HashMap<>();
+        for (Map.Entry<TermId, ? extends Collection<TermId>> e : map.entrySet()) {
+            BitSet bits = new BitSet();
+            for (TermId disease : e.getValue()) {
+                bits.set(diseaseIndex.get(disease));
+            }
+            bitSets.put(e.getKey(), bits);
+        }
+        return bitSets;
+    }
+
+    /**
+     * @param phenotype an HPO term
+     * @param gene      a gene id, e.g., NCBIGene:2200
+     * @return the diseases that are annotated to {@code phenotype} and associated with {@code gene}, sorted by id
+     */
+    List<TermId> intersectingDiseases(TermId phenotype, TermId gene) {
+        BitSet phenotypeDiseases = phenotypeToDiseases.get(phenotype);
+        BitSet geneDiseases = geneToDiseases.get(gene);
+        if (phenotypeDiseases == null || geneDiseases == null || !phenotypeDiseases.intersects(geneDiseases)) {
+            return List.of();
+        }
+        BitSet bits = (BitSet) phenotypeDiseases.clone();
+        bits.and(geneDiseases);
+        List<TermId> intersecting = new ArrayList<>(bits.cardinality());
+        for (int i = bits.nextSetBit(0); i >= 0; i = bits.nextSetBit(i + 1)) {
+            intersecting.add(diseases[i]);
+        }
+        return List.copyOf(intersecting);
+    }
+}
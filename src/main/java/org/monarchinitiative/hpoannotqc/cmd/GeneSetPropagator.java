@@ -0,0 +1,216 @@
+package org.monarchinitiative.hpoannotqc.cmd;
+
+import org.monarchinitiative.phenol.annotations.formats.hpo.HpoGeneAnnotation;
+import org.monarchinitiative.phenol.graph.OntologyGraph;
+import org.monarchinitiative.phenol.ontology.data.Ontology;
+import org.monarchinitiative.phenol.ontology.data.TermId;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.BiFunction;
+
+/**
+ * Computes the gene/disease pairs that each HPO term "inherits" from its descendants for
+ * {@code phenotype_to_genes.txt}. A term is associated with a gene and a disease if the term itself or any of its
+ * descendants is annotated with the gene, and the disease is annotated to that descendant and associated with the
+ * gene. In other words, the diseases of a term and a gene are the union of the intersecting diseases of all descendant
+ * annotations with the gene. Instead of expanding the descendants of every term (which visits the deep parts of the
+ * HPO over and over again), we visit the terms once in topological order, children before parents, and compute the
+ * pairs of each term from the pairs of its children.
+ * <p>
+ * The pairs are stored as int arrays of indices into an array of all pairs, which is sorted by the TermId of the
+ * annotated term (and by disease). For each gene and disease we keep the pair with the smallest index; its annotation
+ * only provides the gene id and symbol. The pairs of a term are in output order: the genes in the order of their
+ * first pair (i.e., by the smallest TermId of a descendant that contributes a disease), and the diseases of a gene
+ * sorted by TermId.
+ * </p>
+ */
+final class GeneSetPropagator {
+    /** All annotations of the graph terms, sorted by TermId (and by the original order for the same TermId). */
+    private final HpoGeneAnnotation[] annotations;
+    /** Index (into {@link #annotations}) of the annotation of each pair. */
+    private final int[] annotationOfPair;
+    /** Disease of each pair. */
+    private final TermId[] diseaseOfPair;
+    /** Dense index of the gene of each pair. */
+    private final int[] geneOfPair;
+    /** Key: a term of the HPO graph; value: indices of the inherited pairs, in output order. */
+    private final Map<TermId, int[]> inheritedPairs;
+
+    /**
+     * A gene and a disease of a term, i.e., a line of {@code phenotype_to_genes.txt}.
+     */
+    static final class GeneDisease {
+        private final HpoGeneAnnotation annotation;
+        private final TermId disease;
+
+        GeneDisease(HpoGeneAnnotation annotation, TermId disease) {
+            this.annotation = annotation;
+            this.disease = disease;
+        }
+
+        /**
+         * @return an annotation of a descendant with the gene
+         */
+        HpoGeneAnnotation annotation() {
+            return annotation;
+        }
+
+        TermId disease() {
+            return disease;
+        }
+    }
+
+    /**
+     * @param hpoOntology          reference to the HPO
+     * @param phenotypeToGene      key: an HPO term; value: the genes annotated to the term
+     * @param intersectingDiseases the diseases annotated to an HPO term (first argument) and associated with a gene
+     *                             (second argument)
+     */
+    GeneSetPropagator(Ontology hpoOntology,
+                      Map<TermId, List<HpoGeneAnnotation>> phenotypeToGene,
+                      BiFunction<TermId, TermId, ? extends Collection<TermId>> intersectingDiseases) {
+        OntologyGraph<TermId> graph = hpoOntology.graph();
+        List<TermId> sortedTerms = new ArrayList<>(graph.size());
+        graph.forEach(sortedTerms::add);
+        Collections.sort(sortedTerms);
+        // The pairs of each term are a contiguous range [start, end) of the pair arrays.
+        Map<TermId, int[]> ownRange = new HashMap<>();
+        List<HpoGeneAnnotation> annotationList = new ArrayList<>();
+        List<Integer> pairAnnotations = new ArrayList<>();
+        List<TermId> pairDiseases = new ArrayList<>();
+        for (TermId tid : sortedTerms) {
+            int start = pairDiseases.size();
+            for (HpoGeneAnnotation annotation : phenotypeToGene.getOrDefault(tid, List.of())) {
+                List<TermId> diseases =
+                        new ArrayList<>(intersectingDiseases.apply(annotation.id(), annotation.getItemId()));
+                Collections.sort(diseases);
+                for (TermId disease : diseases) {
+                    pairAnnotations.add(annotationList.size());
+                    pairDiseases.add(disease);
+                }
+                annotationList.add(annotation);
+            }
+            ownRange.put(tid, new int[]{start, pairDiseases.size()});
+        }
+        this.annotations = annotationList.toArray(new HpoGeneAnnotation[0]);
+        int nPairs = pairDiseases.size();
+        this.annotationOfPair = new int[nPairs];
+        this.diseaseOfPair = pairDiseases.toArray(new TermId[0]);
+        this.geneOfPair = new int[nPairs];
+        // Dense indices of the genes and of the gene/disease pairs, so that we can mark the pairs we have seen in a
+        // bit set.
+        Map<Integer, Integer> geneIndex = new HashMap<>();
+        Map<TermId, Integer> diseaseIndex = new HashMap<>();
+        Map<Long, Integer> geneDiseaseIndex = new HashMap<>();
+        int[] geneDiseaseOfPair = new int[nPairs];
+        for (int p = 0; p < nPairs; p++) {
+            annotationOfPair[p] = pairAnnotations.get(p);
+            int gene = geneIndex.computeIfAbsent(annotations[annotationOfPair[p]].getEntrezGeneId(),
+                    k -> geneIndex.size());
+            int disease = diseaseIndex.computeIfAbsent(diseaseOfPair[p], k -> diseaseIndex.size());
+            geneOfPair[p] = gene;
+            geneDiseaseOfPair[p] = geneDiseaseIndex.computeIfAbsent(((long) gene << 32) | disease,
+                    k -> geneDiseaseIndex.size());
+        }
+        this.inheritedPairs = new HashMap<>();
+        BitSet seenPairs = new BitSet(geneDiseaseIndex.size());
+        for (TermId tid : childrenBeforeParents(graph, sortedTerms)) {
+            int[] range = ownRange.get(tid);
+            int n = range[1] - range[0];
+            for (TermId child : graph.getChildren(tid)) {
+                n += inheritedPairs.get(child).length;
+            }
+            int[] candidates = new int[n];
+            int k = 0;
+            for (int i = range[0]; i < range[1]; i++) {
+                candidates[k++] = i;
+            }
+            for (TermId child : graph.getChildren(tid)) {
+                int[] childPairs = inheritedPairs.get(child);
+                System.arraycopy(childPairs, 0, candidates, k, childPairs.length);
+                k += childPairs.length;
+            }
+            Arrays.sort(candidates);
+            // keep the first (smallest) index of each gene/disease pair
+            int m = 0;
+            for (int candidate : candidates) {
+                int geneDisease = geneDiseaseOfPair[candidate];
+                if (!seenPairs.get(geneDisease)) {
+                    seenPairs.set(geneDisease);
+                    candidates[m++] = candidate;
+                }
+            }
+            for (int i = 0; i < m; i++) {
+                seenPairs.clear(geneDiseaseOfPair[candidates[i]]);
+            }
+            inheritedPairs.put(tid, inOutputOrder(Arrays.copyOf(candidates, m)));
+        }
+    }
+
+    /**
+     * @param pairs pair indices in ascending order, at most one per gene and disease
+     * @return the pairs grouped by gene, in the order of the first pair of each gene, and sorted by disease
+     */
+    private int[] inOutputOrder(int[] pairs) {
+        Map<Integer, Integer> geneRank = new HashMap<>();
+        for (int pair : pairs) {
+            geneRank.putIfAbsent(geneOfPair[pair], geneRank.size());
+        }
+        return Arrays.stream(pairs)
+                .boxed()
+                .sorted((a, b) -> {
+                    int byGene = Integer.compare(geneRank.get(geneOfPair[a]), geneRank.get(geneOfPair[b]));
+                    return byGene != 0 ? byGene : diseaseOfPair[a].compareTo(diseaseOfPair[b]);
+                })
+                .mapToInt(Integer::intValue)
+                .toArray();
+    }
+
+    /**
+     * Kahn's algorithm on the reversed graph: a term is ready as soon as all of its children have been visited.
+     */
+    private static List<TermId> childrenBeforeParents(OntologyGraph<TermId> graph, List<TermId> terms) {
+        Map<TermId, Integer> unvisitedChildren = new HashMap<>();
+        Deque<TermId> ready = new ArrayDeque<>();
+        for (TermId tid : terms) {
+            int nChildren = graph.getChildren(tid).size();
+            unvisitedChildren.put(tid, nChildren);
+            if (nChildren == 0) {
+                ready.add(tid);
+            }
+        }
+        List<TermId> order = new ArrayList<>(terms.size());
+        while (!ready.isEmpty()) {
+            TermId tid = ready.poll();
+            order.add(tid);
+            for (TermId parent : graph.getParents(tid)) {
+                if (unvisitedChildren.merge(parent, -1, Integer::sum) == 0) {
+                    ready.add(parent);
+                }
+            }
+        }
+        return order;
+    }
+
+    /**
+     * @param tid a term of the HPO graph
+     * @return one pair per gene and disease of {@code tid} or of one of its descendants, in output order
+     */
+    List<GeneDisease> inheritedGeneDiseases(TermId tid) {
+        int[] pairs = inheritedPairs.getOrDefault(tid, new int[0]);
+        List<GeneDisease> result = new ArrayList<>(pairs.length);
+        for (int p : pairs) {
+            result.add(new GeneDisease(annotations[annotationOfPair[p]], diseaseOfPair[p]));
+        }
+        return result;
+    }
+}
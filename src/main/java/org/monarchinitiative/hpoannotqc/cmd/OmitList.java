@@ -0,0 +1,63 @@
+package org.monarchinitiative.hpoannotqc.cmd;
+
+import java.io.IOException;
+import java.nio.charset.Charset;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * The {@code omit-list.txt} files of the directories with small files. As in {@code big-file}, a small file is
+ * omitted if its entry (e.g., OMIM:600123 for OMIM-600123.tab) is listed in the {@code omit-list.txt} of its
+ * directory. Each list is read once; {@link #clear()} reads the lists again when they are next needed.
+ */
+class OmitList {
+
+    static final String FILE_NAME = "omit-list.txt";
+    /** Key: directory with small files; value: the entries of its {@code omit-list.txt}. */
+    private final Map<Path, Set<String>> omitEntries = new HashMap<>();
+
+    /**
+     * @return true if the entry of {@code smallFile} is listed in the {@code omit-list.txt} of its directory
+     * @throws IOException if the {@code omit-list.txt} cannot be read
+     */
+    boolean isOmitted(Path smallFile) throws IOException {
+        return omitEntries(smallFile.toAbsolutePath().getParent()).contains(entryName(smallFile));
+    }
+
+    /**
+     * Forget the lists that were read, e.g., because one of them has changed.
+     */
+    void clear() {
+        omitEntries.clear();
+    }
+
+    /**
+     * @return the entries of the {@code omit-list.txt} in {@code directory} (empty if there is none)
+     */
+    private Set<String> omitEntries(Path directory) throws IOException {
+        Set<String> entries = omitEntries.get(directory);
+        if (entries == null) {
+            entries = new HashSet<>();
+            Path omitList = directory.resolve(FILE_NAME);
+            if (Files.isRegularFile(omitList)) {
+                for (String line : Files.readAllLines(omitList, Charset.defaultCharset())) {
+                    if (line.startsWith("#")) continue; // skip comment
+                    entries.add(line.split("\\s+")[0]); // the first field has items such as OMIM:500123
+                }
+            }
+            omitEntries.put(directory, entries);
+        }
+        return entries;
+    }
+
+    /**
+     * @return the entry of a small file, e.g., OMIM:600123 for OMIM-600123.tab
+     */
+    private static String entryName(Path path) {
+        return path.getFileName().toString().replace('-', ':').replace(".tab", "");
+    }
+}
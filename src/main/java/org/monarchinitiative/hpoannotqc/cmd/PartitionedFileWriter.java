@@ -0,0 +1,94 @@
+package org.monarchinitiative.hpoannotqc.cmd;
+
+import org.monarchinitiative.phenol.base.PhenolRuntimeException;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+
+/**
+ * Writes a text file whose lines are computed independently for each item of a list (e.g., one block of lines per
+ * HPO term). The list is split into consecutive partitions, the lines of each partition are computed on a worker
+ * pool and buffered as one chunk, and the chunks are written in the order of the partitions. The output is therefore
+ * identical to computing the lines item by item in the order of the list, regardless of the number of threads. At
+ * most a few chunks per thread are buffered at any time.
+ */
+class PartitionedFileWriter {
+
+    /** Computes the lines of one item and appends them (each terminated by a line separator) to a chunk. */
+    interface LineFormatter<T> {
+        void appendLines(T item, StringBuilder chunk);
+    }
+
+    /** Default number of partitions per worker thread; more partitions balance the load better. */
+    private static final int PARTITIONS_PER_THREAD = 16;
+
+    private final ExecutorService workers;
+
+    private final int threads;
+
+    private final int partitionsPerThread;
+
+    PartitionedFileWriter(ExecutorService workers, int threads) {
+        this(workers, threads, PARTITIONS_PER_THREAD);
+    }
+
+    PartitionedFileWriter(ExecutorService workers, int threads, int partitionsPerThread) {
+        this.workers = workers;
+        this.threads = threads;
+        this.partitionsPerThread = partitionsPerThread;
+    }
+
+    /**
+     * @param <T>       type of the items
+     * @param path      path of the output file (replaced if it exists)
+     * @param header    fields of the header line
+     * @param items     the items, in the order in which their lines are to be written
+     * @param formatter computes the lines of an item
+     * @throws IOException if the file cannot be written
+     */
+    <T> void write(Path path, List<String> header, List<T> items, LineFormatter<T> formatter) throws IOException {
+        int nPartitions = Math.max(1, Math.min(items.size(), threads * partitionsPerThread));
+        int partitionSize = (items.size() + nPartitions - 1) / Math.max(1, nPartitions);
+        int maxPending = 4 * threads;
+        try (BufferedWriter writer = Files.newBufferedWriter(path)) {
+            writer.write(String.join("\t", header));
+            writer.newLine();
+            Deque<Future<String>> pending = new ArrayDeque<>(maxPending);
+            int next = 0;
+            while (next < items.size() || !pending.isEmpty()) {
+                while (next < items.size() && pending.size() < maxPending) {
+                    List<T> partition = items.subList(next, Math.min(items.size(), next + partitionSize));
+                    pending.add(workers.submit(() -> formatPartition(partition, formatter)));
+                    next += partition.size();
+                }
+                writer.write(pending.poll().get());
+            }
+            writer.flush();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new PhenolRuntimeException("Interrupted while writing " + path);
+        } catch (ExecutionException e) {
+            Throwable cause = e.getCause();
+            if (cause instanceof RuntimeException) {
+                throw (RuntimeException) cause;
+            }
+            throw new PhenolRuntimeException(cause);
+        }
+    }
+
+    private <T> String formatPartition(List<T> partition, LineFormatter<T> formatter) {
+        StringBuilder chunk = new StringBuilder();
+        for (T item : partition) {
+            formatter.appendLines(item, chunk);
+        }
+        return chunk.toString();
+    }
+}
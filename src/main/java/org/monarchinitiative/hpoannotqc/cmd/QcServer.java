@@ -0,0 +1,329 @@
+package org.monarchinitiative.hpoannotqc.cmd;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import org.monarchinitiative.hpoannotqc.annotations.SmallFileChecker;
+import org.monarchinitiative.hpoannotqc.annotations.hpo.HpoOntologySnapshot;
+import org.monarchinitiative.phenol.ontology.data.Ontology;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.URLDecoder;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.attribute.FileTime;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * A resident Q/C server for small files. It loads {@code hp.json} once and then checks small files with a
+ * {@link SmallFileChecker} on request, so that the editor and CI do not pay for JVM startup and ontology loading for
+ * every file.
+ * <ul>
+ *   <li>{@code GET /check?path=OMIM-600123.tab} checks a small file in the annotation directory; the path may also be
+ *   absolute, but it must be a {@code .tab} file in the annotation directory</li>
+ *   <li>{@code POST /check?name=OMIM-600123.tab} checks the small file in the request body</li>
+ *   <li>{@code GET /status} returns the path and version of the ontology</li>
+ * </ul>
+ * The responses are JSON objects, e.g.,
+ * {@code {"file":"OMIM-600123.tab","valid":false,"errors":[{"line":3,"disease":"...","message":"...","skippable":false}]}}.
+ * <p>
+ * The server only listens on the loopback interface, and it rejects requests whose {@code Host} header is not a
+ * loopback name, so that a web page cannot reach it by DNS rebinding. Since error messages may quote the lines of
+ * a file, {@code GET} only reads small files in the annotation directory, and it is disabled if there is none.
+ * </p>
+ * <p>
+ * Before each request, the server compares the modification time and size of {@code hp.json} with those of the
+ * loaded version and reloads it if it has changed. Requests that are already running finish with the previous
+ * version. If the new {@code hp.json} cannot be loaded (e.g., because it is still being written), the previous
+ * version is kept until the file changes again.
+ * </p>
+ */
+class QcServer {
+    private static final Logger LOGGER = LoggerFactory.getLogger(QcServer.class);
+
+    private final Path hpJson;
+    /** The real path of the directory with the small files that can be checked by path, or null. */
+    private final Path annotationDirectory;
+
+    private final HttpServer server;
+
+    private final ExecutorService executor;
+    /** The checker for the current version of {@code hp.json}. */
+    private volatile LoadedOntology loaded;
+
+    /**
+     * Load {@code hpJson} and bind the server. Call {@link #start()} to accept requests.
+     *
+     * @param hpJson              path to {@code hp.json}
+     * @param annotationDirectory directory with the small files that can be checked by path (null to only allow
+     *                            {@code POST})
+     * @param port                port on the loopback interface (0 for any free port)
+     * @param threads             number of threads that handle requests
+     * @throws IOException if {@code hpJson} or {@code annotationDirectory} cannot be read or the port cannot be bound
+     */
+    QcServer(Path hpJson, Path annotationDirectory, int port, int threads) throws IOException {
+        this.hpJson = hpJson;
+        this.annotationDirectory = annotationDirectory == null ? null : annotationDirectory.toRealPath();
+        this.loaded = load(hpJson, Files.getLastModifiedTime(hpJson), Files.size(hpJson));
+        this.server = HttpServer.create(new InetSocketAddress(InetAddress.getLoopbackAddress(), port), 0);
+        this.executor = Executors.newFixedThreadPool(threads);
+        server.setExecutor(executor);
+        server.createContext("/check", this::handleCheck);
+        server.createContext("/status", this::handleStatus);
+    }
+
+    void start() {
+        server.start();
+        LOGGER.info("Q/C server listening on http://{}:{}/", server.getAddress().getHostString(), port());
+    }
+
+    int port() {
+        return server.getAddress().getPort();
+    }
+
+    void stop() {
+        server.stop(0);
+        executor.shutdownNow();
+    }
+
+    /**
+     * @return the checker for the current {@code hp.json}; reloads {@code hp.json} if it has changed
+     */
+    SmallFileChecker checker() {
+        LoadedOntology current = loaded;
+        FileTime modified;
+        long size;
+        try {
+            modified = Files.getLastModifiedTime(hpJson);
+            size = Files.size(hpJson);
+        } catch (IOException e) {
+            LOGGER.warn("Could not read {}, keeping the loaded version: {}", hpJson, e.getMessage());
+            return current.checker;
+        }
+        if (current.isVersion(modified, size)) {
+            return current.checker;
+        }
+        synchronized (this) {
+            current = loaded;
+            if (!current.isVersion(modified, size)) {
+                try {
+                    current = load(hpJson, modified, size);
+                    LOGGER.info("Reloaded {} (version {})", hpJson, current.version());
+                } catch (RuntimeException e) {
+                    LOGGER.error("Could not reload {}, keeping the previous version: {}", hpJson, e.getMessage());
+                    current = new LoadedOntology(current.checker, modified, size);
+                }
+                loaded = current;
+            }
+            return current.checker;
+        }
+    }
+
+    private static LoadedOntology load(Path hpJson, FileTime modified, long size) {
+        Ontology ontology = HpoOntologySnapshot.loadOntology(hpJson.toFile());
+        return new LoadedOntology(new SmallFileChecker(ontology), modified, size);
+    }
+
+    private void handleCheck(HttpExchange exchange) throws IOException {
+        if (!isLoopbackHost(exchange.getRequestHeaders().getFirst("Host"))) {
+            respond(exchange, 403, error("Forbidden host"));
+            return;
+        }
+        try {
+            Map<String, String> query = query(exchange);
+            String name;
+            String content;
+            if (exchange.getRequestMethod().equals("POST")) {
+                name = query.getOrDefault("name", "small file");
+                try (InputStream in = exchange.getRequestBody()) {
+                    content = new String(in.readAllBytes(), StandardCharsets.UTF_8);
+                }
+            } else if (exchange.getRequestMethod().equals("GET")) {
+                String path = query.get("path");
+                if (path == null) {
+                    respond(exchange, 400, error("Missing parameter: path"));
+                    return;
+                }
+                if (annotationDirectory == null) {
+                    respond(exchange, 403, error("Checking files by path requires an annotation directory"));
+                    return;
+                }
+                Path file;
+                try {
+                    file = annotationDirectory.resolve(path).toRealPath();
+                } catch (NoSuchFileException e) {
+                    respond(exchange, 404, error("Could not find " + path));
+                    return;
+                }
+                if (!isSmallFile(file)) {
+                    respond(exchange, 403, error("Not a small file in the annotation directory: " + path));
+                    return;
+                }
+                content = Files.readString(file);
+                name = path;
+            } else {
+                respond(exchange, 405, error("Use GET /check?path=... or POST /check"));
+                return;
+            }
+            List<SmallFileChecker.LineError> errors = checker().check(content);
+            respond(exchange, 200, result(name, errors));
+        } catch (RuntimeException | IOException e) {
+            LOGGER.error("Could not handle {}: {}", exchange.getRequestURI(), e.getMessage());
+            respond(exchange, 500, error(String.valueOf(e.getMessage())));
+        }
+    }
+
+    private void handleStatus(HttpExchange exchange) throws IOException {
+        if (!isLoopbackHost(exchange.getRequestHeaders().getFirst("Host"))) {
+            respond(exchange, 403, error("Forbidden host"));
+            return;
+        }
+        LoadedOntology current = loaded;
+        respond(exchange, 200, String.format("{\"hpo\":%s,\"version\":%s,\"modified\":%s}",
+                quote(hpJson.toString()), quote(current.version()), quote(current.modified.toString())));
+    }
+
+    /**
+     * @return true if {@code file} (a real path) is a {@code .tab} file in the annotation directory
+     */
+    private boolean isSmallFile(Path file) {
+        return file.startsWith(annotationDirectory)
+                && file.getFileName().toString().endsWith(".tab")
+                && Files.isRegularFile(file);
+    }
+
+    /**
+     * @param host the {@code Host} header of a request (null if it is missing)
+     * @return true if {@code host} is missing or names the loopback interface
+     */
+    static boolean isLoopbackHost(String host) {
+        if (host == null) {
+            return true;
+        }
+        if (host.startsWith("[")) { // IPv6 literal, e.g., [::1]:8086
+            return host.startsWith("[::1]");
+        }
+        int colon = host.indexOf(':');
+        String name = colon < 0 ? host : host.substring(0, colon);
+        return name.equalsIgnoreCase("localhost") || name.equals("127.0.0.1");
+    }
+
+    private static Map<String, String> query(HttpExchange exchange) {
+        Map<String, String> parameters = new HashMap<>();
+        String query = exchange.getRequestURI().getRawQuery();
+        if (query == null) {
+            return parameters;
+        }
+        for (String parameter : query.split("&")) {
+            int equals = parameter.indexOf('=');
+            if (equals > 0) {
+                parameters.put(URLDecoder.decode(parameter.substring(0, equals), StandardCharsets.UTF_8),
+                        URLDecoder.decode(parameter.substring(equals + 1), StandardCharsets.UTF_8));
+            }
+        }
+        return parameters;
+    }
+
+    private static void respond(HttpExchange exchange, int status, String json) throws IOException {
+        byte[] body = json.getBytes(StandardCharsets.UTF_8);
+        exchange.getResponseHeaders().set("Content-Type", "application/json; charset=utf-8");
+        exchange.sendResponseHeaders(status, body.length);
+        try (OutputStream out = exchange.getResponseBody()) {
+            out.write(body);
+        }
+    }
+
+    /**
+     * @return a JSON object with the errors of the small file {@code name}
+     */
+    static String result(String name, List<SmallFileChecker.LineError> errors) {
+        StringBuilder sb = new StringBuilder();
+        sb.append("{\"file\":").append(quote(name))
+                .append(",\"valid\":").append(errors.isEmpty())
+                .append(",\"errors\":[");
+        for (int i = 0; i < errors.size(); i++) {
+            SmallFileChecker.LineError error = errors.get(i);
+            if (i > 0) {
+                sb.append(',');
+            }
+            sb.append("{\"line\":").append(error.getLine())
+                    .append(",\"disease\":").append(quote(error.getDisease()))
+                    .append(",\"message\":").append(quote(error.getMessage()))
+                    .append(",\"skippable\":").append(error.isSkippable())
+                    .append('}');
+        }
+        return sb.append("]}").toString();
+    }
+
+    private static String error(String message) {
+        return "{\"error\":" + quote(message) + "}";
+    }
+
+    /**
+     * @return {@code s} as a JSON string
+     */
+    static String quote(String s) {
+        StringBuilder sb = new StringBuilder(s.length() + 2).append('"');
+        for (int i = 0; i < s.length(); i++) {
+            char c = s.charAt(i);
+            switch (c) {
+                case '"':
+                    sb.append("\\\"");
+                    break;
+                case '\\':
+                    sb.append("\\\\");
+                    break;
+                case '\n':
+                    sb.append("\\n");
+                    break;
+                case '\r':
+                    sb.append("\\r");
+                    break;
+                case '\t':
+                    sb.append("\\t");
+                    break;
+                default:
+                    if (c < 0x20) {
+                        sb.append(String.format("\\u%04x", (int) c));
+                    } else {
+                        sb.append(c);
+                    }
+            }
+        }
+        return sb.append('"').toString();
+    }
+
+    /**
+     * A loaded version of {@code hp.json}, identified by its modification time and size.
+     */
+    private static final class LoadedOntology {
+        private final SmallFileChecker checker;
+        private final FileTime modified;
+        private final long size;
+
+        LoadedOntology(SmallFileChecker checker, FileTime modified, long size) {
+            this.checker = checker;
+            this.modified = modified;
+            this.size = size;
+        }
+
+        boolean isVersion(FileTime modified, long size) {
+            return this.modified.equals(modified) && this.size == size;
+        }
+
+        String version() {
+            return checker.getOntology().getMetaInfo().getOrDefault("data-version", "n/a");
+        }
+    }
+}
@@ -0,0 +1,66 @@
+package org.monarchinitiative.hpoannotqc.cmd;
+
+import org.monarchinitiative.phenol.base.PhenolRuntimeException;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import picocli.CommandLine;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CountDownLatch;
+
+/**
+ * Runs a resident Q/C server for small files (see {@link QcServer}) until the process is stopped. The ontology is
+ * loaded once and reloaded when {@code hp.json} changes.
+ */
+@CommandLine.Command(name = "serve", mixinStandardHelpOptions = true, description = "Run a local Q/C server for small files")
+public class ServeCommand implements Callable<Integer> {
+    private final static Logger LOGGER = LoggerFactory.getLogger(ServeCommand.class);
+
+    @CommandLine.Option(names = {"--hpo"},
+            description = "Path to hp.json (default: ${DEFAULT-VALUE})")
+    private String hpJsonPath = "data/hp.json";
+
+    @CommandLine.Option(names = {"-a", "--annot"},
+            description = "Path to directory with the HPO Annotation files that can be checked by path")
+    private String hpoAnnotationFileDirectory;
+
+    @CommandLine.Option(names = {"-p", "--port"},
+            description = "port on localhost (default: ${DEFAULT-VALUE})")
+    private int port = 8086;
+
+    @CommandLine.Option(names={"-t","--threads"},
+            description = "number of threads that handle requests (default: ${DEFAULT-VALUE})")
+    private int threads = 1;
+
+    @Override
+    public Integer call() throws IOException, InterruptedException {
+        File hpJson = new File(hpJsonPath);
+        if (! hpJson.isFile()) {
+            throw new PhenolRuntimeException("Could not find hp.json at " + hpJson + " -- run download command");
+        }
+        File annotationDirectory = null;
+        if (hpoAnnotationFileDirectory != null) {
+            annotationDirectory = new File(hpoAnnotationFileDirectory);
+            if (! annotationDirectory.isDirectory()) {
+                throw new PhenolRuntimeException("Could not find the directory with the HPO Annotation files at "
+                        + annotationDirectory);
+            }
+        }
+        QcServer server = new QcServer(hpJson.toPath(),
+                annotationDirectory == null ? null : annotationDirectory.toPath(),
+                port,
+                threads);
+        CountDownLatch stopped = new CountDownLatch(1);
+        Runtime.getRuntime().addShutdownHook(new Thread(() -> {
+            LOGGER.info("Stopping Q/C server");
+            server.stop();
+            stopped.countDown();
+        }));
+        server.start();
+        System.out.printf("Q/C server for %s listening on http://localhost:%d/check\n", hpJson, server.port());
+        stopped.await();
+        return 0;
+    }
+}
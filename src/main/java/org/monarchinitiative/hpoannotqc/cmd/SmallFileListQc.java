@@ -0,0 +1,97 @@
+package org.monarchinitiative.hpoannotqc.cmd;
+
+import org.monarchinitiative.hpoannotqc.annotations.SmallFileChecker;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.PrintStream;
+import java.nio.charset.Charset;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+
+/**
+ * Checks only the small files of a list, e.g., the output of {@code git diff --name-only} for a pull request (see
+ * {@code qc --files}). Lines that are not {@code .tab} files are ignored, and so are small files whose entries are
+ * listed in the {@code omit-list.txt} of their directory (see {@link OmitList}). Listed files that no longer exist
+ * were deleted by the change and are skipped.
+ * <p>
+ * Paths are resolved against the working directory; a path that cannot be found there is looked up by its file name
+ * in the annotation directory, if one was given.
+ * </p>
+ */
+class SmallFileListQc {
+
+    private final SmallFileChecker checker;
+    /** Directory with the small files, or null if the paths of the list are always used as they are. */
+    private final Path annotationDirectory;
+
+    private final PrintStream out;
+
+    private final OmitList omitList = new OmitList();
+
+    private int checkedFiles = 0;
+
+    private int omittedFiles = 0;
+
+    private int deletedFiles = 0;
+
+    private int filesWithErrors = 0;
+
+    SmallFileListQc(SmallFileChecker checker, Path annotationDirectory, PrintStream out) {
+        this.checker = checker;
+        this.annotationDirectory = annotationDirectory;
+        this.out = out;
+    }
+
+    /**
+     * Check the small files of {@code fileList} (one path per line), print their problems and a summary.
+     *
+     * @return number of small files with problems
+     * @throws IOException if the list or a small file cannot be read
+     */
+    int check(BufferedReader fileList) throws IOException {
+        String line;
+        while ((line = fileList.readLine()) != null) {
+            String name = line.trim();
+            if (name.endsWith(".tab")) {
+                checkFile(name);
+            }
+        }
+        out.printf("Checked %d small files (%d omitted, %d deleted); %d with errors\n",
+                checkedFiles, omittedFiles, deletedFiles, filesWithErrors);
+        return filesWithErrors;
+    }
+
+    int getCheckedFiles() {
+        return checkedFiles;
+    }
+
+    private void checkFile(String name) throws IOException {
+        Path path = Path.of(name);
+        if (!Files.isRegularFile(path) && annotationDirectory != null) {
+            path = annotationDirectory.resolve(path.getFileName());
+        }
+        if (!Files.isRegularFile(path)) {
+            out.printf("%s: deleted\n", name);
+            deletedFiles++;
+            return;
+        }
+        if (omitList.isOmitted(path)) {
+            omittedFiles++;
+            return;
+        }
+        // the same charset as HpoAnnotationFileParser
+        String content = new String(Files.readAllBytes(path), Charset.defaultCharset());
+        List<SmallFileChecker.LineError> errors = checker.check(content);
+        checkedFiles++;
+        if (errors.isEmpty()) {
+            return;
+        }
+        filesWithErrors++;
+        out.printf("%s: %d error(s)\n", name, errors.size());
+        for (SmallFileChecker.LineError error : errors) {
+            out.printf("\t%s\n", error);
+        }
+    }
+}
@@ -0,0 +1,230 @@
+package org.monarchinitiative.hpoannotqc.cmd;
+
+import org.monarchinitiative.hpoannotqc.annotations.SmallFileChecker;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.io.PrintStream;
+import java.nio.charset.Charset;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.WatchEvent;
+import java.nio.file.WatchKey;
+import java.nio.file.WatchService;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.TreeSet;
+import java.util.concurrent.TimeUnit;
+
+import static java.nio.file.StandardWatchEventKinds.ENTRY_CREATE;
+import static java.nio.file.StandardWatchEventKinds.ENTRY_DELETE;
+import static java.nio.file.StandardWatchEventKinds.ENTRY_MODIFY;
+import static java.nio.file.StandardWatchEventKinds.OVERFLOW;
+
+/**
+ * Watches the directory with the small files and checks the files that change (see {@code qc --watch}). All small
+ * files are checked once at the start; afterwards, only the files that were created or modified are checked again.
+ * Small files whose entries are listed in the {@code omit-list.txt} are skipped (see {@link OmitList}), and all files
+ * are checked again when the {@code omit-list.txt} changes.
+ * The Q/C results of all files are kept in memory, so that a summary of the whole directory can be printed after
+ * each change.
+ * <p>
+ * Editors and {@code git} usually change several files (or a file several times) in a burst. The events of a burst
+ * are collected until no event arrives for {@link #DEBOUNCE_MILLIS}, and each changed file is checked once.
+ * </p>
+ */
+class SmallFileWatcher {
+    private static final Logger LOGGER = LoggerFactory.getLogger(SmallFileWatcher.class);
+    /** Wait for this long after an event for more events before checking the changed files. */
+    static final long DEBOUNCE_MILLIS = 250;
+
+    private final Path directory;
+
+    private final SmallFileChecker checker;
+
+    private final PrintStream out;
+    /** Key: a small file; value: its problems (empty if the file is valid). */
+    private final Map<Path, List<SmallFileChecker.LineError>> results = new TreeMap<>();
+
+    private final OmitList omitList = new OmitList();
+
+    /**
+     * @param directory directory with the small files
+     * @param checker   checker with the ontology
+     * @param out       stream for the results
+     */
+    SmallFileWatcher(Path directory, SmallFileChecker checker, PrintStream out) {
+        this.directory = directory;
+        this.checker = checker;
+        this.out = out;
+    }
+
+    /**
+     * Check all small files and print the problems and a summary. Does not return unless the directory can no
+     * longer be watched.
+     *
+     * @throws IOException          if the directory cannot be watched
+     * @throws InterruptedException if the thread is interrupted while waiting for changes
+     */
+    void watch() throws IOException, InterruptedException {
+        try (WatchService watchService = directory.getFileSystem().newWatchService()) {
+            // register before the first check, so that no change is missed
+            directory.register(watchService, ENTRY_CREATE, ENTRY_MODIFY, ENTRY_DELETE);
+            checkAll();
+            out.printf("Watching %s for changes\n", directory);
+            while (true) {
+                WatchKey key = watchService.take();
+                Set<Path> changed = new TreeSet<>();
+                boolean checkAll = false;
+                while (key != null) {
+                    checkAll |= collect(key.pollEvents(), changed);
+                    if (!key.reset()) {
+                        throw new IOException("Can no longer watch " + directory);
+                    }
+                    key = watchService.poll(DEBOUNCE_MILLIS, TimeUnit.MILLISECONDS);
+                }
+                checkChanges(changed, checkAll);
+            }
+        }
+    }
+
+    /**
+     * Add the small files of {@code events} to {@code changed}.
+     *
+     * @return true if all small files have to be checked again, because events were lost or the
+     * {@code omit-list.txt} has changed
+     */
+    boolean collect(List<WatchEvent<?>> events, Set<Path> changed) {
+        boolean checkAll = false;
+        for (WatchEvent<?> event : events) {
+            if (event.kind() == OVERFLOW) {
+                // events were lost, we do not know which files changed
+                checkAll = true;
+            } else {
+                Path path = directory.resolve((Path) event.context());
+                if (isSmallFile(path)) {
+                    changed.add(path);
+                } else if (path.getFileName().toString().equals(OmitList.FILE_NAME)) {
+                    checkAll = true;
+                }
+            }
+        }
+        return checkAll;
+    }
+
+    /**
+     * Check the changes of a burst of events.
+     *
+     * @param changed  small files that were created, modified or deleted
+     * @param checkAll true to check all small files instead (see {@link #collect})
+     * @throws IOException if the directory or the {@code omit-list.txt} cannot be read
+     */
+    void checkChanges(Set<Path> changed, boolean checkAll) throws IOException {
+        if (checkAll) {
+            checkAll();
+        } else if (!changed.isEmpty()) {
+            recheck(changed);
+        }
+    }
+
+    /**
+     * Check all small files of the directory, print the files with problems and a summary.
+     *
+     * @throws IOException if the directory cannot be read
+     */
+    void checkAll() throws IOException {
+        long start = System.nanoTime();
+        results.clear();
+        omitList.clear();
+        try (DirectoryStream<Path> directoryStream = Files.newDirectoryStream(directory)) {
+            for (Path path : directoryStream) {
+                if (isSmallFile(path) && !omitList.isOmitted(path)) {
+                    check(path);
+                }
+            }
+        }
+        for (Map.Entry<Path, List<SmallFileChecker.LineError>> e : results.entrySet()) {
+            if (!e.getValue().isEmpty()) {
+                printResult(e.getKey(), e.getValue());
+            }
+        }
+        printSummary(start);
+    }
+
+    /**
+     * Check the changed files again, print their results and a summary. Files that no longer exist (or are omitted)
+     * are removed.
+     *
+     * @param changed small files that were created, modified or deleted
+     * @throws IOException if the {@code omit-list.txt} cannot be read
+     */
+    void recheck(Collection<Path> changed) throws IOException {
+        long start = System.nanoTime();
+        for (Path path : changed) {
+            if (Files.isRegularFile(path) && !omitList.isOmitted(path) && check(path)) {
+                printResult(path, results.get(path));
+            } else if (results.remove(path) != null) {
+                out.printf("%s: removed\n", path.getFileName());
+            }
+        }
+        printSummary(start);
+    }
+
+    /**
+     * @return number of small files with problems
+     */
+    int getFilesWithErrors() {
+        return (int) results.values().stream().filter(errors -> !errors.isEmpty()).count();
+    }
+
+    /**
+     * @return number of small files
+     */
+    int getFileCount() {
+        return results.size();
+    }
+
+    /**
+     * Check {@code path} and store its result.
+     *
+     * @return false if the file could not be read (e.g., because it was deleted in the meantime)
+     */
+    private boolean check(Path path) {
+        String content;
+        try {
+            // the same charset as HpoAnnotationFileParser
+            content = new String(Files.readAllBytes(path), Charset.defaultCharset());
+        } catch (IOException e) {
+            LOGGER.warn("Could not read {}: {}", path, e.getMessage());
+            return false;
+        }
+        results.put(path, checker.check(content));
+        return true;
+    }
+
+    private void printResult(Path path, List<SmallFileChecker.LineError> errors) {
+        if (errors.isEmpty()) {
+            out.printf("%s: OK\n", path.getFileName());
+            return;
+        }
+        out.printf("%s: %d error(s)\n", path.getFileName(), errors.size());
+        for (SmallFileChecker.LineError error : errors) {
+            out.printf("\t%s\n", error);
+        }
+    }
+
+    private void printSummary(long start) {
+        int errors = results.values().stream().mapToInt(List::size).sum();
+        out.printf("%d small files, %d with errors, %d error(s) [checked in %.0f ms]\n",
+                getFileCount(), getFilesWithErrors(), errors, (System.nanoTime() - start) / 1e6);
+    }
+
+    private static boolean isSmallFile(Path path) {
+        return path.toString().endsWith(".tab");
+    }
+}
@@ -0,0 +1,37 @@
+package org.monarchinitiative.hpoannotqc.cmd;
+
+import org.monarchinitiative.hpoannotqc.annotations.hpo.HpoOntologySnapshot;
+import org.monarchinitiative.phenol.base.PhenolRuntimeException;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import picocli.CommandLine;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.concurrent.Callable;
+
+/**
+ * Creates a binary snapshot of {@code hp.json} (see {@link HpoOntologySnapshot}) next to {@code hp.json}. The other
+ * commands load the snapshot instead of {@code hp.json} as long as {@code hp.json} has not changed.
+ */
+@CommandLine.Command(name = "snapshot", mixinStandardHelpOptions = true, description = "Create binary snapshot of hp.json for faster startup")
+public class SnapshotCommand implements Callable<Integer> {
+    private final static Logger LOGGER = LoggerFactory.getLogger(SnapshotCommand.class);
+
+    @CommandLine.Option(names = {"-j", "--hpo"},
+            description = "path to hp.json (default: ${DEFAULT-VALUE})")
+    private String hpJsonPath = "data/hp.json";
+
+    @Override
+    public Integer call() throws IOException {
+        File hpJson = new File(hpJsonPath);
+        if (! hpJson.isFile()) {
+            throw new PhenolRuntimeException("Could not find hp.json at " + hpJson + " -- run download command");
+        }
+        Path snapshot = HpoOntologySnapshot.createSnapshot(hpJson);
+        LOGGER.info("Wrote snapshot of {} to {}", hpJson, snapshot);
+        System.out.printf("Wrote %s\n", snapshot);
+        return 0;
+    }
+}
@@ -1,26 +1,27 @@
 package org.monarchinitiative.hpoannotqc.cmd;
 
+import org.monarchinitiative.hpoannotqc.annotations.hpo.HpoOntologySnapshot;
+import org.monarchinitiative.phenol.annotations.formats.hpo.DiseaseToGeneAssociation;
+import org.monarchinitiative.phenol.annotations.formats.hpo.GeneToAssociation;
 import org.monarchinitiative.phenol.annotations.formats.hpo.HpoAssociationData;
 import org.monarchinitiative.phenol.annotations.formats.hpo.HpoGeneAnnotation;
 import org.monarchinitiative.phenol.annotations.io.hpo.*;
 import org.monarchinitiative.phenol.base.PhenolRuntimeException;
-import org.monarchinitiative.phenol.io.OntologyLoader;
 import org.monarchinitiative.phenol.ontology.data.Ontology;
+import org.monarchinitiative.phenol.ontology.data.Term;
 import org.monarchinitiative.phenol.ontology.data.TermId;
 import picocli.CommandLine;
 
 
-import java.io.BufferedWriter;
 import java.io.File;
 import java.io.IOException;
-import java.nio.file.Files;
 import java.nio.file.Path;
-import java.nio.file.StandardOpenOption;
 import java.util.*;
 import java.util.concurrent.Callable;
-import java.util.concurrent.ConcurrentHashMap;
-import java.util.function.Function;
-import java.util.function.Predicate;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
 import java.util.stream.Collectors;
 
 @CommandLine.Command(name = "supplemental-files", mixinStandardHelpOptions = true, description = "Create g2p, p2g, g2d files")
@@ -34,13 +35,18 @@ public class SupplementalFilesCommand implements Callable<Integer> {
     @CommandLine.Option(names = {"-o, --output"},
             description = "path to output dir (default: ${DEFAULT-VALUE})")
     private String outputDirectory = ".";
+    @CommandLine.Option(names = {"-t", "--threads"},
+            description = "number of worker threads used to compute the output files (default: ${DEFAULT-VALUE})")
+    private int threads = 1;
 
     Map<TermId, Map<TermId, HpoAnnotationLine>> phenotypeToDisease;
     Map<TermId, List<HpoGeneAnnotation>> phenotypeToGene;
 
     Map<TermId, Collection<TermId>> geneIdsToDisease;
 
-    Map<TermId, Map<TermId, Collection<TermId>>> annotationCache = new HashMap<>();
+    GeneSetPropagator geneSetPropagator;
+
+    DiseaseIntersectionIndex diseaseIntersectionIndex;
 
     public SupplementalFilesCommand() {
     }
@@ -62,7 +68,7 @@ public class SupplementalFilesCommand implements Callable<Integer> {
         if (!hpJson.exists()) {
             throw new RuntimeException("Could not find hp.json at " + hpJson);
         }
-        Ontology hpoOntology = OntologyLoader.loadOntology(hpJson);
+        Ontology hpoOntology = HpoOntologySnapshot.loadOntology(hpJson);
         Set<DiseaseDatabase> diseaseDatabases = Set.of(DiseaseDatabase.OMIM, DiseaseDatabase.ORPHANET);
         HpoaDiseaseDataContainer diseases = HpoaDiseaseDataLoader.of(diseaseDatabases).loadDiseaseData(hpoAssociations);
         HpoAssociationData hpoAssocationData = HpoAssociationData.builder(hpoOntology).orphaToGenePath(orphaToGenePath)
@@ -71,133 +77,155 @@ public class SupplementalFilesCommand implements Callable<Integer> {
         this.phenotypeToGene = hpoAssocationData.hpoToGeneAnnotations().stream().collect(Collectors.groupingBy(HpoGeneAnnotation::id));
         this.phenotypeToDisease = generatePhenotypeToDisease(diseases);
         this.geneIdsToDisease = hpoAssocationData.associations().geneIdToDiseaseIds();
-
-        // phenotype -> gene, inherits down al the childrens genes
-        try (BufferedWriter writer = Files.newBufferedWriter(Path.of(outputFilePhenotypeToGene), StandardOpenOption.CREATE)){
-            writer.write(String.join("\t", "hpo_id", "hpo_name", "ncbi_gene_id", "gene_symbol", "disease_id"));
-            writer.newLine();
-            hpoOntology.getTerms().stream().distinct().forEach(term -> {
-                final TermId phenotype = term.id();
-                Collection<TermId> children = hpoOntology.graph().extendWithDescendants(phenotype, true);
-                final Optional<String> phenotypeLabel = hpoOntology.getTermLabel(phenotype);
-                if(phenotypeLabel.isEmpty()) {
-                    throw new RuntimeException(String.format("Can not find label for phenotype id %s.", phenotype));
-                }
-                // Get all the children genes and unique them
-                // Filter out genes with no symbol
-                List<HpoGeneAnnotation> annotations = children.stream()
-                        .flatMap(termId -> phenotypeToGene.getOrDefault(termId, Collections.emptyList()).stream())
-                        .filter(distinctByKey(HpoGeneAnnotation::getEntrezGeneId))
-                        .filter(g -> !g.getEntrezGeneSymbol().equals("-"))
-                        .sorted(Comparator.comparing(HpoGeneAnnotation::id)).collect(Collectors.toList());
-                for (HpoGeneAnnotation annotation: annotations) {
-
-                    try {
-                        for (TermId diseaseId: intersecting_annotations(annotation.id(), annotation.getItemId())) {
-                            writer.write(String.join("\t",
-                                    phenotype.toString(),
-                                    phenotypeLabel.get(),
-                                    String.valueOf(annotation.getEntrezGeneId()),
-                                    annotation.getEntrezGeneSymbol(),
-                                    diseaseId.toString()
-                            ));
-                            writer.newLine();
-                        }
-                    } catch (IOException e) {
-                        throw new PhenolRuntimeException(e);
-                    }
-                }
-            });
-            writer.flush();
+        Map<TermId, Set<TermId>> phenotypeToDiseaseIds = phenotypeToDisease.entrySet().stream()
+                .collect(Collectors.toMap(Map.Entry::getKey, e -> e.getValue().keySet()));
+        this.diseaseIntersectionIndex = new DiseaseIntersectionIndex(phenotypeToDiseaseIds, geneIdsToDisease);
+        this.geneSetPropagator = new GeneSetPropagator(hpoOntology, phenotypeToGene, this::intersecting_annotations);
+
+        // The three files are written concurrently; the lines of each file are computed in partitions on a shared
+        // pool of worker threads and written in the order of the partitions, so that the output does not depend on
+        // the number of threads.
+        if (threads < 1) {
+            throw new PhenolRuntimeException("Number of threads must be at least 1 but was " + threads);
         }
-        // Gene -> Phenotype no inheritance
-        try (BufferedWriter writer = Files.newBufferedWriter(Path.of(outputFileGeneToPhenotype), StandardOpenOption.CREATE)){
-            writer.write(String.join("\t",  "ncbi_gene_id", "gene_symbol", "hpo_id", "hpo_name", "frequency", "disease_id"));
-            writer.newLine();
-            hpoAssocationData.hpoToGeneAnnotations().stream().sorted(Comparator.comparing(HpoGeneAnnotation::getEntrezGeneId))
-                    .forEach(annotation -> {
-                        Collection<TermId> intersecting_diseases = intersecting_annotations(annotation.id(), annotation.getItemId());
-                        for (TermId disease: intersecting_diseases
-                             ) {
-                            String frequency = "-";
-                            HpoAnnotationLine line = this.phenotypeToDisease.getOrDefault(annotation.id(), Collections.emptyMap()).get(disease);
-                            if(line != null && !line.frequency().isBlank()){
-                                frequency = line.frequency();
-                            }
-                            try {
-                                writer.write(String.join("\t",
-                                        String.valueOf(annotation.getEntrezGeneId()),
-                                        annotation.getEntrezGeneSymbol(),
-                                        annotation.id().toString(),
-                                        annotation.getTermName(),
-                                        frequency,
-                                        disease.toString()
-
-                                ));
-                                writer.newLine();
-                            } catch (IOException e) {
-                                throw new PhenolRuntimeException(e);
-                            }
-                        }
-                    });
-            writer.flush();
-        }
-        try (BufferedWriter writer = Files.newBufferedWriter(Path.of(outputFileGeneToDisease), StandardOpenOption.CREATE)){
-            writer.write(String.join("\t",  "ncbi_gene_id", "gene_symbol", "association_type", "disease_id", "source"));
-            writer.newLine();
-            hpoAssocationData.associations().diseaseToGeneAssociations().forEach(diseaseAssocation -> {
-                    String source;
-                    if(diseaseAssocation.diseaseId().getPrefix().contains("OMIM")){
-                        source = "ftp://ftp.ncbi.nlm.nih.gov/gene/DATA/mim2gene_medgen";
-                    } else if(diseaseAssocation.diseaseId().getPrefix().contains("ORPHA")){
-                        source = "http://www.orphadata.org/data/xml/en_product6.xml";
-                    } else {
-                        source = "";
-                    }
-                diseaseAssocation.associations().forEach(diseaseGene -> {
-                        try {
-                            writer.write(String.join("\t",
-                                    diseaseGene.geneIdentifier().id().toString(),
-                                    diseaseGene.geneIdentifier().symbol(),
-                                    diseaseGene.associationType().toString(),
-                                    diseaseAssocation.diseaseId().getValue(),
-                                    source
-                            ));
-                            writer.newLine();
-                        } catch (IOException e) {
-                            throw new PhenolRuntimeException(e);
-                        }
-                    });
+        ExecutorService workers = Executors.newFixedThreadPool(threads);
+        ExecutorService fileWriters = Executors.newFixedThreadPool(3);
+        try {
+            PartitionedFileWriter partitionedWriter = new PartitionedFileWriter(workers, threads);
+            // phenotype -> gene, inherits down al the childrens genes
+            List<Term> terms = hpoOntology.getTerms().stream()
+                    .distinct()
+                    .sorted(Comparator.comparing(Term::id))
+                    .collect(Collectors.toList());
+            Future<?> p2g = fileWriters.submit(() -> {
+                partitionedWriter.write(Path.of(outputFilePhenotypeToGene),
+                        List.of("hpo_id", "hpo_name", "ncbi_gene_id", "gene_symbol", "disease_id"),
+                        terms,
+                        (term, chunk) -> appendPhenotypeToGeneLines(hpoOntology, term, chunk));
+                return null;
+            });
+            // Gene -> Phenotype no inheritance
+            List<HpoGeneAnnotation> geneAnnotations = hpoAssocationData.hpoToGeneAnnotations().stream()
+                    .sorted(Comparator.comparing(HpoGeneAnnotation::getEntrezGeneId))
+                    .collect(Collectors.toList());
+            Future<?> g2p = fileWriters.submit(() -> {
+                partitionedWriter.write(Path.of(outputFileGeneToPhenotype),
+                        List.of("ncbi_gene_id", "gene_symbol", "hpo_id", "hpo_name", "frequency", "disease_id"),
+                        geneAnnotations,
+                        this::appendGeneToPhenotypeLines);
+                return null;
+            });
+            List<DiseaseToGeneAssociation> diseaseToGeneAssociations = hpoAssocationData.associations().diseaseToGeneAssociations()
+                    .collect(Collectors.toList());
+            Future<?> g2d = fileWriters.submit(() -> {
+                partitionedWriter.write(Path.of(outputFileGeneToDisease),
+                        List.of("ncbi_gene_id", "gene_symbol", "association_type", "disease_id", "source"),
+                        diseaseToGeneAssociations,
+                        this::appendGeneToDiseaseLines);
+                return null;
             });
-            writer.flush();
+            for (Future<?> future : List.of(p2g, g2p, g2d)) {
+                future.get();
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new PhenolRuntimeException("Interrupted while writing supplemental files");
+        } catch (ExecutionException e) {
+            Throwable cause = e.getCause();
+            if (cause instanceof IOException) {
+                throw (IOException) cause;
+            } else if (cause instanceof RuntimeException) {
+                throw (RuntimeException) cause;
+            }
+            throw new PhenolRuntimeException(cause);
+        } finally {
+            fileWriters.shutdownNow();
+            workers.shutdownNow();
         }
         return 0;
     }
 
-    public static <T> Predicate<T> distinctByKey(Function<? super T, ?> keyExtractor) {
+    /**
+     * Lines of {@code phenotype_to_genes.txt} for one HPO term. The genes of a term are the genes annotated to the
+     * term or to any of its descendants, and the diseases of a gene are the diseases that intersect with any of these
+     * annotations (see {@link GeneSetPropagator}).
+     */
+    private void appendPhenotypeToGeneLines(Ontology hpoOntology, Term term, StringBuilder chunk) {
+        final TermId phenotype = term.id();
+        final Optional<String> phenotypeLabel = hpoOntology.getTermLabel(phenotype);
+        if(phenotypeLabel.isEmpty()) {
+            throw new RuntimeException(String.format("Can not find label for phenotype id %s.", phenotype));
+        }
+        // Filter out genes with no symbol
+        for (GeneSetPropagator.GeneDisease geneDisease: geneSetPropagator.inheritedGeneDiseases(phenotype)) {
+            HpoGeneAnnotation annotation = geneDisease.annotation();
+            if (annotation.getEntrezGeneSymbol().equals("-")) {
+                continue;
+            }
+            appendLine(chunk,
+                    phenotype.toString(),
+                    phenotypeLabel.get(),
+                    String.valueOf(annotation.getEntrezGeneId()),
+                    annotation.getEntrezGeneSymbol(),
+                    geneDisease.disease().toString());
+        }
+    }
+
+    /**
+     * Lines of {@code genes_to_phenotype.txt} for one gene annotation (no inheritance).
+     */
+    private void appendGeneToPhenotypeLines(HpoGeneAnnotation annotation, StringBuilder chunk) {
+        Collection<TermId> intersecting_diseases = intersecting_annotations(annotation.id(), annotation.getItemId());
+        for (TermId disease: intersecting_diseases) {
+            String frequency = "-";
+            HpoAnnotationLine line = this.phenotypeToDisease.getOrDefault(annotation.id(), Collections.emptyMap()).get(disease);
+            if(line != null && !line.frequency().isBlank()){
+                frequency = line.frequency();
+            }
+            appendLine(chunk,
+                    String.valueOf(annotation.getEntrezGeneId()),
+                    annotation.getEntrezGeneSymbol(),
+                    annotation.id().toString(),
+                    annotation.getTermName(),
+                    frequency,
+                    disease.toString());
+        }
+    }
+
+    /**
+     * Lines of {@code genes_to_disease.txt} for one disease.
+     */
+    private void appendGeneToDiseaseLines(DiseaseToGeneAssociation diseaseAssocation, StringBuilder chunk) {
+        String source;
+        if(diseaseAssocation.diseaseId().getPrefix().contains("OMIM")){
+            source = "ftp://ftp.ncbi.nlm.nih.gov/gene/DATA/mim2gene_medgen";
+        } else if(diseaseAssocation.diseaseId().getPrefix().contains("ORPHA")){
+            source = "http://www.orphadata.org/data/xml/en_product6.xml";
+        } else {
+            source = "";
+        }
+        // phenol keeps the genes of a disease in hash order, which depends on identity hash codes; sort them so that
+        // the output is reproducible
+        diseaseAssocation.associations().stream()
+                .sorted(Comparator.comparing((GeneToAssociation g) -> g.geneIdentifier().id())
+                        .thenComparing(GeneToAssociation::associationType))
+                .forEach(diseaseGene -> appendLine(chunk,
+                        diseaseGene.geneIdentifier().id().toString(),
+                        diseaseGene.geneIdentifier().symbol(),
+                        diseaseGene.associationType().toString(),
+                        diseaseAssocation.diseaseId().getValue(),
+                        source));
+    }
 
-        Map<Object, Boolean> seen = new ConcurrentHashMap<>();
-        return t -> seen.putIfAbsent(keyExtractor.apply(t), Boolean.TRUE) == null;
+    private static void appendLine(StringBuilder chunk, String... fields) {
+        chunk.append(String.join("\t", fields)).append(System.lineSeparator());
     }
 
     Collection<TermId> intersecting_annotations(TermId phenotype_id, TermId gene_id) {
         if(phenotype_id == null || gene_id == null){
             return Collections.emptyList();
         }
-        // Diseases with this phenotype
-        final Collection<TermId> diseasePhenotypeAnnotations = this.phenotypeToDisease.getOrDefault(phenotype_id, Collections.emptyMap()).keySet();
-        // Diseases with this gene
-        final Collection<TermId> diseaseGeneAnnotations = this.geneIdsToDisease.getOrDefault(gene_id, Collections.emptyList());
-        Map<TermId, Collection<TermId>> phenotypeToAnnotation = annotationCache.get(phenotype_id);
-        if(phenotypeToAnnotation != null && phenotypeToAnnotation.containsKey(gene_id)){
-            return annotationCache.get(phenotype_id).get(gene_id);
-        } else {
-            Collection<TermId> intersecting = diseasePhenotypeAnnotations.stream().filter(diseaseGeneAnnotations::contains).collect(Collectors.toList());
-            Map<TermId, Collection<TermId>> map = new HashMap<>();
-            map.putIfAbsent(gene_id, intersecting);
-            this.annotationCache.putIfAbsent(phenotype_id, map);
-            return intersecting;
-        }
+        return diseaseIntersectionIndex.intersectingDiseases(phenotype_id, gene_id);
     }
 
      Map<TermId, Map<TermId, HpoAnnotationLine>> generatePhenotypeToDisease(HpoaDiseaseDataContainer diseaseData) {
@@ -0,0 +1,69 @@
+package org.monarchinitiative.hpoannotqc;
+
+import org.monarchinitiative.phenol.io.OntologyLoader;
+import org.monarchinitiative.phenol.ontology.data.Ontology;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.net.URISyntaxException;
+import java.net.URL;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+
+/**
+ * The fixture shared by the tests: {@code hp-small.json}, an HPO with only All, Phenotypic abnormality and Seizure,
+ * and {@code OMIM-600001.tab}, a small file with one valid line that annotates Seizure.
+ */
+public final class TestResources {
+
+    private static final List<String> SMALL_FILE = readLines("OMIM-600001.tab");
+
+    public static final String HEADER = SMALL_FILE.get(0);
+
+    public static final String VALID_LINE = SMALL_FILE.get(1);
+    /** {@link #VALID_LINE} with the invalid evidence code XYZ, i.e., a line with exactly one Q/C error. */
+    public static final String INVALID_LINE = VALID_LINE.replace("\tPCS\t", "\tXYZ\t");
+
+    private TestResources() {
+    }
+
+    /**
+     * @return the path of a file in {@code src/test/resources}
+     */
+    public static Path path(String name) {
+        URL url = TestResources.class.getClassLoader().getResource(name);
+        if (url == null) {
+            throw new IllegalArgumentException("Could not find test resource " + name);
+        }
+        try {
+            return Path.of(url.toURI());
+        } catch (URISyntaxException e) {
+            throw new IllegalArgumentException("Could not find test resource " + name, e);
+        }
+    }
+
+    /**
+     * Writes a small file with the {@link #HEADER} and the given lines.
+     *
+     * @return the path of the small file
+     */
+    public static Path writeSmallFile(Path directory, String name, String... lines) throws IOException {
+        return Files.writeString(directory.resolve(name), HEADER + "\n" + String.join("\n", lines) + "\n");
+    }
+
+    /**
+     * @return the ontology of {@code hp-small.json}
+     */
+    public static Ontology smallHpo() {
+        return OntologyLoader.loadOntology(path("hp-small.json").toFile());
+    }
+
+    private static List<String> readLines(String name) {
+        try {
+            return Files.readAllLines(path(name));
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+}
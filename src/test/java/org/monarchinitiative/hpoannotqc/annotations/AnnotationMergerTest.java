@@ -0,0 +1,77 @@
+package org.monarchinitiative.hpoannotqc.annotations;
+
+import org.junit.jupiter.api.Test;
+import org.monarchinitiative.phenol.ontology.data.TermId;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+public class AnnotationMergerTest {
+
+    private static HpoAnnotationEntry entry(String hpoId, String frequency, String negation, String publication) {
+        return new HpoAnnotationEntry("OMIM:600001", "Disease 1", TermId.of(hpoId), "label", "", "", frequency, "",
+                negation, "", "", publication, "PCS", "HPO:probinson[2020-01-01]");
+    }
+
+    /**
+     * The terms are in the order of their first line; the lines of a term with divergent negation are not merged.
+     */
+    @Test
+    public void testMergeInOrderOfFirstLine() {
+        HpoAnnotationModel model = new HpoAnnotationModel("OMIM-600001.tab", List.of(
+                entry("HP:0001252", "1/2", "", "PMID:2"),
+                entry("HP:0001250", "", "", "PMID:1"),
+                entry("HP:0001251", "", "NOT", "PMID:1"),
+                entry("HP:0001252", "50%", "", "PMID:1"),
+                entry("HP:0001251", "", "", "PMID:1"),
+                entry("HP:0001252", "HP:0040280", "", "PMID:2")));
+        List<HpoAnnotationEntry> merged = model.getMergedModel().getEntryList();
+        assertEquals(4, merged.size());
+        assertEquals(TermId.of("HP:0001252"), merged.get(0).getPhenotypeId());
+        assertEquals("16/22", merged.get(0).getFrequencyModifier());
+        assertEquals("PMID:2;PMID:1", merged.get(0).getPublication());
+        assertEquals(TermId.of("HP:0001250"), merged.get(1).getPhenotypeId());
+        assertEquals("NOT", merged.get(2).getNegation());
+        assertEquals("", merged.get(3).getNegation());
+    }
+
+    /**
+     * The non-empty descriptions (not the modifiers) of the merged lines are joined with semicolons.
+     */
+    @Test
+    public void testMergeDescriptions() {
+        HpoAnnotationModel model = new HpoAnnotationModel("OMIM-600001.tab", List.of(
+                new HpoAnnotationEntry("OMIM:600001", "Disease 1", TermId.of("HP:0001250"), "label", "", "", "1/2",
+                        "", "", "HP:0012828", "first", "PMID:1", "PCS", "HPO:probinson[2020-01-01]"),
+                new HpoAnnotationEntry("OMIM:600001", "Disease 1", TermId.of("HP:0001250"), "label", "", "", "1/2",
+                        "", "", "", "", "PMID:1", "PCS", "HPO:probinson[2020-01-01]"),
+                new HpoAnnotationEntry("OMIM:600001", "Disease 1", TermId.of("HP:0001250"), "label", "", "", "1/2",
+                        "", "", "", "second", "PMID:1", "PCS", "HPO:probinson[2020-01-01]")));
+        HpoAnnotationEntry merged = model.getMergedModel().getEntryList().get(0);
+        assertEquals("first;second", merged.getDescription());
+        assertEquals("HP:0012828", merged.getModifier());
+    }
+
+    /**
+     * A group with a frequency that cannot be added up is not merged, so that its Q/C errors can be reported.
+     */
+    @Test
+    public void testMalformedFrequencyIsNotMerged() {
+        HpoAnnotationModel model = new HpoAnnotationModel("OMIM-600001.tab", List.of(
+                entry("HP:0001250", "1/2", "", "PMID:1"),
+                entry("HP:0001250", ".5%", "", "PMID:2"),
+                entry("HP:0001251", "1/2", "", "PMID:1"),
+                entry("HP:0001251", "HP:0001250", "", "PMID:2"),
+                entry("HP:0001252", "1/2", "", "PMID:1"),
+                entry("HP:0001252", "50%", "", "PMID:2")));
+        List<HpoAnnotationEntry> merged = model.getMergedModel().getEntryList();
+        assertEquals(5, merged.size());
+        assertEquals("1/2", merged.get(0).getFrequencyModifier());
+        assertEquals(".5%", merged.get(1).getFrequencyModifier());
+        assertEquals("1/2", merged.get(2).getFrequencyModifier());
+        assertEquals("HP:0001250", merged.get(3).getFrequencyModifier());
+        assertEquals(TermId.of("HP:0001252"), merged.get(4).getPhenotypeId());
+        assertEquals("6/12", merged.get(4).getFrequencyModifier());
+    }
+}
@@ -0,0 +1,62 @@
+package org.monarchinitiative.hpoannotqc.annotations;
+
+import org.junit.jupiter.api.Test;
+import org.monarchinitiative.hpoannotqc.annotations.hpoaerror.HpoAnnotationModelError;
+import org.monarchinitiative.hpoannotqc.annotations.hpoaerror.HpoaError;
+import org.monarchinitiative.phenol.ontology.data.TermId;
+
+import java.util.List;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class AnnotationTableTest {
+
+    private static HpoAnnotationEntry entry(String hpoId, String frequency, String negation) {
+        return new HpoAnnotationEntry("OMIM:600001", "Disease 1", TermId.of(hpoId), "label", "HP:0003577",
+                "Congenital onset", frequency, "", negation, "", "a description", "PMID:1", "PCS",
+                "HPO:probinson[2020-01-01]");
+    }
+
+    @Test
+    public void testRowsRoundTrip() {
+        HpoAnnotationEntry first = entry("HP:0001250", "1/2", "");
+        HpoAnnotationEntry second = entry("HP:0001251", "", "NOT");
+        second.addError(new HpoAnnotationModelError("Disease 1", "some error"));
+        SymbolTable symbols = new SymbolTable();
+        AnnotationTable table = AnnotationTable.of(List.of(first, second), symbols);
+        assertEquals(2, table.rows());
+        List<HpoAnnotationEntry> view = table.asList();
+        assertEquals(first.getRow(), view.get(0).getRow());
+        assertEquals(second.getRow(), view.get(1).getRow());
+        assertFalse(view.get(0).hasError());
+        assertTrue(view.get(1).hasError());
+        assertEquals("some error", table.errors().get(0).getMessage());
+        assertEquals(symbols.code(TermId.of("HP:0001251")), table.phenotypeCode(1));
+        assertEquals("OMIM:600001", table.diseaseId(1));
+    }
+
+    /**
+     * Appended rows follow the existing rows; the existing table is not changed.
+     */
+    @Test
+    public void testAppend() {
+        HpoAnnotationEntry first = entry("HP:0001250", "1/2", "");
+        first.addError(new HpoAnnotationModelError("Disease 1", "first error"));
+        HpoAnnotationEntry second = entry("HP:0001251", "", "NOT");
+        HpoAnnotationEntry third = entry("HP:0000006", "", "");
+        third.addError(new HpoAnnotationModelError("Disease 1", "third error"));
+        AnnotationTable table = AnnotationTable.of(List.of(first), new SymbolTable());
+        AnnotationTable appended = table.append(List.of(second, third));
+        assertEquals(1, table.rows());
+        assertEquals(3, appended.rows());
+        assertEquals(first.getRow(), appended.asList().get(0).getRow());
+        assertEquals(second.getRow(), appended.asList().get(1).getRow());
+        assertEquals(third.getRow(), appended.asList().get(2).getRow());
+        assertEquals("a description", appended.string(AnnotationTable.DESCRIPTION, 2));
+        assertEquals(List.of("first error", "third error"),
+                appended.errors().stream().map(HpoaError::getMessage).collect(Collectors.toList()));
+    }
+}
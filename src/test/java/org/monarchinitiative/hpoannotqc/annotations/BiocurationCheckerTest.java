@@ -1,6 +1,11 @@
 package org.monarchinitiative.hpoannotqc.annotations;
 
 import org.junit.jupiter.api.Test;
+import org.monarchinitiative.hpoannotqc.annotations.hpoaerror.HpoaError;
+import org.monarchinitiative.phenol.ontology.data.TermId;
+
+import java.util.List;
+import java.util.stream.Collectors;
 
 import static org.junit.jupiter.api.Assertions.*;
 
@@ -48,4 +53,32 @@ public class BiocurationCheckerTest {
         assertFalse(BiocurationChecker.check(noItem));
     }
 
+
+    private static List<String> errors(String biocuration) {
+        HpoAnnotationEntry entry = new HpoAnnotationEntry("OMIM:600001", "Disease 1", TermId.of("HP:0001250"),
+                "Seizure", "", "", "", "", "", "", "", "PMID:1", "PCS", biocuration);
+        BiocurationChecker.checkEntry(entry, "Disease 1");
+        return entry.getErrorList().stream().map(HpoaError::getMessage).collect(Collectors.toList());
+    }
+
+    /**
+     * Each entry between semicolons is checked; trailing empty entries are ignored, as with String#split.
+     */
+    @Test
+    public void checkEntries() {
+        assertEquals(List.of(), errors("HPO:probinson[2023-04-01];ORCID:0000-0002-5648-2155[2024-04-01];;"));
+        assertEquals(List.of("Malformed biocuration entry: \"\".", "Malformed biocuration entry: \"HPO:x[2023-4-01]\"."),
+                errors(";HPO:probinson[2023-04-01];HPO:x[2023-4-01]"));
+        assertEquals(List.of("empty biocuration entry", "Malformed biocuration entry: \"\"."), errors(""));
+    }
+
+    /**
+     * An entry is valid if it contains a curator and a date anywhere.
+     */
+    @Test
+    public void checkEntryWithSurroundingText() {
+        assertTrue(BiocurationChecker.check("see HPO:probinson[2023-04-01] (review)"));
+        assertTrue(BiocurationChecker.check("[1][HPO:probinson[2023-04-01]"));
+        assertFalse(BiocurationChecker.check("HPO:[2023-04-01]"));
+    }
 }
@@ -0,0 +1,39 @@
+package org.monarchinitiative.hpoannotqc.annotations;
+
+import org.junit.jupiter.api.Test;
+import org.monarchinitiative.hpoannotqc.annotations.hpoaerror.HpoaError;
+import org.monarchinitiative.phenol.ontology.data.TermId;
+
+import java.util.List;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+public class CitationCheckerTest {
+
+    private static List<String> errors(String citation) {
+        HpoAnnotationEntry entry = new HpoAnnotationEntry("OMIM:600001", "Disease 1", TermId.of("HP:0001250"),
+                "Seizure", "", "", "", "", "", "", "", citation, "PCS", "HPO:probinson[2023-04-01]");
+        CitationChecker.checkEntry(entry, "Disease 1");
+        return entry.getErrorList().stream().map(HpoaError::getMessage).collect(Collectors.toList());
+    }
+
+    @Test
+    public void testValidCitations() {
+        for (String citation : List.of("PMID:123456", "OMIM:600123", "ISBN-13:9780123456789", "https://hpo.jax.org")) {
+            assertEquals(List.of(), errors(citation), citation);
+        }
+    }
+
+    @Test
+    public void testMalformedCitations() {
+        assertEquals(List.of("Malformed citation id (double colon): \"PMID::123\""), errors("PMID::123"));
+        assertEquals(List.of("Malformed citation id (contains space): \"PMID: 123\""), errors("PMID: 123"));
+        assertEquals(List.of("Did not recognize publication prefix: \"PMD:123\" "), errors("PMD:123"));
+        assertEquals(List.of("Malformed publication string: \"PMID:\" "), errors("PMID:"));
+        assertEquals(List.of("Malformed citation id (not a CURIE): \":123\"",
+                "Did not recognize publication prefix: \":123\" "), errors(":123"));
+        assertEquals(List.of("Malformed citation id (not a CURIE): \"PMID123\""), errors("PMID123"));
+        assertEquals(List.of("Empty citation string", "Malformed citation id (not a CURIE): \"\""), errors(""));
+    }
+}
@@ -0,0 +1,63 @@
+package org.monarchinitiative.hpoannotqc.annotations;
+
+import org.junit.jupiter.api.Test;
+import org.monarchinitiative.phenol.base.PhenolRuntimeException;
+import org.monarchinitiative.phenol.ontology.data.TermId;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+public class FrequencyTest {
+
+    @Test
+    public void testKinds() {
+        assertEquals(Frequency.Kind.EMPTY, Frequency.of(null).kind());
+        assertEquals(Frequency.Kind.EMPTY, Frequency.of("").kind());
+        Frequency ratio = Frequency.of("2/3");
+        assertEquals(Frequency.Kind.RATIO, ratio.kind());
+        assertEquals(2, ratio.numerator());
+        assertEquals(3, ratio.denominator());
+        assertEquals(Frequency.Kind.PERCENTAGE, Frequency.of("12.5%").kind());
+        assertEquals(12.5, Frequency.of("12.5%").percentage());
+        assertEquals(Frequency.Kind.PERCENTAGE, Frequency.of("5.%").kind());
+        assertEquals(TermId.of("HP:0040280"), Frequency.of("HP:0040280").termId());
+        for (String malformed : List.of("2/", "/3", "2/3/4", ".5%", "1.2.3%", "%", "HP:004028", "frequent",
+                "99999999999/1")) {
+            assertEquals(Frequency.Kind.MALFORMED, Frequency.of(malformed).kind(), malformed);
+        }
+    }
+
+    /**
+     * The text is kept for the output, e.g., 12.50% is not written as 12.5%.
+     */
+    @Test
+    public void testText() {
+        assertEquals("12.50%", Frequency.of("12.50%").toString());
+        assertEquals("", Frequency.of(null).toString());
+    }
+
+    /**
+     * The decoded frequencies are shared within the symbol table of a run, but not across runs.
+     */
+    @Test
+    public void testSharing() {
+        SymbolTable symbols = new SymbolTable();
+        assertSame(symbols.frequency("1/2"), symbols.frequency(new String("1/2")));
+        assertNotSame(symbols.frequency("1/2"), new SymbolTable().frequency("1/2"));
+        assertEquals(Frequency.Kind.EMPTY, symbols.frequency(null).kind());
+    }
+
+    @Test
+    public void testObservations() {
+        assertArrayEquals(new int[]{10, 10}, Frequency.of("").observations());
+        assertArrayEquals(new int[]{2, 3}, Frequency.of("2/3").observations());
+        assertArrayEquals(new int[]{1, 10}, Frequency.of("12.5%").observations());
+        assertArrayEquals(new int[]{10, 10}, Frequency.of("HP:0040280").observations());
+        assertThrows(PhenolRuntimeException.class, () -> Frequency.of("frequent").observations());
+    }
+}
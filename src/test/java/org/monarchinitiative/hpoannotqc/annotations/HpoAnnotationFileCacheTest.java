@@ -0,0 +1,92 @@
+package org.monarchinitiative.hpoannotqc.annotations;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.monarchinitiative.hpoannotqc.TestResources;
+import org.monarchinitiative.hpoannotqc.annotations.hpo.HpoOntologySnapshot;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class HpoAnnotationFileCacheTest {
+
+    private static final String VERSION = "2.0.0";
+
+    private static final String FILE_NAME = "OMIM-600001.tab";
+
+    @TempDir
+    Path directory;
+
+    private Path hpJson;
+
+    private Path cachePath;
+
+    private String digest;
+
+    @BeforeEach
+    public void init() throws IOException {
+        hpJson = Files.copy(TestResources.path("hp-small.json"), directory.resolve("hp.json"));
+        cachePath = directory.resolve("small-file.cache");
+        HpoAnnotationFileCache cache = HpoAnnotationFileCache.load(cachePath, hpJson, VERSION);
+        digest = HpoOntologySnapshot.digest(Files.readAllBytes(TestResources.path(FILE_NAME)));
+        cache.markValidated(FILE_NAME, digest);
+        cache.write();
+    }
+
+    @Test
+    public void testHit() throws IOException {
+        HpoAnnotationFileCache cache = HpoAnnotationFileCache.load(cachePath, hpJson, VERSION);
+        assertTrue(cache.isValidated(FILE_NAME, digest));
+        assertEquals(1, cache.getHitCount());
+        assertEquals(0, cache.getMissCount());
+        // files that were validated again are kept for the next run
+        cache.write();
+        assertTrue(HpoAnnotationFileCache.load(cachePath, hpJson, VERSION).isValidated(FILE_NAME, digest));
+    }
+
+    @Test
+    public void testMiss() {
+        HpoAnnotationFileCache cache = HpoAnnotationFileCache.load(cachePath, hpJson, VERSION);
+        String edited = HpoOntologySnapshot.digest((TestResources.HEADER + "\n").getBytes(StandardCharsets.UTF_8));
+        assertFalse(cache.isValidated(FILE_NAME, edited));
+        assertFalse(cache.isValidated("OMIM-600002.tab", digest));
+        assertEquals(0, cache.getHitCount());
+        assertEquals(2, cache.getMissCount());
+    }
+
+    /**
+     * An edited {@code hp.json} invalidates the cache, even though its {@code data-version} is the same.
+     */
+    @Test
+    public void testEditedHpJson() throws IOException {
+        Files.writeString(hpJson, Files.readString(hpJson).replace("\"Seizure\"", "\"Seizures\""));
+        HpoAnnotationFileCache cache = HpoAnnotationFileCache.load(cachePath, hpJson, VERSION);
+        assertFalse(cache.isValidated(FILE_NAME, digest));
+    }
+
+    @Test
+    public void testVersionMismatch() {
+        HpoAnnotationFileCache cache = HpoAnnotationFileCache.load(cachePath, hpJson, "2.0.1");
+        assertFalse(cache.isValidated(FILE_NAME, digest));
+    }
+
+    /**
+     * A build without a version never uses the cache, not even one that it wrote itself.
+     */
+    @Test
+    public void testUnknownVersion() throws IOException {
+        HpoAnnotationFileCache cache = HpoAnnotationFileCache.load(cachePath, hpJson, null);
+        assertFalse(cache.isValidated(FILE_NAME, digest));
+        cache.markValidated(FILE_NAME, digest);
+        cache.write();
+        assertFalse(HpoAnnotationFileCache.load(cachePath, hpJson, null).isValidated(FILE_NAME, digest));
+        assertFalse(HpoAnnotationFileCache.load(cachePath, hpJson, VERSION).isValidated(FILE_NAME, digest));
+    }
+}
@@ -0,0 +1,97 @@
+package org.monarchinitiative.hpoannotqc.annotations;
+
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.monarchinitiative.hpoannotqc.TestResources;
+import org.monarchinitiative.hpoannotqc.exception.HpoAnnotQcException;
+import org.monarchinitiative.phenol.ontology.data.Ontology;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.monarchinitiative.hpoannotqc.TestResources.VALID_LINE;
+import static org.monarchinitiative.hpoannotqc.TestResources.writeSmallFile;
+
+public class HpoAnnotationFileIngestorTest {
+
+    private static final int N_FILES = 40;
+
+    private static Ontology ontology;
+
+    @TempDir
+    Path directory;
+
+    @BeforeAll
+    public static void init() {
+        ontology = TestResources.smallHpo();
+    }
+
+    /**
+     * Writes {@link #N_FILES} small files; file i has i lines, so that the workers need different times.
+     */
+    private void writeSmallFiles() throws IOException {
+        for (int i = 1; i <= N_FILES; i++) {
+            String diseaseId = String.format("OMIM:6%05d", i);
+            String line = VALID_LINE.replace("OMIM:600001\tDisease 1", diseaseId + "\tDisease " + i);
+            String[] lines = new String[i];
+            for (int j = 0; j < i; j++) {
+                lines[j] = line.replace("PMID:123", "PMID:" + (j + 1));
+            }
+            writeSmallFile(directory, diseaseId.replace(':', '-') + ".tab", lines);
+        }
+    }
+
+    private List<HpoAnnotationModel> ingest(int threads) {
+        return new HpoAnnotationFileIngestor(directory.toString(), null, ontology, true, threads)
+                .getHpoaFileEntries();
+    }
+
+    private static List<String> lines(List<HpoAnnotationModel> models) {
+        List<String> lines = new ArrayList<>();
+        for (HpoAnnotationModel model : models) {
+            lines.add(model.getBasename());
+            for (HpoAnnotationEntry entry : model.getEntryList()) {
+                lines.add(entry.getDiseaseID() + "\t" + entry.getPublication());
+            }
+        }
+        return lines;
+    }
+
+    /**
+     * The models are in the same order for any number of threads, so that {@code phenotype.hpoa} does not depend on
+     * the number of threads.
+     */
+    @Test
+    public void testSameOrderForAnyNumberOfThreads() throws IOException {
+        writeSmallFiles();
+        List<HpoAnnotationModel> sequential = ingest(1);
+        assertEquals(N_FILES, sequential.size());
+        List<String> expected = lines(sequential);
+        assertEquals(expected, lines(ingest(4)));
+        List<HpoAnnotationModel> consumed = new ArrayList<>();
+        new HpoAnnotationFileIngestor(directory.toString(), null, ontology, true, 4, null, consumed::add);
+        assertEquals(expected, lines(consumed));
+    }
+
+    /**
+     * An exception of a worker thread reaches the caller as it is, as with sequential parsing.
+     */
+    @Test
+    public void testWorkerFailureReachesCaller() throws IOException {
+        writeSmallFiles();
+        // a header with a missing column
+        Files.writeString(directory.resolve("OMIM-600000.tab"),
+                TestResources.HEADER.replace("\tsex", "") + "\n" + VALID_LINE + "\n");
+        for (int threads : new int[]{1, 4}) {
+            HpoAnnotQcException e = assertThrows(HpoAnnotQcException.class, () -> ingest(threads));
+            assertTrue(e.getMessage().startsWith("Malformed header line"), e.getMessage());
+        }
+    }
+}
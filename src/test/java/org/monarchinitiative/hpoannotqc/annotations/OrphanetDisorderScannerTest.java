@@ -0,0 +1,41 @@
+package org.monarchinitiative.hpoannotqc.annotations;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+public class OrphanetDisorderScannerTest {
+
+    @TempDir
+    Path tempDir;
+
+    @Test
+    public void testDisorderBoundaries() throws IOException {
+        String xml = "<?xml version=\"1.0\" encoding=\"ISO-8859-1\"?>\n" +
+                "<JDBOR><HPODisorderSetStatusList count=\"2\">\n" +
+                "<HPODisorderSetStatus id=\"1\"><Disorder id=\"1\"><OrphaCode>100</OrphaCode>" +
+                "<Name lang=\"en\">Café &amp; disease</Name></Disorder><Online>y</Online>\n" +
+                "</HPODisorderSetStatus><HPODisorderSetStatus id=\"2\"><Disorder id=\"2\">\n" +
+                "<OrphaCode>101</OrphaCode>\n" +
+                "<DisorderType id=\"21394\"><Name lang=\"en\">Disease</Name></DisorderType>\n" +
+                "</Disorder></HPODisorderSetStatus>\n" +
+                "</HPODisorderSetStatusList></JDBOR>\n";
+        Path path = tempDir.resolve("en_product4.xml");
+        Files.write(path, xml.getBytes(StandardCharsets.ISO_8859_1));
+        try (OrphanetDisorderScanner scanner = new OrphanetDisorderScanner(path.toString())) {
+            assertEquals("<Disorder id=\"1\"><OrphaCode>100</OrphaCode><Name lang=\"en\">Café &amp; disease</Name></Disorder>",
+                    scanner.nextDisorder());
+            assertEquals("<Disorder id=\"2\">\n<OrphaCode>101</OrphaCode>\n" +
+                            "<DisorderType id=\"21394\"><Name lang=\"en\">Disease</Name></DisorderType>\n</Disorder>",
+                    scanner.nextDisorder());
+            assertNull(scanner.nextDisorder());
+        }
+    }
+}
@@ -0,0 +1,121 @@
+package org.monarchinitiative.hpoannotqc.annotations;
+
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.monarchinitiative.phenol.ontology.data.ImmutableOntology;
+import org.monarchinitiative.phenol.ontology.data.Ontology;
+import org.monarchinitiative.phenol.ontology.data.Relationship;
+import org.monarchinitiative.phenol.ontology.data.RelationshipType;
+import org.monarchinitiative.phenol.ontology.data.Term;
+import org.monarchinitiative.phenol.ontology.data.TermId;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+public class OrphanetXML2HpoDiseaseModelParserTest {
+
+    private static final TermId ALL = TermId.of("HP:0000001");
+    private static final TermId PHENOTYPIC_ABNORMALITY = TermId.of("HP:0000118");
+    private static final TermId SEIZURE = TermId.of("HP:0001250");
+    private static final TermId FREQUENCY = TermId.of("HP:0040279");
+    private static final TermId FREQUENT = TermId.of("HP:0040282");
+    private static final TermId EXCLUDED = TermId.of("HP:0040285");
+    private static final TermId AUTOSOMAL_DOMINANT = TermId.of("HP:0000006");
+
+    private static final String XML = "<?xml version=\"1.0\" encoding=\"ISO-8859-1\"?>\n" +
+            "<JDBOR><HPODisorderSetStatusList count=\"2\">\n" +
+            "<HPODisorderSetStatus id=\"1\"><Disorder id=\"1\"><OrphaCode>100</OrphaCode>" +
+            "<Name lang=\"en\">Crouzon &amp; acanthosis</Name>" +
+            "<DisorderType id=\"21394\"><Name lang=\"en\">Disease</Name></DisorderType>" +
+            "<HPODisorderAssociationList count=\"1\"><HPODisorderAssociation id=\"1\">" +
+            "<HPO id=\"1\"><HPOId>HP:0001250</HPOId><HPOTerm>Seizure</HPOTerm></HPO>" +
+            "<HPOFrequency id=\"28419\"><Name lang=\"en\">Frequent (79-30%)</Name></HPOFrequency>" +
+            "<DiagnosticCriteria/></HPODisorderAssociation></HPODisorderAssociationList></Disorder>" +
+            "</HPODisorderSetStatus>\n" +
+            "<HPODisorderSetStatus id=\"2\"><Disorder id=\"2\"><OrphaCode>101</OrphaCode>" +
+            "<Name lang=\"en\">Another disease</Name><HPODisorderAssociationList count=\"1\"><HPODisorderAssociation id=\"2\">" +
+            "<HPO id=\"1\"><HPOId>HP:0001250</HPOId><HPOTerm>Seizure</HPOTerm></HPO>" +
+            "<HPOFrequency id=\"28440\"><Name lang=\"en\">Excluded (0%)</Name></HPOFrequency>" +
+            "</HPODisorderAssociation></HPODisorderAssociationList></Disorder></HPODisorderSetStatus>\n" +
+            "</HPODisorderSetStatusList></JDBOR>\n";
+
+    private static Ontology hpo;
+
+    @TempDir
+    Path tempDir;
+
+    @BeforeAll
+    public static void init() {
+        List<Term> terms = List.of(
+                Term.of(ALL, "All"),
+                Term.of(PHENOTYPIC_ABNORMALITY, "Phenotypic abnormality"),
+                Term.of(SEIZURE, "Seizure"),
+                Term.of(FREQUENCY, "Frequency"),
+                Term.of(FREQUENT, "Frequent"),
+                Term.of(EXCLUDED, "Excluded"));
+        List<Relationship> relationships = List.of(
+                new Relationship(PHENOTYPIC_ABNORMALITY, ALL, 1, RelationshipType.IS_A),
+                new Relationship(SEIZURE, PHENOTYPIC_ABNORMALITY, 2, RelationshipType.IS_A),
+                new Relationship(FREQUENCY, ALL, 3, RelationshipType.IS_A),
+                new Relationship(FREQUENT, FREQUENCY, 4, RelationshipType.IS_A),
+                new Relationship(EXCLUDED, FREQUENCY, 5, RelationshipType.IS_A));
+        hpo = ImmutableOntology.builder()
+                .metaInfo(Map.of())
+                .terms(terms)
+                .relationships(relationships)
+                .build();
+    }
+
+    private List<String> parse(int threads) throws IOException {
+        return parse(threads, null);
+    }
+
+    private List<String> parse(int threads, Function<TermId, List<HpoAnnotationEntry>> inheritanceLookup) throws IOException {
+        Path path = tempDir.resolve("en_product4.xml");
+        Files.write(path, XML.getBytes(StandardCharsets.ISO_8859_1));
+        List<String> lines = new ArrayList<>();
+        new OrphanetXML2HpoDiseaseModelParser(path.toString(), hpo, true, model -> {
+            for (HpoAnnotationEntry entry : model.getEntryList()) {
+                lines.add(String.join("|", entry.getDiseaseID(), entry.getDiseaseName(),
+                        entry.getPhenotypeId().getValue(), entry.getFrequencyModifier(), entry.getNegation()));
+            }
+        }, threads, inheritanceLookup);
+        return lines;
+    }
+
+    /**
+     * The parser reports the text before and after {@code &amp;} in separate pieces; the name must not be truncated.
+     */
+    @Test
+    public void testDiseasesInFileOrder() throws IOException {
+        List<String> expected = List.of("ORPHA:100|Crouzon & acanthosis|HP:0001250|HP:0040282|",
+                "ORPHA:101|Another disease|HP:0001250||NOT");
+        assertEquals(expected, parse(1));
+        assertEquals(expected, parse(2));
+    }
+
+    /**
+     * The inheritance annotations are added after the phenotype annotations of the disease they belong to.
+     */
+    @Test
+    public void testInheritanceJoinedIntoDisease() throws IOException {
+        HpoAnnotationEntry dominant = new HpoAnnotationEntry("ORPHA:101", "Another disease", AUTOSOMAL_DOMINANT,
+                "Autosomal dominant inheritance", "", "", "", "", "", "", "", "ORPHA:101", "TAS", "ORPHA:orphadata");
+        Function<TermId, List<HpoAnnotationEntry>> lookup =
+                diseaseId -> diseaseId.getValue().equals("ORPHA:101") ? List.of(dominant) : null;
+        List<String> expected = List.of("ORPHA:100|Crouzon & acanthosis|HP:0001250|HP:0040282|",
+                "ORPHA:101|Another disease|HP:0001250||NOT",
+                "ORPHA:101|Another disease|HP:0000006||");
+        assertEquals(expected, parse(1, lookup));
+        assertEquals(expected, parse(2, lookup));
+    }
+}
@@ -0,0 +1,62 @@
+package org.monarchinitiative.hpoannotqc.annotations;
+
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.monarchinitiative.hpoannotqc.TestResources;
+import org.monarchinitiative.phenol.ontology.data.Ontology;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+public class PhenotypeDotHpoaFileCheckerTest {
+
+    private static final String VALID_ROW = "OMIM:600001\tDisease 1\t\tHP:0001250\tPMID:123\tPCS\t\t\t\t\tP\tHPO:probinson[2020-01-01]";
+
+    private static Ontology hpo;
+
+    @TempDir
+    Path tempDir;
+
+    @BeforeAll
+    public static void init() {
+        hpo = TestResources.smallHpo();
+    }
+
+    private Path writeBigFile() throws IOException {
+        List<String> lines = List.of("#date: 2020-01-01",
+                PhenotypeDotHpoaFileWriter.getHeaderLine(),
+                VALID_ROW,
+                VALID_ROW.replace("\tPCS\t", "\tXYZ\t"),
+                VALID_ROW.replace("\tP\t", "\tI\t"),
+                VALID_ROW + "\textra",
+                VALID_ROW);
+        Path path = tempDir.resolve("phenotype.hpoa");
+        Files.write(path, lines);
+        return path;
+    }
+
+    /**
+     * Segments of a few bytes end in the middle of almost every line; the results must not depend on the segments
+     * or on the number of threads.
+     */
+    @Test
+    public void testErrorsWithLineNumbers() throws IOException {
+        Path path = writeBigFile();
+        List<String> expected = List.of("phenotype.hpoa:4: Disease 1 - Invalid evidence code: \"XYZ\"",
+                "phenotype.hpoa:5: Disease 1 - Wrong aspect \"I\" instead of \"P\" for HP:0001250",
+                "phenotype.hpoa:6: We were expecting 12 fields but got 13");
+        for (PhenotypeDotHpoaFileChecker checker : List.of(new PhenotypeDotHpoaFileChecker(hpo, 1),
+                new PhenotypeDotHpoaFileChecker(hpo, 1, 7),
+                new PhenotypeDotHpoaFileChecker(hpo, 3, 7))) {
+            PhenotypeDotHpoaFileChecker.Result result = checker.check(path);
+            assertEquals(2, result.getValidRowCount());
+            assertEquals(3, result.getInvalidRowCount());
+            assertEquals(expected, result.getErrors());
+        }
+    }
+}
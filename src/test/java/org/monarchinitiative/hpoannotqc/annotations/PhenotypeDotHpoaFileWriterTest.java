@@ -1,13 +1,58 @@
 package org.monarchinitiative.hpoannotqc.annotations;
 
 
+import org.junit.jupiter.api.BeforeAll;
 import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.monarchinitiative.hpoannotqc.TestResources;
+import org.monarchinitiative.hpoannotqc.exception.HpoAnnotQcException;
+import org.monarchinitiative.phenol.ontology.data.Ontology;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.monarchinitiative.hpoannotqc.TestResources.VALID_LINE;
+import static org.monarchinitiative.hpoannotqc.TestResources.writeSmallFile;
 
 
 public class PhenotypeDotHpoaFileWriterTest {
 
+    private static final String ORPHANET_XML = "<?xml version=\"1.0\" encoding=\"ISO-8859-1\"?>\n" +
+            "<JDBOR><HPODisorderSetStatusList count=\"2\">\n" +
+            "<HPODisorderSetStatus id=\"1\"><Disorder id=\"1\"><OrphaCode>100</OrphaCode>" +
+            "<Name lang=\"en\">Orpha disease 100</Name><HPODisorderAssociationList count=\"1\">" +
+            "<HPODisorderAssociation id=\"1\"><HPO id=\"1\"><HPOId>HP:0001250</HPOId><HPOTerm>Seizure</HPOTerm></HPO>" +
+            "<HPOFrequency id=\"28440\"><Name lang=\"en\">Excluded (0%)</Name></HPOFrequency>" +
+            "</HPODisorderAssociation></HPODisorderAssociationList></Disorder></HPODisorderSetStatus>\n" +
+            "<HPODisorderSetStatus id=\"2\"><Disorder id=\"2\"><OrphaCode>101</OrphaCode>" +
+            "<Name lang=\"en\">Orpha disease 101</Name><HPODisorderAssociationList count=\"1\">" +
+            "<HPODisorderAssociation id=\"2\"><HPO id=\"1\"><HPOId>HP:0001250</HPOId><HPOTerm>Seizure</HPOTerm></HPO>" +
+            "<HPOFrequency id=\"28440\"><Name lang=\"en\">Excluded (0%)</Name></HPOFrequency>" +
+            "</HPODisorderAssociation></HPODisorderAssociationList></Disorder></HPODisorderSetStatus>\n" +
+            "</HPODisorderSetStatusList></JDBOR>\n";
+
+    private static final String ORPHANET_INHERITANCE_XML = "<?xml version=\"1.0\" encoding=\"ISO-8859-1\"?>\n" +
+            "<JDBOR><DisorderList count=\"0\"></DisorderList></JDBOR>\n";
+
+    private static Ontology ontology;
+
+    @TempDir
+    Path directory;
+
+    @BeforeAll
+    public static void init() {
+        ontology = TestResources.smallHpo();
+    }
+
     /** Note that the header should have a #
      */
     @Test
@@ -17,4 +62,77 @@ public class PhenotypeDotHpoaFileWriterTest {
         assertEquals(12, PhenotypeDotHpoaFileWriter.getHeaderLine().split("\t").length);
     }
 
+    /**
+     * Writes two OMIM diseases, one DECIPHER disease and the Orphanet fixture, and returns the writer.
+     */
+    private PhenotypeDotHpoaFileWriter writer(Path smallFileDirectory, Path output) throws IOException {
+        Path orphanet = Files.write(directory.resolve("en_product4.xml"),
+                ORPHANET_XML.getBytes(StandardCharsets.ISO_8859_1));
+        Path inheritance = Files.write(directory.resolve("en_product9_ages.xml"),
+                ORPHANET_INHERITANCE_XML.getBytes(StandardCharsets.ISO_8859_1));
+        return PhenotypeDotHpoaFileWriter.factory(ontology, smallFileDirectory.toString(), orphanet.toString(),
+                inheritance.toString(), output.toString(), true, true);
+    }
+
+    private Path smallFileDirectory() throws IOException {
+        Path smallFileDirectory = Files.createDirectory(directory.resolve("annot"));
+        writeSmallFile(smallFileDirectory, "OMIM-600001.tab", VALID_LINE);
+        writeSmallFile(smallFileDirectory, "OMIM-600002.tab", VALID_LINE.replace("OMIM:600001", "OMIM:600002"));
+        writeSmallFile(smallFileDirectory, "DECIPHER-3.tab", VALID_LINE.replace("OMIM:600001", "DECIPHER:3"));
+        Files.writeString(smallFileDirectory.resolve("omit-list.txt"), "#DiseaseId\tReason\n");
+        return smallFileDirectory;
+    }
+
+    private List<String> temporaryFiles() throws IOException {
+        try (Stream<Path> files = Files.list(directory)) {
+            return files.map(path -> path.getFileName().toString())
+                    .filter(name -> name.endsWith(".hpoa.body"))
+                    .collect(Collectors.toList());
+        }
+    }
+
+    /**
+     * The header counts the diseases per database and is followed by the body as it was written, after which the
+     * temporary body file is removed.
+     */
+    @Test
+    public void testOutputBigFile() throws IOException {
+        Path output = directory.resolve("phenotype.hpoa");
+        writer(smallFileDirectory(), output).outputBigFile();
+        List<String> lines = Files.readAllLines(output);
+        assertEquals("#description: \"HPO annotations for rare diseases [2: OMIM; 1: DECIPHER; 2 ORPHANET]\"",
+                lines.get(0));
+        int headerLine = lines.indexOf(PhenotypeDotHpoaFileWriter.getHeaderLine());
+        assertTrue(headerLine > 0);
+        assertTrue(lines.subList(0, headerLine).stream().allMatch(line -> line.startsWith("#")));
+        List<String> body = lines.subList(headerLine + 1, lines.size());
+        assertEquals(5, body.size());
+        // the small files are in directory order, the Orphanet diseases in the order of the XML file
+        assertEquals(List.of("DECIPHER:3", "OMIM:600001", "OMIM:600002"), body.subList(0, 3).stream()
+                .map(line -> line.substring(0, line.indexOf('\t')))
+                .sorted()
+                .collect(Collectors.toList()));
+        assertTrue(body.contains("OMIM:600001\tDisease 1\t\tHP:0001250\tPMID:123\tPCS\t\t\t\t\tP\tHPO:probinson[2020-01-01]"),
+                String.join("\n", body));
+        assertTrue(body.get(3).startsWith("ORPHA:100\tOrpha disease 100\tNOT\tHP:0001250\tORPHA:100\t"), body.get(3));
+        assertTrue(body.get(4).startsWith("ORPHA:101\tOrpha disease 101\tNOT\tHP:0001250\tORPHA:101\t"), body.get(4));
+        assertTrue(Files.readString(output).endsWith("\n"));
+        assertEquals(List.of(), temporaryFiles());
+    }
+
+    /**
+     * The temporary body file is also removed if the big file cannot be written.
+     */
+    @Test
+    public void testTemporaryFileRemovedAfterFailure() throws IOException {
+        Path smallFileDirectory = smallFileDirectory();
+        // a small file with a malformed header stops the run after the body file was created
+        Files.writeString(smallFileDirectory.resolve("OMIM-600004.tab"), "#diseaseID\n" + VALID_LINE + "\n");
+        Path output = directory.resolve("phenotype.hpoa");
+        PhenotypeDotHpoaFileWriter writer = writer(smallFileDirectory, output);
+        assertThrows(HpoAnnotQcException.class, writer::outputBigFile);
+        assertEquals(List.of(), temporaryFiles());
+        assertFalse(Files.exists(output));
+    }
+
 }
@@ -0,0 +1,55 @@
+package org.monarchinitiative.hpoannotqc.annotations;
+
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.monarchinitiative.hpoannotqc.TestResources;
+
+import java.util.List;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.monarchinitiative.hpoannotqc.TestResources.HEADER;
+import static org.monarchinitiative.hpoannotqc.TestResources.INVALID_LINE;
+import static org.monarchinitiative.hpoannotqc.TestResources.VALID_LINE;
+
+public class SmallFileCheckerTest {
+
+    private static SmallFileChecker checker;
+
+    @BeforeAll
+    public static void init() {
+        checker = new SmallFileChecker(TestResources.smallHpo());
+    }
+
+    @Test
+    public void testValidFile() {
+        assertTrue(checker.check(String.join("\n", HEADER, VALID_LINE, VALID_LINE) + "\n").isEmpty());
+    }
+
+    /**
+     * All lines are checked, and the problems have the line numbers of the file (the header is line 1).
+     */
+    @Test
+    public void testErrorsWithLineNumbers() {
+        String content = String.join("\n", HEADER,
+                VALID_LINE,
+                INVALID_LINE,
+                "OMIM:600001\tDisease 1",
+                VALID_LINE.replace("\tPMID:123\t", "\tPMD:123\t"));
+        List<String> errors = checker.check(content).stream()
+                .map(SmallFileChecker.LineError::toString)
+                .collect(Collectors.toList());
+        assertEquals(3, errors.size());
+        assertEquals("3: Disease 1 - Invalid evidence code: \"XYZ\"", errors.get(0));
+        assertTrue(errors.get(1).startsWith("4: "), errors.get(1));
+        assertEquals("5: Disease 1 - Did not recognize publication prefix: \"PMD:123\" ", errors.get(2));
+    }
+
+    @Test
+    public void testMalformedHeader() {
+        List<SmallFileChecker.LineError> errors = checker.check(String.join("\n", "#diseaseID", VALID_LINE));
+        assertEquals(1, errors.size());
+        assertEquals(1, errors.get(0).getLine());
+    }
+}
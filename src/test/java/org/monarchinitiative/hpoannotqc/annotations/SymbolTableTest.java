@@ -0,0 +1,60 @@
+package org.monarchinitiative.hpoannotqc.annotations;
+
+import org.junit.jupiter.api.Test;
+import org.monarchinitiative.phenol.ontology.data.TermId;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+
+public class SymbolTableTest {
+
+    @Test
+    public void testEqualValuesShareOneInstance() {
+        SymbolTable symbols = new SymbolTable();
+        String first = new String("PMID:12345");
+        String second = new String("PMID:12345");
+        assertSame(symbols.canonical(first), symbols.canonical(second));
+        assertSame(symbols.canonical(TermId.of("HP:0001250")), symbols.canonical(TermId.of("HP:0001250")));
+        assertNull(symbols.canonical((String) null));
+    }
+
+    @Test
+    public void testConstantsAreTheLiterals() {
+        SymbolTable symbols = new SymbolTable();
+        assertSame("NOT", symbols.canonical(new String("NOT")));
+        assertSame("PCS", symbols.canonical(new String("PCS")));
+        assertSame("", symbols.canonical(new String("")));
+    }
+
+    /**
+     * Each run has its own table, so the values of one run are not kept by another.
+     */
+    @Test
+    public void testTablesAreIndependent() {
+        SymbolTable first = new SymbolTable();
+        SymbolTable second = new SymbolTable();
+        String value = first.canonical(new String("PMID:12345"));
+        assertEquals(first.size() - 1, second.size());
+        assertNotSame(value, second.canonical(new String("PMID:12345")));
+    }
+
+    @Test
+    public void testEntriesOfATableShareFieldValues() {
+        HpoAnnotationEntry first = new HpoAnnotationEntry(new String("OMIM:600001"), new String("Disease 1"),
+                TermId.of("HP:0001250"), "Seizure", "", "", "", "", new String("NOT"), "", "", "PMID:1", "PCS",
+                "HPO:probinson[2020-01-01]");
+        HpoAnnotationEntry second = new HpoAnnotationEntry(new String("OMIM:600001"), new String("Disease 1"),
+                TermId.of("HP:0001250"), "Seizure", "", "", "", "", new String("NOT"), "", "", "PMID:1", "PCS",
+                "HPO:probinson[2020-01-01]");
+        List<HpoAnnotationEntry> entries = AnnotationTable.of(List.of(first, second), new SymbolTable()).asList();
+        assertSame(entries.get(0).getDiseaseID(), entries.get(1).getDiseaseID());
+        assertSame(entries.get(0).getDiseaseName(), entries.get(1).getDiseaseName());
+        assertSame(entries.get(0).getPhenotypeId(), entries.get(1).getPhenotypeId());
+        assertSame("NOT", entries.get(0).getNegation());
+        assertEquals("OMIM:600001", entries.get(0).getDiseaseID());
+    }
+}
@@ -0,0 +1,42 @@
+package org.monarchinitiative.hpoannotqc.annotations;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class TabSeparatedLineTest {
+
+    @Test
+    public void testFields() {
+        String line = "OMIM:209770\tBRONCHIECTASIS\tHP:0002110\tBronchiectasis\t\t\t\t\t\t\t\tOMIM:209770\tIEA\tHPO:iea[2009-02-17]";
+        TabSeparatedLine fields = new TabSeparatedLine(line, 14);
+        assertEquals(14, fields.fieldCount());
+        assertEquals("OMIM:209770", fields.field(0));
+        assertEquals("HP:0002110", fields.field(2));
+        assertEquals("", fields.field(4));
+        assertEquals("IEA", fields.field(12));
+        assertEquals("HPO:iea[2009-02-17]", fields.field(13));
+    }
+
+    /**
+     * The number of fields must be the same as with String#split, which drops trailing empty fields.
+     */
+    @ParameterizedTest
+    @ValueSource(strings = {"", "a", "\t", "\t\t", "a\tb", "a\t\tb", "a\tb\t", "a\tb\t\t", "\ta", "\t\ta\t", "a\t\t\t\tb\t\t"})
+    public void testFieldCountSameAsSplit(String line) {
+        String[] expected = line.split("\t");
+        TabSeparatedLine fields = new TabSeparatedLine(line, 3);
+        assertEquals(expected.length, fields.fieldCount());
+        for (int i = 0; i < Math.min(3, expected.length); i++) {
+            assertEquals(expected[i], fields.field(i));
+        }
+    }
+
+    @Test
+    public void testFieldOutOfBounds() {
+        TabSeparatedLine fields = new TabSeparatedLine("a\tb", 14);
+        assertThrows(IndexOutOfBoundsException.class, () -> fields.field(2));
+    }
+}
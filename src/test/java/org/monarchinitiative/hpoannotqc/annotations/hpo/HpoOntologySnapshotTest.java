@@ -0,0 +1,113 @@
+package org.monarchinitiative.hpoannotqc.annotations.hpo;
+
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.monarchinitiative.phenol.ontology.data.ImmutableOntology;
+import org.monarchinitiative.phenol.ontology.data.Ontology;
+import org.monarchinitiative.phenol.ontology.data.Relationship;
+import org.monarchinitiative.phenol.ontology.data.RelationshipType;
+import org.monarchinitiative.phenol.ontology.data.Term;
+import org.monarchinitiative.phenol.ontology.data.TermId;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class HpoOntologySnapshotTest {
+
+    private static final TermId ALL = TermId.of("HP:0000001");
+    private static final TermId PHENOTYPIC_ABNORMALITY = TermId.of("HP:0000118");
+    private static final TermId SEIZURE = TermId.of("HP:0001250");
+    private static final TermId SEIZURE_ALT = TermId.of("HP:0002266");
+    private static final TermId ONSET = TermId.of("HP:0003674");
+    private static final TermId CHILDHOOD_ONSET = TermId.of("HP:0011463");
+    private static final TermId OBSOLETE = TermId.of("HP:0000489");
+
+    private static Ontology hpo;
+
+    @BeforeAll
+    public static void init() {
+        List<Term> terms = List.of(
+                Term.of(ALL, "All"),
+                Term.of(PHENOTYPIC_ABNORMALITY, "Phenotypic abnormality"),
+                Term.builder(SEIZURE).name("Seizure").altTermIds(List.of(SEIZURE_ALT)).build(),
+                Term.of(TermId.of("HP:0000005"), "Mode of inheritance"),
+                Term.of(TermId.of("HP:0012823"), "Clinical modifier"),
+                Term.of(TermId.of("HP:0031797"), "Clinical course"),
+                Term.of(ONSET, "Onset"),
+                Term.of(CHILDHOOD_ONSET, "Childhood onset"),
+                Term.builder(OBSOLETE).name("obsolete Abnormality of globe location").obsolete(true).build());
+        List<Relationship> relationships = List.of(
+                new Relationship(PHENOTYPIC_ABNORMALITY, ALL, 1, RelationshipType.IS_A),
+                new Relationship(SEIZURE, PHENOTYPIC_ABNORMALITY, 2, RelationshipType.IS_A),
+                new Relationship(TermId.of("HP:0000005"), ALL, 3, RelationshipType.IS_A),
+                new Relationship(TermId.of("HP:0012823"), ALL, 4, RelationshipType.IS_A),
+                new Relationship(TermId.of("HP:0031797"), TermId.of("HP:0012823"), 5, RelationshipType.IS_A),
+                new Relationship(ONSET, TermId.of("HP:0031797"), 6, RelationshipType.IS_A),
+                new Relationship(CHILDHOOD_ONSET, ONSET, 7, RelationshipType.IS_A));
+        hpo = ImmutableOntology.builder()
+                .metaInfo(Map.of("data-version", "hp/releases/2024-04-19", "release", "2024-04-19"))
+                .terms(terms)
+                .relationships(relationships)
+                .build();
+    }
+
+    @Test
+    public void testSnapshotPath() {
+        assertEquals(Path.of("data", "hp.snapshot"), HpoOntologySnapshot.snapshotPath(Path.of("data", "hp.json")));
+    }
+
+    @Test
+    public void testRoundTrip(@TempDir Path dir) throws IOException {
+        Path snapshot = dir.resolve("hp.snapshot");
+        HpoOntologySnapshot.write(hpo, "abc", snapshot);
+        Ontology copy = HpoOntologySnapshot.read(snapshot, "abc");
+        assertNotNull(copy);
+        assertEquals(hpo.getMetaInfo(), copy.getMetaInfo());
+        assertEquals(hpo.getRootTermId(), copy.getRootTermId());
+        assertEquals(hpo.nonObsoleteTermIdsStream().collect(Collectors.toSet()),
+                copy.nonObsoleteTermIdsStream().collect(Collectors.toSet()));
+        assertEquals(hpo.obsoleteTermIdsStream().collect(Collectors.toSet()),
+                copy.obsoleteTermIdsStream().collect(Collectors.toSet()));
+        assertEquals(SEIZURE, copy.getPrimaryTermId(SEIZURE_ALT));
+        assertEquals("Seizure", copy.getTermLabel(SEIZURE_ALT).orElseThrow());
+        assertTrue(copy.graph().existsPath(CHILDHOOD_ONSET, ALL));
+        assertFalse(copy.graph().existsPath(SEIZURE, ONSET));
+        for (TermId tid : hpo.graph()) {
+            assertEquals(hpo.graph().getParents(tid), copy.graph().getParents(tid));
+        }
+        HpoSubOntologyIndex index = HpoSubOntologyIndex.of(copy);
+        assertTrue(index.isMember(CHILDHOOD_ONSET, HpoSubOntology.ONSET));
+        assertTrue(index.isMember(CHILDHOOD_ONSET, HpoSubOntology.CLINICAL_MODIFIER));
+        assertFalse(index.isMember(ONSET, HpoSubOntology.ONSET));
+        assertTrue(index.isMember(SEIZURE, HpoSubOntology.PHENOTYPIC_ABNORMALITY));
+    }
+
+    /**
+     * A snapshot that was created from a different hp.json must not be used.
+     */
+    @Test
+    public void testStaleSnapshot(@TempDir Path dir) throws IOException {
+        Path snapshot = dir.resolve("hp.snapshot");
+        HpoOntologySnapshot.write(hpo, "abc", snapshot);
+        assertNull(HpoOntologySnapshot.read(snapshot, "def"));
+    }
+
+    /**
+     * The digest of a file and of its contents are the same SHA-256 hex string.
+     */
+    @Test
+    public void testDigest(@TempDir Path dir) throws IOException {
+        byte[] content = "abc".getBytes(StandardCharsets.US_ASCII);
+        String expected = "ba7816bf8f01cfea414140de5dae2223b00361a396177a9cb410ff61f20015ad";
+        assertEquals(expected, HpoOntologySnapshot.digest(content));
+        assertEquals(expected, HpoOntologySnapshot.digest(Files.write(dir.resolve("abc.txt"), content)));
+    }
+}
@@ -0,0 +1,108 @@
+package org.monarchinitiative.hpoannotqc.annotations.hpo;
+
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.monarchinitiative.phenol.graph.NodeNotPresentInGraphException;
+import org.monarchinitiative.phenol.ontology.data.ImmutableOntology;
+import org.monarchinitiative.phenol.ontology.data.Ontology;
+import org.monarchinitiative.phenol.ontology.data.Relationship;
+import org.monarchinitiative.phenol.ontology.data.RelationshipType;
+import org.monarchinitiative.phenol.ontology.data.Term;
+import org.monarchinitiative.phenol.ontology.data.TermId;
+
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class HpoSubOntologyIndexTest {
+
+    private static final TermId ALL = TermId.of("HP:0000001");
+    private static final TermId PHENOTYPIC_ABNORMALITY = TermId.of("HP:0000118");
+    private static final TermId SEIZURE = TermId.of("HP:0001250");
+    private static final TermId CLINICAL_MODIFIER = TermId.of("HP:0012823");
+    private static final TermId CLINICAL_COURSE = TermId.of("HP:0031797");
+    private static final TermId ONSET = TermId.of("HP:0003674");
+    private static final TermId CHILDHOOD_ONSET = TermId.of("HP:0011463");
+
+    private static Ontology hpo;
+
+    private static HpoSubOntologyIndex index;
+
+    @BeforeAll
+    public static void init() {
+        List<Term> terms = List.of(
+                Term.of(ALL, "All"),
+                Term.of(PHENOTYPIC_ABNORMALITY, "Phenotypic abnormality"),
+                Term.of(SEIZURE, "Seizure"),
+                Term.of(CLINICAL_MODIFIER, "Clinical modifier"),
+                Term.of(CLINICAL_COURSE, "Clinical course"),
+                Term.of(ONSET, "Onset"),
+                Term.of(CHILDHOOD_ONSET, "Childhood onset"));
+        List<Relationship> relationships = List.of(
+                new Relationship(PHENOTYPIC_ABNORMALITY, ALL, 1, RelationshipType.IS_A),
+                new Relationship(SEIZURE, PHENOTYPIC_ABNORMALITY, 2, RelationshipType.IS_A),
+                new Relationship(CLINICAL_MODIFIER, ALL, 3, RelationshipType.IS_A),
+                new Relationship(CLINICAL_COURSE, CLINICAL_MODIFIER, 4, RelationshipType.IS_A),
+                new Relationship(ONSET, CLINICAL_COURSE, 5, RelationshipType.IS_A),
+                new Relationship(CHILDHOOD_ONSET, ONSET, 6, RelationshipType.IS_A));
+        hpo = ImmutableOntology.builder()
+                .metaInfo(Map.of())
+                .terms(terms)
+                .relationships(relationships)
+                .build();
+        index = HpoSubOntologyIndex.of(hpo);
+    }
+
+    /**
+     * A term is a member of the sub-ontologies of all of its ancestors.
+     */
+    @Test
+    public void testMembership() {
+        assertTrue(index.isMember(CHILDHOOD_ONSET, HpoSubOntology.ONSET));
+        assertTrue(index.isMember(CHILDHOOD_ONSET, HpoSubOntology.CLINICAL_COURSE));
+        assertTrue(index.isMember(CHILDHOOD_ONSET, HpoSubOntology.CLINICAL_MODIFIER));
+        assertFalse(index.isMember(CHILDHOOD_ONSET, HpoSubOntology.PHENOTYPIC_ABNORMALITY));
+        assertTrue(index.isMember(SEIZURE, HpoSubOntology.PHENOTYPIC_ABNORMALITY));
+        assertFalse(index.isMember(SEIZURE, HpoSubOntology.ONSET));
+        // the root of the frequency sub-ontology is not in this ontology
+        assertFalse(index.isMember(SEIZURE, HpoSubOntology.FREQUENCY));
+    }
+
+    /**
+     * As with {@code existsPath}, the root of a sub-ontology is not a member of it.
+     */
+    @Test
+    public void testRootIsNotAMember() {
+        assertFalse(index.isMember(ONSET, HpoSubOntology.ONSET));
+        assertFalse(index.isMember(PHENOTYPIC_ABNORMALITY, HpoSubOntology.PHENOTYPIC_ABNORMALITY));
+        assertTrue(index.isMember(ONSET, HpoSubOntology.CLINICAL_COURSE));
+    }
+
+    @Test
+    public void testSameAsExistsPath() {
+        for (TermId tid : hpo.graph()) {
+            for (HpoSubOntology subOntology : HpoSubOntology.values()) {
+                if (hpo.containsTermId(subOntology.root())) {
+                    assertEquals(hpo.graph().existsPath(tid, subOntology.root()), index.isMember(tid, subOntology),
+                            tid + " in " + subOntology);
+                }
+            }
+        }
+    }
+
+    @Test
+    public void testUnknownTerm() {
+        assertThrows(NodeNotPresentInGraphException.class,
+                () -> index.isMember(TermId.of("HP:9999999"), HpoSubOntology.ONSET));
+    }
+
+    @Test
+    public void testIndexIsReused() {
+        assertSame(index, HpoSubOntologyIndex.of(hpo));
+    }
+}
@@ -0,0 +1,26 @@
+package org.monarchinitiative.hpoannotqc.annotations.hpoaerror;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class HpoaErrorAbstractTest {
+
+    @Test
+    public void testMessageIsFormattedWhenRequested() {
+        HpoaError error = new HpoAnnotationModelError("Disease 1", "Malformed frequency term: \"%s\"", "120%");
+        assertEquals("Malformed frequency term: \"120%\"", error.getMessage());
+        assertEquals("Disease 1 - Malformed frequency term: \"120%\"", error.getMessageWithDisease());
+    }
+
+    /**
+     * A message without arguments is not a format string, so it may contain '%'.
+     */
+    @Test
+    public void testMessageWithoutArguments() {
+        HpoaError error = new HpoaSkippableError("Disease 1", "frequency of 50% is not allowed here");
+        assertEquals("frequency of 50% is not allowed here", error.getMessage());
+        assertTrue(error.skippable());
+    }
+}
@@ -0,0 +1,68 @@
+package org.monarchinitiative.hpoannotqc.cmd;
+
+import org.junit.jupiter.api.Test;
+import org.monarchinitiative.phenol.ontology.data.TermId;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class DiseaseIntersectionIndexTest {
+
+    private static final TermId SEIZURE = TermId.of("HP:0001250");
+    private static final TermId ATAXIA = TermId.of("HP:0001251");
+    private static final TermId GENE1 = TermId.of("NCBIGene:1001");
+    private static final TermId GENE2 = TermId.of("NCBIGene:1002");
+    private static final TermId OMIM1 = TermId.of("OMIM:600001");
+    private static final TermId OMIM2 = TermId.of("OMIM:600002");
+    private static final TermId ORPHA1 = TermId.of("ORPHA:100");
+
+    private final DiseaseIntersectionIndex index = new DiseaseIntersectionIndex(
+            Map.of(SEIZURE, Set.of(ORPHA1, OMIM2, OMIM1), ATAXIA, Set.of(OMIM2)),
+            Map.of(GENE1, List.of(ORPHA1, OMIM1), GENE2, List.of(OMIM2)));
+
+    @Test
+    public void testIntersection() {
+        assertEquals(List.of(OMIM1, ORPHA1), index.intersectingDiseases(SEIZURE, GENE1));
+        assertEquals(List.of(OMIM2), index.intersectingDiseases(SEIZURE, GENE2));
+        assertEquals(List.of(), index.intersectingDiseases(ATAXIA, GENE1));
+    }
+
+    @Test
+    public void testUnknownPhenotypeOrGene() {
+        assertEquals(List.of(), index.intersectingDiseases(TermId.of("HP:0000486"), GENE1));
+        assertEquals(List.of(), index.intersectingDiseases(SEIZURE, TermId.of("NCBIGene:9999")));
+    }
+
+    /**
+     * Lookups from several threads get the same results as a single thread.
+     */
+    @Test
+    public void testConcurrentLookups() throws InterruptedException {
+        ExecutorService executor = Executors.newFixedThreadPool(4);
+        try {
+            List<Callable<Boolean>> lookups = new ArrayList<>();
+            for (int i = 0; i < 100; i++) {
+                lookups.add(() -> index.intersectingDiseases(SEIZURE, GENE1).equals(List.of(OMIM1, ORPHA1))
+                        && index.intersectingDiseases(SEIZURE, GENE2).equals(List.of(OMIM2))
+                        && index.intersectingDiseases(ATAXIA, GENE1).isEmpty());
+            }
+            for (Future<Boolean> result : executor.invokeAll(lookups)) {
+                assertTrue(result.get());
+            }
+        } catch (ExecutionException e) {
+            throw new AssertionError(e.getCause());
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+}
@@ -0,0 +1,102 @@
+package org.monarchinitiative.hpoannotqc.cmd;
+
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.monarchinitiative.phenol.annotations.formats.hpo.HpoGeneAnnotation;
+import org.monarchinitiative.phenol.ontology.data.ImmutableOntology;
+import org.monarchinitiative.phenol.ontology.data.Ontology;
+import org.monarchinitiative.phenol.ontology.data.Relationship;
+import org.monarchinitiative.phenol.ontology.data.RelationshipType;
+import org.monarchinitiative.phenol.ontology.data.Term;
+import org.monarchinitiative.phenol.ontology.data.TermId;
+
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+public class GeneSetPropagatorTest {
+
+    private static final TermId ALL = TermId.of("HP:0000001");
+    private static final TermId PHENOTYPIC_ABNORMALITY = TermId.of("HP:0000118");
+    private static final TermId NERVOUS_SYSTEM = TermId.of("HP:0000707");
+    private static final TermId SEIZURE = TermId.of("HP:0001250");
+    private static final TermId ATAXIA = TermId.of("HP:0001251");
+    private static final TermId EYE = TermId.of("HP:0000478");
+    private static final TermId OMIM_1 = TermId.of("OMIM:600001");
+    private static final TermId OMIM_2 = TermId.of("OMIM:600002");
+    private static final TermId OMIM_3 = TermId.of("OMIM:600003");
+    private static final TermId OMIM_4 = TermId.of("OMIM:600004");
+
+    private static GeneSetPropagator propagator;
+
+    @BeforeAll
+    public static void init() {
+        List<Term> terms = List.of(
+                Term.of(ALL, "All"),
+                Term.of(PHENOTYPIC_ABNORMALITY, "Phenotypic abnormality"),
+                Term.of(NERVOUS_SYSTEM, "Abnormality of the nervous system"),
+                Term.of(SEIZURE, "Seizure"),
+                Term.of(ATAXIA, "Ataxia"),
+                Term.of(EYE, "Abnormality of the eye"));
+        List<Relationship> relationships = List.of(
+                new Relationship(PHENOTYPIC_ABNORMALITY, ALL, 1, RelationshipType.IS_A),
+                new Relationship(NERVOUS_SYSTEM, PHENOTYPIC_ABNORMALITY, 2, RelationshipType.IS_A),
+                new Relationship(SEIZURE, NERVOUS_SYSTEM, 3, RelationshipType.IS_A),
+                new Relationship(ATAXIA, NERVOUS_SYSTEM, 4, RelationshipType.IS_A),
+                new Relationship(EYE, PHENOTYPIC_ABNORMALITY, 5, RelationshipType.IS_A));
+        Ontology hpo = ImmutableOntology.builder()
+                .metaInfo(Map.of())
+                .terms(terms)
+                .relationships(relationships)
+                .build();
+        Map<TermId, List<HpoGeneAnnotation>> phenotypeToGene = Map.of(
+                SEIZURE, List.of(new HpoGeneAnnotation(2, "GENE2", SEIZURE, "Seizure"),
+                        new HpoGeneAnnotation(1, "GENE1", SEIZURE, "Seizure")),
+                ATAXIA, List.of(new HpoGeneAnnotation(1, "GENE1", ATAXIA, "Ataxia"),
+                        new HpoGeneAnnotation(3, "GENE3", ATAXIA, "Ataxia")),
+                EYE, List.of(new HpoGeneAnnotation(4, "GENE4", EYE, "Abnormality of the eye"),
+                        new HpoGeneAnnotation(5, "GENE5", EYE, "Abnormality of the eye")));
+        // key: phenotype and gene; value: the diseases they have in common (none for GENE5)
+        Map<String, List<TermId>> intersectingDiseases = Map.of(
+                "HP:0001250/NCBIGene:2", List.of(OMIM_2),
+                "HP:0001250/NCBIGene:1", List.of(OMIM_3, OMIM_1),
+                "HP:0001251/NCBIGene:1", List.of(OMIM_1, OMIM_4),
+                "HP:0001251/NCBIGene:3", List.of(OMIM_3),
+                "HP:0000478/NCBIGene:4", List.of(OMIM_4));
+        propagator = new GeneSetPropagator(hpo, phenotypeToGene,
+                (phenotype, gene) -> intersectingDiseases.getOrDefault(phenotype + "/" + gene, List.of()));
+    }
+
+    private static List<String> genesAndDiseases(TermId tid) {
+        return propagator.inheritedGeneDiseases(tid).stream()
+                .map(gd -> gd.annotation().getEntrezGeneId() + "@" + gd.disease().getValue())
+                .collect(Collectors.toList());
+    }
+
+    /**
+     * The diseases of a gene are sorted, and genes without intersecting diseases have no lines.
+     */
+    @Test
+    public void testLeaf() {
+        assertEquals(List.of("2@OMIM:600002", "1@OMIM:600001", "1@OMIM:600003"), genesAndDiseases(SEIZURE));
+        assertEquals(List.of("4@OMIM:600004"), genesAndDiseases(EYE));
+    }
+
+    /**
+     * The diseases of a gene are the union over the annotations of all descendants with the gene, and the genes are
+     * in the order of the smallest TermId that contributes a disease.
+     */
+    @Test
+    public void testInheritedFromChildren() {
+        assertEquals(List.of("2@OMIM:600002", "1@OMIM:600001", "1@OMIM:600003", "1@OMIM:600004", "3@OMIM:600003"),
+                genesAndDiseases(NERVOUS_SYSTEM));
+    }
+
+    @Test
+    public void testRoot() {
+        assertEquals(List.of("4@OMIM:600004", "2@OMIM:600002", "1@OMIM:600001", "1@OMIM:600003", "1@OMIM:600004",
+                "3@OMIM:600003"), genesAndDiseases(ALL));
+    }
+}
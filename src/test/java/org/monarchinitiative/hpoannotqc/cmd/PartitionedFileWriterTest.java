@@ -0,0 +1,107 @@
+package org.monarchinitiative.hpoannotqc.cmd;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.locks.LockSupport;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+public class PartitionedFileWriterTest {
+
+    private static final List<String> HEADER = List.of("item", "line");
+
+    @TempDir
+    Path directory;
+
+    /**
+     * Item {@code i} has {@code i % 3} lines (so some items have none); every 50th item takes a millisecond, so that
+     * the partitions finish out of order.
+     */
+    private static void appendLines(Integer item, StringBuilder chunk) {
+        if (item % 50 == 0) {
+            LockSupport.parkNanos(1_000_000);
+        }
+        for (int line = 0; line < item % 3; line++) {
+            chunk.append(item).append('\t').append(line).append(System.lineSeparator());
+        }
+    }
+
+    private static String expected(List<Integer> items) {
+        StringBuilder sb = new StringBuilder(String.join("\t", HEADER)).append(System.lineSeparator());
+        for (Integer item : items) {
+            appendLines(item, sb);
+        }
+        return sb.toString();
+    }
+
+    private String write(List<Integer> items, int threads, int partitionsPerThread) throws IOException {
+        ExecutorService workers = Executors.newFixedThreadPool(threads);
+        try {
+            Path path = directory.resolve("out-" + threads + "-" + partitionsPerThread + ".txt");
+            new PartitionedFileWriter(workers, threads, partitionsPerThread)
+                    .write(path, HEADER, items, PartitionedFileWriterTest::appendLines);
+            return Files.readString(path);
+        } finally {
+            workers.shutdownNow();
+        }
+    }
+
+    /**
+     * The output is the same as writing the items one by one, for any number of threads and partitions, including
+     * more partitions than items.
+     */
+    @Test
+    public void testOutputDoesNotDependOnThreadsOrPartitions() throws IOException {
+        for (int nItems : new int[]{0, 1, 5, 1000}) {
+            List<Integer> items = IntStream.range(0, nItems).boxed().collect(Collectors.toList());
+            String expected = expected(items);
+            for (int threads : new int[]{1, 2, 4, 7}) {
+                for (int partitionsPerThread : new int[]{1, 3, 16}) {
+                    assertEquals(expected, write(items, threads, partitionsPerThread),
+                            nItems + " items, " + threads + " threads, " + partitionsPerThread + " partitions/thread");
+                }
+            }
+        }
+    }
+
+    /**
+     * An existing file is replaced, not overwritten in place.
+     */
+    @Test
+    public void testReplacesExistingFile() throws IOException {
+        Path path = directory.resolve("out.txt");
+        Files.writeString(path, "x".repeat(10_000));
+        ExecutorService workers = Executors.newFixedThreadPool(2);
+        try {
+            new PartitionedFileWriter(workers, 2)
+                    .write(path, HEADER, List.of(1, 2), PartitionedFileWriterTest::appendLines);
+        } finally {
+            workers.shutdownNow();
+        }
+        assertEquals(expected(List.of(1, 2)), Files.readString(path));
+    }
+
+    @Test
+    public void testFormatterException() {
+        ExecutorService workers = Executors.newFixedThreadPool(2);
+        try {
+            PartitionedFileWriter writer = new PartitionedFileWriter(workers, 2);
+            assertThrows(IllegalStateException.class, () -> writer.write(directory.resolve("out.txt"), HEADER,
+                    List.of(1, 2, 3), (item, chunk) -> {
+                        throw new IllegalStateException("item " + item);
+                    }));
+        } finally {
+            workers.shutdownNow();
+        }
+    }
+}
@@ -0,0 +1,178 @@
+package org.monarchinitiative.hpoannotqc.cmd;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.monarchinitiative.hpoannotqc.TestResources;
+import org.monarchinitiative.hpoannotqc.annotations.SmallFileChecker;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.InetAddress;
+import java.net.Socket;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.FileTime;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.monarchinitiative.hpoannotqc.TestResources.HEADER;
+import static org.monarchinitiative.hpoannotqc.TestResources.INVALID_LINE;
+import static org.monarchinitiative.hpoannotqc.TestResources.VALID_LINE;
+import static org.monarchinitiative.hpoannotqc.TestResources.writeSmallFile;
+
+public class QcServerTest {
+
+    @TempDir
+    Path directory;
+
+    private Path hpJson;
+
+    private Path annotationDirectory;
+
+    private QcServer server;
+
+    @BeforeEach
+    public void init() throws IOException {
+        hpJson = Files.copy(TestResources.path("hp-small.json"), directory.resolve("hp.json"));
+        annotationDirectory = Files.createDirectory(directory.resolve("annot"));
+        server = new QcServer(hpJson, annotationDirectory, 0, 1);
+        server.start();
+    }
+
+    @AfterEach
+    public void stop() {
+        server.stop();
+    }
+
+    /**
+     * Sends a request with the given {@code Host} header (which {@code HttpClient} does not allow to set).
+     *
+     * @return the status line and the body of the response
+     */
+    private String[] request(String method, String target, String host, String body) throws IOException {
+        try (Socket socket = new Socket(InetAddress.getLoopbackAddress(), server.port())) {
+            byte[] content = body.getBytes(StandardCharsets.UTF_8);
+            String head = method + " " + target + " HTTP/1.1\r\n"
+                    + "Host: " + host + "\r\n"
+                    + "Content-Length: " + content.length + "\r\n"
+                    + "Connection: close\r\n\r\n";
+            OutputStream out = socket.getOutputStream();
+            out.write(head.getBytes(StandardCharsets.US_ASCII));
+            out.write(content);
+            out.flush();
+            InputStream in = socket.getInputStream();
+            String response = new String(in.readAllBytes(), StandardCharsets.UTF_8);
+            return new String[]{response.substring(0, response.indexOf("\r\n")),
+                    response.substring(response.indexOf("\r\n\r\n") + 4)};
+        }
+    }
+
+    private String[] get(String path) throws IOException {
+        return request("GET", "/check?path=" + path, "localhost:" + server.port(), "");
+    }
+
+    @Test
+    public void testQuote() {
+        assertEquals("\"OMIM-600123.tab\"", QcServer.quote("OMIM-600123.tab"));
+        assertEquals("\"a\\\"b\\\\c\\td\\ne\\u0001\"", QcServer.quote("a\"b\\c\td\ne\u0001"));
+    }
+
+    @Test
+    public void testResult() {
+        SmallFileChecker checker = server.checker();
+        assertEquals("{\"file\":\"OMIM-600001.tab\",\"valid\":true,\"errors\":[]}",
+                QcServer.result("OMIM-600001.tab", checker.check(HEADER + "\n" + VALID_LINE + "\n")));
+        List<SmallFileChecker.LineError> errors = checker.check(HEADER + "\n" + INVALID_LINE);
+        assertEquals("{\"file\":\"OMIM-600002.tab\",\"valid\":false,\"errors\":[{\"line\":2,\"disease\":\"Disease 1\","
+                        + "\"message\":\"Invalid evidence code: \\\"XYZ\\\"\",\"skippable\":false}]}",
+                QcServer.result("OMIM-600002.tab", errors));
+    }
+
+    @Test
+    public void testIsLoopbackHost() {
+        assertTrue(QcServer.isLoopbackHost(null));
+        assertTrue(QcServer.isLoopbackHost("localhost:8086"));
+        assertTrue(QcServer.isLoopbackHost("LOCALHOST"));
+        assertTrue(QcServer.isLoopbackHost("127.0.0.1:8086"));
+        assertTrue(QcServer.isLoopbackHost("[::1]:8086"));
+        assertFalse(QcServer.isLoopbackHost("example.org"));
+        assertFalse(QcServer.isLoopbackHost("localhost.example.org:8086"));
+        assertFalse(QcServer.isLoopbackHost("127.0.0.1.example.org"));
+        assertFalse(QcServer.isLoopbackHost("[::2]:8086"));
+    }
+
+    @Test
+    public void testCheckByPath() throws IOException {
+        writeSmallFile(annotationDirectory, "OMIM-600001.tab", VALID_LINE);
+        writeSmallFile(annotationDirectory, "OMIM-600002.tab", INVALID_LINE);
+        String[] valid = get("OMIM-600001.tab");
+        assertEquals("HTTP/1.1 200 OK", valid[0]);
+        assertEquals("{\"file\":\"OMIM-600001.tab\",\"valid\":true,\"errors\":[]}", valid[1]);
+        String[] invalid = get(annotationDirectory.resolve("OMIM-600002.tab").toString());
+        assertTrue(invalid[0].startsWith("HTTP/1.1 200"));
+        assertTrue(invalid[1].contains("\"valid\":false"));
+    }
+
+    /**
+     * {@code GET} only reads {@code .tab} files in the annotation directory.
+     */
+    @Test
+    public void testCheckByPathIsRestricted() throws IOException {
+        Files.writeString(annotationDirectory.resolve("omit-list.txt"), "OMIM:600003\n");
+        writeSmallFile(directory, "OMIM-600003.tab", VALID_LINE);
+        assertTrue(get("OMIM-600004.tab")[0].startsWith("HTTP/1.1 404"));
+        assertTrue(get("omit-list.txt")[0].startsWith("HTTP/1.1 403"));
+        assertTrue(get("../OMIM-600003.tab")[0].startsWith("HTTP/1.1 403"));
+        assertTrue(get(directory.resolve("OMIM-600003.tab").toString())[0].startsWith("HTTP/1.1 403"));
+        assertTrue(get("../hp.json")[0].startsWith("HTTP/1.1 403"));
+    }
+
+    @Test
+    public void testCheckByPathWithoutAnnotationDirectory() throws IOException {
+        writeSmallFile(annotationDirectory, "OMIM-600001.tab", VALID_LINE);
+        server.stop();
+        server = new QcServer(hpJson, null, 0, 1);
+        server.start();
+        assertTrue(get("OMIM-600001.tab")[0].startsWith("HTTP/1.1 403"));
+        String[] posted = request("POST", "/check?name=OMIM-600001.tab", "localhost", HEADER + "\n" + VALID_LINE);
+        assertTrue(posted[0].startsWith("HTTP/1.1 200"));
+        assertTrue(posted[1].contains("\"valid\":true"));
+    }
+
+    @Test
+    public void testForbiddenHost() throws IOException {
+        writeSmallFile(annotationDirectory, "OMIM-600001.tab", VALID_LINE);
+        assertTrue(request("GET", "/status", "example.org", "")[0].startsWith("HTTP/1.1 403"));
+        assertTrue(request("GET", "/check?path=OMIM-600001.tab", "example.org:" + server.port(), "")[0]
+                .startsWith("HTTP/1.1 403"));
+        assertTrue(request("GET", "/status", "127.0.0.1:" + server.port(), "")[0].startsWith("HTTP/1.1 200"));
+    }
+
+    /**
+     * The checker is kept while {@code hp.json} is unchanged, replaced when it changes, and kept if the changed
+     * file cannot be loaded.
+     */
+    @Test
+    public void testReload() throws IOException {
+        SmallFileChecker first = server.checker();
+        assertSame(first, server.checker());
+        String json = Files.readString(hpJson);
+        Files.writeString(hpJson, json.replace("2024-04-19", "2024-06-01"));
+        Files.setLastModifiedTime(hpJson, FileTime.fromMillis(System.currentTimeMillis() + 60_000));
+        SmallFileChecker second = server.checker();
+        assertNotSame(first, second);
+        assertSame(second, server.checker());
+        Files.writeString(hpJson, "{");
+        Files.setLastModifiedTime(hpJson, FileTime.fromMillis(System.currentTimeMillis() + 120_000));
+        assertSame(second, server.checker());
+        assertSame(second, server.checker());
+    }
+}
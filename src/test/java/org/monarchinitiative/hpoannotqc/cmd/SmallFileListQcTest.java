@@ -0,0 +1,82 @@
+package org.monarchinitiative.hpoannotqc.cmd;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.monarchinitiative.hpoannotqc.TestResources;
+import org.monarchinitiative.hpoannotqc.annotations.SmallFileChecker;
+
+import java.io.BufferedReader;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.PrintStream;
+import java.io.StringReader;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.monarchinitiative.hpoannotqc.TestResources.INVALID_LINE;
+import static org.monarchinitiative.hpoannotqc.TestResources.VALID_LINE;
+import static org.monarchinitiative.hpoannotqc.TestResources.writeSmallFile;
+
+public class SmallFileListQcTest {
+
+    @TempDir
+    Path directory;
+
+    private final ByteArrayOutputStream output = new ByteArrayOutputStream();
+
+    private SmallFileChecker checker;
+
+    @BeforeEach
+    public void init() {
+        checker = new SmallFileChecker(TestResources.smallHpo());
+    }
+
+    private int check(SmallFileListQc qc, String... files) throws IOException {
+        return qc.check(new BufferedReader(new StringReader(String.join("\n", files))));
+    }
+
+    @Test
+    public void testValidFiles() throws IOException {
+        writeSmallFile(directory, "OMIM-600001.tab", VALID_LINE);
+        SmallFileListQc qc = new SmallFileListQc(checker, null, new PrintStream(output, true));
+        assertEquals(0, check(qc, directory.resolve("OMIM-600001.tab").toString(), "README.md"));
+        assertEquals(1, qc.getCheckedFiles());
+    }
+
+    /**
+     * Entries of the omit-list and deleted files are skipped; only the remaining files are checked.
+     */
+    @Test
+    public void testChangedFiles() throws IOException {
+        writeSmallFile(directory, "OMIM-600001.tab", VALID_LINE);
+        writeSmallFile(directory, "OMIM-600002.tab", INVALID_LINE);
+        writeSmallFile(directory, "OMIM-600003.tab", INVALID_LINE);
+        Files.writeString(directory.resolve("omit-list.txt"), "#omit\nOMIM:600003\ttrait\n");
+        SmallFileListQc qc = new SmallFileListQc(checker, null, new PrintStream(output, true));
+        int filesWithErrors = check(qc,
+                directory.resolve("OMIM-600001.tab").toString(),
+                directory.resolve("OMIM-600002.tab").toString(),
+                directory.resolve("OMIM-600003.tab").toString(),
+                directory.resolve("OMIM-600004.tab").toString());
+        assertEquals(1, filesWithErrors);
+        assertEquals(2, qc.getCheckedFiles());
+        String printed = output.toString();
+        assertTrue(printed.contains("OMIM-600002.tab: 1 error(s)"));
+        assertTrue(printed.contains("OMIM-600004.tab: deleted"));
+        assertTrue(printed.contains("Checked 2 small files (1 omitted, 1 deleted); 1 with errors"));
+    }
+
+    /**
+     * Paths of another working directory (e.g., of {@code git diff}) are looked up in the annotation directory.
+     */
+    @Test
+    public void testAnnotationDirectory() throws IOException {
+        writeSmallFile(directory, "OMIM-600002.tab", INVALID_LINE);
+        SmallFileListQc qc = new SmallFileListQc(checker, directory, new PrintStream(output, true));
+        assertEquals(1, check(qc, "rare-diseases/annotated/OMIM-600002.tab"));
+        assertEquals(1, qc.getCheckedFiles());
+    }
+}
@@ -0,0 +1,210 @@
+package org.monarchinitiative.hpoannotqc.cmd;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.monarchinitiative.hpoannotqc.TestResources;
+import org.monarchinitiative.hpoannotqc.annotations.SmallFileChecker;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.PrintStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.WatchEvent;
+import java.util.List;
+import java.util.Set;
+import java.util.TreeSet;
+
+import static java.nio.file.StandardWatchEventKinds.ENTRY_CREATE;
+import static java.nio.file.StandardWatchEventKinds.ENTRY_MODIFY;
+import static java.nio.file.StandardWatchEventKinds.OVERFLOW;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.monarchinitiative.hpoannotqc.TestResources.INVALID_LINE;
+import static org.monarchinitiative.hpoannotqc.TestResources.VALID_LINE;
+import static org.monarchinitiative.hpoannotqc.TestResources.writeSmallFile;
+
+public class SmallFileWatcherTest {
+
+    @TempDir
+    Path directory;
+
+    private final ByteArrayOutputStream output = new ByteArrayOutputStream();
+
+    private SmallFileWatcher watcher;
+
+    @BeforeEach
+    public void init() {
+        watcher = new SmallFileWatcher(directory, new SmallFileChecker(TestResources.smallHpo()),
+                new PrintStream(output, true));
+    }
+
+    /**
+     * Only the {@code .tab} files of the directory are checked, except for the entries of the {@code omit-list.txt}.
+     */
+    @Test
+    public void testCheckAll() throws IOException {
+        writeSmallFile(directory, "OMIM-600001.tab", VALID_LINE);
+        writeSmallFile(directory, "OMIM-600002.tab", INVALID_LINE);
+        writeSmallFile(directory, "OMIM-600003.tab", INVALID_LINE);
+        Files.writeString(directory.resolve("omit-list.txt"), "OMIM:600003\n");
+        watcher.checkAll();
+        assertEquals(2, watcher.getFileCount());
+        assertEquals(1, watcher.getFilesWithErrors());
+        assertTrue(output.toString().contains("OMIM-600002.tab: 1 error(s)"));
+        assertTrue(output.toString().contains("2 small files, 1 with errors, 1 error(s)"));
+    }
+
+    /**
+     * Changed files replace their previous results; deleted files are removed from the summary.
+     */
+    @Test
+    public void testRecheck() throws IOException {
+        Path first = writeSmallFile(directory, "OMIM-600001.tab", VALID_LINE);
+        Path second = writeSmallFile(directory, "OMIM-600002.tab", INVALID_LINE);
+        watcher.checkAll();
+        writeSmallFile(directory, "OMIM-600001.tab", INVALID_LINE, VALID_LINE.replace("PMID:123", "PMID123"));
+        Files.delete(second);
+        output.reset();
+        watcher.recheck(List.of(first, second));
+        assertEquals(1, watcher.getFileCount());
+        assertEquals(1, watcher.getFilesWithErrors());
+        String printed = output.toString();
+        assertTrue(printed.contains("OMIM-600001.tab: 2 error(s)"));
+        assertTrue(printed.contains("OMIM-600002.tab: removed"));
+        assertTrue(printed.contains("1 small files, 1 with errors, 2 error(s)"));
+    }
+
+    /**
+     * Changed files that are listed in the {@code omit-list.txt} are not checked.
+     */
+    @Test
+    public void testRecheckOmitted() throws IOException {
+        writeSmallFile(directory, "OMIM-600001.tab", VALID_LINE);
+        Files.writeString(directory.resolve("omit-list.txt"), "OMIM:600003\n");
+        watcher.checkAll();
+        Path omitted = writeSmallFile(directory, "OMIM-600003.tab", INVALID_LINE);
+        watcher.recheck(List.of(omitted));
+        assertEquals(1, watcher.getFileCount());
+        assertEquals(0, watcher.getFilesWithErrors());
+    }
+
+    /**
+     * Lost events and changes of the {@code omit-list.txt} check all files again.
+     */
+    @Test
+    public void testCheckAllAfterOverflowOrOmitListChange() throws IOException {
+        writeSmallFile(directory, "OMIM-600001.tab", VALID_LINE);
+        writeSmallFile(directory, "OMIM-600003.tab", INVALID_LINE);
+        watcher.checkAll();
+        assertEquals(1, watcher.getFilesWithErrors());
+        // a file that was created while the events were lost
+        writeSmallFile(directory, "OMIM-600002.tab", INVALID_LINE);
+        Set<Path> changed = new TreeSet<>();
+        assertTrue(watcher.collect(List.of(event(OVERFLOW, null)), changed));
+        watcher.checkChanges(changed, true);
+        assertEquals(3, watcher.getFileCount());
+        assertEquals(2, watcher.getFilesWithErrors());
+
+        Files.writeString(directory.resolve("omit-list.txt"), "OMIM:600003\n");
+        changed.clear();
+        boolean checkAll = watcher.collect(List.of(event(ENTRY_CREATE, Path.of("omit-list.txt")),
+                event(ENTRY_MODIFY, Path.of("OMIM-600001.tab"))), changed);
+        assertTrue(checkAll);
+        assertEquals(Set.of(directory.resolve("OMIM-600001.tab")), changed);
+        watcher.checkChanges(changed, checkAll);
+        assertEquals(2, watcher.getFileCount());
+        assertEquals(1, watcher.getFilesWithErrors());
+    }
+
+    /**
+     * A burst of changes is checked once, after the watcher saw no event for {@link SmallFileWatcher#DEBOUNCE_MILLIS}.
+     */
+    @Test
+    public void testWatchDebouncesBursts() throws Exception {
+        writeSmallFile(directory, "OMIM-600001.tab", VALID_LINE);
+        SynchronizedOutput printed = new SynchronizedOutput();
+        SmallFileWatcher watcher = new SmallFileWatcher(directory, new SmallFileChecker(TestResources.smallHpo()),
+                new PrintStream(printed, true));
+        Thread thread = new Thread(() -> {
+            try {
+                watcher.watch();
+            } catch (IOException | InterruptedException e) {
+                // stopped by the test
+            }
+        });
+        thread.start();
+        try {
+            printed.await("Watching");
+            for (int i = 0; i < 5; i++) {
+                writeSmallFile(directory, "OMIM-600001.tab", INVALID_LINE);
+            }
+            writeSmallFile(directory, "OMIM-600002.tab", VALID_LINE);
+            printed.await("2 small files, 1 with errors");
+            Thread.sleep(3 * SmallFileWatcher.DEBOUNCE_MILLIS);
+            String afterStart = printed.toString().substring(printed.toString().indexOf("Watching"));
+            assertEquals(1, count(afterStart, "OMIM-600001.tab: 1 error(s)"));
+            assertEquals(1, count(afterStart, "small files, "));
+        } finally {
+            thread.interrupt();
+            thread.join(10_000);
+        }
+    }
+
+    private static int count(String s, String part) {
+        int n = 0;
+        for (int i = s.indexOf(part); i >= 0; i = s.indexOf(part, i + 1)) {
+            n++;
+        }
+        return n;
+    }
+
+    private static WatchEvent<Path> event(WatchEvent.Kind<?> kind, Path context) {
+        return new WatchEvent<>() {
+            @SuppressWarnings("unchecked")
+            @Override
+            public Kind<Path> kind() {
+                return (Kind<Path>) kind;
+            }
+
+            @Override
+            public int count() {
+                return 1;
+            }
+
+            @Override
+            public Path context() {
+                return context;
+            }
+        };
+    }
+
+    /**
+     * Output of the watcher thread that the test can wait for.
+     */
+    private static class SynchronizedOutput extends ByteArrayOutputStream {
+
+        @Override
+        public synchronized void write(byte[] b, int off, int len) {
+            super.write(b, off, len);
+            notifyAll();
+        }
+
+        synchronized void await(String text) throws InterruptedException {
+            long deadline = System.currentTimeMillis() + 10_000;
+            while (!toString().contains(text)) {
+                long remaining = deadline - System.currentTimeMillis();
+                if (remaining <= 0) {
+                    throw new AssertionError("Timed out waiting for \"" + text + "\" in:\n" + this);
+                }
+                wait(remaining);
+            }
+        }
+
+        @Override
+        public synchronized String toString() {
+            return super.toString();
+        }
+    }
+}